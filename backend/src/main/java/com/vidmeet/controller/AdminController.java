@@ -0,0 +1,55 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.service.SuspensionService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    @Autowired
+    private SuspensionService suspensionService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${security.admin-emails:}")
+    private Set<String> adminEmails = Set.of();
+
+    // ✅ Suspend a user: blocks login and revokes every token they hold (admins only)
+    @PostMapping("/users/{email}/suspend")
+    public ResponseEntity<?> suspend(@RequestHeader("Authorization") String token, @PathVariable String email) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Admins only.");
+        }
+        if (!suspensionService.suspend(email)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("⚠️ User not found.");
+        }
+        return ResponseEntity.ok("✅ User suspended.");
+    }
+
+    // ✅ Lift a suspension; the user has to log in again (admins only)
+    @PostMapping("/users/{email}/reactivate")
+    public ResponseEntity<?> reactivate(@RequestHeader("Authorization") String token, @PathVariable String email) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Admins only.");
+        }
+        if (!suspensionService.reactivate(email)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("⚠️ User not found.");
+        }
+        return ResponseEntity.ok("✅ User reactivated.");
+    }
+
+    private boolean isAdmin(String token) {
+        return adminEmails.contains(jwtUtil.extractUsername(token.substring(7)));
+    }
+}
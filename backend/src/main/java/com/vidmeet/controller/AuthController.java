@@ -1,16 +1,29 @@
 package com.vidmeet.controller;
 
+import com.vidmeet.model.LoginCredentials;
 import com.vidmeet.model.User;
+import com.vidmeet.model.UserCard;
 import com.vidmeet.repository.UserRepository;
 import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.LoginThrottle;
+import com.vidmeet.security.PasswordHashingService;
+import com.vidmeet.security.TokenRevocationService;
+import com.vidmeet.service.ProfileCardCache;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -24,57 +37,128 @@ public class AuthController {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder; // injected bean
+    private PasswordHashingService passwordHasher; // BCrypt off the request threads
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private ProfileCardCache profileCardCache;
+
+    // Repository work after a hash completes runs here, so the bcrypt pool only hashes
+    @Autowired
+    @Qualifier("authCompletionExecutor")
+    private Executor completionExecutor;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
-        try {
-            if (repo.findByEmail(user.getEmail()) != null) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body("⚠️ Email already registered");
-            }
-
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-            User savedUser = repo.save(user);
-
-            // Optionally generate token after registering
-            String token = jwtUtil.generateToken(savedUser.getEmail());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "✅ Registered successfully");
-            response.put("user", savedUser);
-            response.put("token", token);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("❌ Error: " + e.getMessage());
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user, HttpServletRequest request) {
+        long retryAfter = loginThrottle.acquire(null, request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfter));
         }
+        if (repo.existsByEmail(user.getEmail())) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.CONFLICT).body("⚠️ Email already registered"));
+        }
+
+        return passwordHasher.encode(user.getPassword())
+                .<ResponseEntity<?>>thenApplyAsync(hash -> {
+                    user.setPassword(hash);
+                    User savedUser = repo.save(user);
+
+                    // Optionally generate token after registering
+                    String token = jwtUtil.generateToken(savedUser.getEmail());
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "✅ Registered successfully");
+                    response.put("user", UserCard.of(savedUser));
+                    response.put("token", token);
+
+                    return ResponseEntity.ok(response);
+                }, completionExecutor)
+                .exceptionally(e -> errorResponse(e, "❌ Error: "));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User user) {
-        try {
-            User found = repo.findByEmail(user.getEmail());
-            System.out.println("AuthController.login - email lookup: " + user.getEmail() + " found=" + (found != null));
-            if (found != null) {
-                boolean matched = passwordEncoder.matches(user.getPassword(), found.getPassword());
-                System.out.println("Password match? " + matched);
-                if (matched) {
-                    String token = jwtUtil.generateToken(found.getEmail());
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User user, HttpServletRequest request) {
+        long retryAfter = loginThrottle.acquire(user.getEmail(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfter));
+        }
+
+        LoginCredentials found = repo.findCredentialsByEmail(user.getEmail());
+        if (found == null) {
+            loginThrottle.recordFailure(user.getEmail());
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("❌ Invalid credentials"));
+        }
+
+        return passwordHasher.matches(user.getPassword(), found.password())
+                .<ResponseEntity<?>>thenApplyAsync(matched -> {
+                    if (!matched) {
+                        loginThrottle.recordFailure(found.email());
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("❌ Invalid credentials");
+                    }
+                    // Only after the password, so the status isn't told to anyone who asks
+                    if ("suspended".equals(found.status())) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Account suspended");
+                    }
+                    loginThrottle.recordSuccess(found.email());
+                    rehashIfNeeded(found, user.getPassword());
+
+                    String token = jwtUtil.generateToken(found.email());
 
                     Map<String, Object> response = new HashMap<>();
                     response.put("message", "🎉 Login successful");
                     response.put("token", token);
-                    response.put("user", found);
+                    response.put("user", profileCardCache.get(found.email()));
 
                     return ResponseEntity.ok(response);
-                }
-            }
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("❌ Invalid credentials");
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("❌ Login error: " + e.getMessage());
+                }, completionExecutor)
+                .exceptionally(e -> errorResponse(e, "❌ Login error: "));
+    }
+
+    // Work factor was raised since this hash was stored: upgrade it in the background.
+    // Skipped silently if the pool is saturated; the next login will try again.
+    private void rehashIfNeeded(LoginCredentials found, String rawPassword) {
+        if (!passwordHasher.needsRehash(found.password())) {
+            return;
+        }
+        passwordHasher.encode(rawPassword)
+                .thenAcceptAsync(hash -> repo.updatePassword(found.email(), hash), completionExecutor)
+                .exceptionally(e -> null);
+    }
+
+    private ResponseEntity<?> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("⏳ Too many attempts, try again later");
+    }
+
+    private ResponseEntity<?> errorResponse(Throwable e, String prefix) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHasher.getRetryAfterSeconds()))
+                    .body("⏳ Server busy, please retry");
+        }
+        cause.printStackTrace();
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(prefix + cause.getMessage());
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String token) {
+        if (token == null || !token.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body("❌ Missing token");
+        }
+        Claims claims = jwtUtil.parseValidClaims(token.substring(7));
+        if (claims != null) {
+            revocationService.revoke(claims);
         }
+        return ResponseEntity.ok("👋 Logged out");
     }
 
     @GetMapping("/ping")
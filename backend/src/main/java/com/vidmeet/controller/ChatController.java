@@ -1,18 +1,30 @@
 package com.vidmeet.controller;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.vidmeet.model.ChatMessage;
 import com.vidmeet.repository.ChatRepository;
+import com.vidmeet.service.ChatArchive;
+import com.vidmeet.service.ChatSearchIndex;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -22,16 +34,50 @@ public class ChatController {
   @Autowired
   private ChatRepository repo;
 
+  @Autowired
+  private ChatSearchIndex searchIndex;
+
+  @Autowired
+  private ChatArchive archive;
+
   @PostMapping("/save")
   public ChatMessage saveChat(@RequestBody ChatMessage msg) {
-    return repo.save(msg);
+    ChatMessage saved = repo.save(msg);
+    searchIndex.add(saved);
+    return saved;
   }
 
+  // Archive and table merged in id order; a row present in both is returned once. Ids can
+  // interleave: a row committed late may have a lower id than rows already archived.
   @GetMapping("/room/{roomId}")
-  public List<ChatMessage> getChat(@PathVariable String roomId) {
-    return repo.findByRoomId(roomId);
+  public List<ChatMessage> getChat(@PathVariable String roomId) throws IOException {
+    List<ChatMessage> messages = new ArrayList<>(archive.read(roomId));
+    Set<Long> archived = new HashSet<>();
+    messages.forEach(m -> archived.add(m.getId()));
+    for (ChatMessage message : repo.findByRoomIdOrderByIdAsc(roomId)) {
+      if (!archived.contains(message.getId())) messages.add(message);
+    }
+    messages.sort(Comparator.comparingLong(ChatMessage::getId));
+    return messages;
   }
-}
-
-
 
+  // Messages of the room containing every word of q (the last one as a prefix), newest first
+  @GetMapping("/room/{roomId}/search")
+  public ResponseEntity<?> searchChat(@PathVariable String roomId, @RequestParam String q,
+                                      @RequestParam(defaultValue = "20") int limit) {
+    if (limit < 1 || limit > 100) {
+      return ResponseEntity.badRequest().body("❌ limit must be between 1 and 100.");
+    }
+    List<Long> ids = searchIndex.search(roomId, q, limit);
+    Map<Long, ChatMessage> byId = new HashMap<>();
+    repo.findAllById(ids).forEach(m -> byId.put(m.getId(), m));
+    if (byId.size() < ids.size()) {
+      try {
+        archive.find(roomId, ids).forEach(m -> byId.putIfAbsent(m.getId(), m));
+      } catch (IOException e) {
+        System.err.println("Chat search could not read the archive of room " + roomId + ": " + e.getMessage());
+      }
+    }
+    return ResponseEntity.ok(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
+  }
+}
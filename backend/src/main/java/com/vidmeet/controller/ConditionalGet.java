@@ -0,0 +1,22 @@
+package com.vidmeet.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Conditional GET for endpoints whose validators come from VersionCache. Checked before the
+// body is built: a match sets 304 and the handler returns null, so nothing is queried or
+// serialized. Otherwise ETag and Last-Modified are already on the response.
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static boolean notModified(ServletWebRequest request, String etag, long lastModified) {
+        // Lets browsers keep the body and revalidate each poll; Spring Security would
+        // otherwise mark every response no-store
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return request.checkNotModified(etag, lastModified);
+    }
+}
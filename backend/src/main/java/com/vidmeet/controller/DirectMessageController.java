@@ -0,0 +1,96 @@
+package com.vidmeet.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vidmeet.model.Meeting;
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.websocket.InboundRateLimiter;
+import com.vidmeet.websocket.RoomRoster;
+import com.vidmeet.websocket.SessionDirectory;
+import com.vidmeet.websocket.VideoSocketHandler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/direct")
+@CrossOrigin(origins = "*")
+public class DirectMessageController {
+
+    @Autowired
+    private SessionDirectory sessionDirectory;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InboundRateLimiter rateLimiter;
+
+    // ✅ Push a message to a user's open meeting sessions, whichever room they are in.
+    // With a roomId it is a meeting invite: {"to", "roomId", "message"?}; otherwise {"to", "message"}.
+    // Only the meeting's host and participants may invite to it. The answer is the same whether
+    // or not the recipient had a session open, so the endpoint can't be used to track people.
+    @PostMapping
+    public ResponseEntity<?> push(@RequestHeader("Authorization") String token, @RequestBody Map<String, String> request) {
+        String email = jwtUtil.extractUsername(token.substring(7));
+        String to = request.get("to");
+        String roomId = request.get("roomId");
+        String text = request.get("message");
+
+        if (to == null || to.isBlank()) {
+            return ResponseEntity.badRequest().body("❌ Recipient is required.");
+        }
+        if (roomId == null && (text == null || text.isBlank())) {
+            return ResponseEntity.badRequest().body("❌ Message is required.");
+        }
+        if (!rateLimiter.tryChat(email)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("⏳ Too many messages, slow down");
+        }
+        if (roomId != null) {
+            Meeting meeting = meetingRepository.findByRoomId(roomId);
+            if (meeting == null || !meeting.isActive()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("⚠️ Meeting not found.");
+            }
+            if (!isMember(meeting, email)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Only the meeting's host or participants can invite.");
+            }
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", roomId != null ? "invite" : "direct");
+        data.put("from", email);
+        data.put("roomId", roomId);
+        data.put("message", text);
+        data.put("timestamp", new Date());
+        try {
+            sessionDirectory.send(to, new TextMessage(objectMapper.writeValueAsString(data)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("❌ Error sending message: " + e.getMessage());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", roomId != null ? "✅ Invite sent!" : "✅ Message sent!");
+        return ResponseEntity.ok(response);
+    }
+
+    // Host, a participant on record, or someone in the room right now
+    private static boolean isMember(Meeting meeting, String email) {
+        if (email.equals(meeting.getHost()) || email.equals(meeting.getEmail())) return true;
+        if (meeting.getParticipants() != null && meeting.getParticipants().contains(email)) return true;
+        RoomRoster roster = VideoSocketHandler.roomParticipants.get(meeting.getRoomId());
+        return roster != null && roster.contains(email);
+    }
+}
@@ -1,15 +1,20 @@
 package com.vidmeet.controller;
 
 import com.vidmeet.model.Meeting;
+import com.vidmeet.model.MeetingHost;
 import com.vidmeet.model.MeetingParticipantRequest;
 import com.vidmeet.repository.MeetingRepository;
 import com.vidmeet.security.JwtUtil;
+import com.vidmeet.service.VersionCache;
+import com.vidmeet.websocket.OverloadGuard;
 import com.vidmeet.websocket.VideoSocketHandler;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -25,9 +30,22 @@ public class MeetingController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private OverloadGuard overloadGuard;
+
+    @Autowired
+    private VersionCache versionCache;
+
     // ✅ Create Meeting
     @PostMapping("/create")
     public ResponseEntity<?> createMeeting(@RequestHeader("Authorization") String token, @RequestBody Map<String, String> request) {
+        // Shed before touching the database; a saturated node shouldn't take on new rooms
+        if (!overloadGuard.admitMeeting()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(overloadGuard.getRetryAfterSeconds()))
+                    .body("⏳ Server is at capacity. Please try again shortly.");
+        }
+
         try {
             String email = jwtUtil.extractUsername(token.substring(7));
             String roomId = request.get("roomId");
@@ -104,15 +122,19 @@ public class MeetingController {
         }
     }
 
-    // ✅ Get host email for a room
+    // ✅ Get host email for a room (cached; 304 if the client's copy is current)
     @GetMapping("/host/{roomId}")
-    public ResponseEntity<?> getHostForRoom(@PathVariable String roomId) {
-        Meeting meeting = meetingRepository.findByRoomId(roomId);
+    public ResponseEntity<?> getHostForRoom(@PathVariable String roomId, ServletWebRequest request) {
+        MeetingHost meeting = versionCache.getMeetingHost(roomId);
         if (meeting == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("⚠️ Meeting not found.");
         }
+        VersionCache.Validators version = versionCache.meetingHost(meeting);
+        if (ConditionalGet.notModified(request, version.etag(), version.lastModified())) {
+            return null;
+        }
         Map<String, String> response = new HashMap<>();
-        response.put("hostEmail", meeting.getHost());
+        response.put("hostEmail", meeting.host());
         return ResponseEntity.ok(response);
     }
 
@@ -1,14 +1,21 @@
 package com.vidmeet.controller;
 
 import com.vidmeet.model.User;
+import com.vidmeet.model.UserCard;
+import com.vidmeet.model.UserProfile;
 import com.vidmeet.repository.UserRepository;
 import com.vidmeet.security.JwtUtil;
+import com.vidmeet.service.PresenceService;
+import com.vidmeet.service.ProfileCardCache;
+import com.vidmeet.service.VersionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,35 +29,54 @@ public class ProfileController {
     @Autowired
     private JwtUtil jwtUtil;
 
-    // Get user profile
+    @Autowired
+    private ProfileCardCache profileCardCache;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private VersionCache versionCache;
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Get user profile (conditional: 304 if the client's copy is current)
     @GetMapping
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token, ServletWebRequest request) {
         try {
             String email = jwtUtil.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email);
+            VersionCache.Validators version = versionCache.profile(email);
+            if (version == null) {
+                return ResponseEntity.badRequest().body("❌ User not found.");
+            }
+            if (ConditionalGet.notModified(request, version.etag(), version.lastModified())) {
+                return null;
+            }
+
+            UserProfile user = userRepository.findProfileByEmail(email);
             
             if (user == null) {
                 return ResponseEntity.badRequest().body("❌ User not found.");
             }
 
             Map<String, Object> profile = new HashMap<>();
-            profile.put("id", user.getId());
-            profile.put("email", user.getEmail());
-            profile.put("fullName", user.getFullName());
-            profile.put("displayName", user.getDisplayName());
-            profile.put("bio", user.getBio());
-            profile.put("avatarUrl", user.getAvatarUrl());
-            profile.put("phoneNumber", user.getPhoneNumber());
-            profile.put("location", user.getLocation());
-            profile.put("company", user.getCompany());
-            profile.put("jobTitle", user.getJobTitle());
-            profile.put("website", user.getWebsite());
-            profile.put("socialLinks", user.getSocialLinks());
-            profile.put("preferences", user.getPreferences());
-            profile.put("createdAt", user.getCreatedAt());
-            profile.put("lastLogin", user.getLastLogin());
-            profile.put("isOnline", user.getIsOnline());
-            profile.put("status", user.getStatus());
+            profile.put("id", user.id());
+            profile.put("email", user.email());
+            profile.put("fullName", user.fullName());
+            profile.put("displayName", user.displayName());
+            profile.put("bio", user.bio());
+            profile.put("avatarUrl", user.avatarUrl());
+            profile.put("phoneNumber", user.phoneNumber());
+            profile.put("location", user.location());
+            profile.put("company", user.company());
+            profile.put("jobTitle", user.jobTitle());
+            profile.put("website", user.website());
+            profile.put("socialLinks", user.socialLinks());
+            profile.put("preferences", user.preferences());
+            profile.put("createdAt", user.createdAt());
+            profile.put("lastLogin", user.lastLogin());
+            profile.put("isOnline", presenceService.isOnline(email));
+            profile.put("status", user.status());
 
             return ResponseEntity.ok(profile);
         } catch (Exception e) {
@@ -106,6 +132,8 @@ public class ProfileController {
 
             user.setUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
+            profileCardCache.invalidate(email);
+            versionCache.invalidateUser(email);
 
             return ResponseEntity.ok("✅ Profile updated successfully!");
         } catch (Exception e) {
@@ -113,25 +141,15 @@ public class ProfileController {
         }
     }
 
-    // Update online status
+    // Update online status (kept in memory; PresenceService batches the DB write)
     @PutMapping("/online-status")
     public ResponseEntity<?> updateOnlineStatus(@RequestHeader("Authorization") String token, @RequestBody Map<String, Boolean> statusData) {
         try {
             String email = jwtUtil.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email);
-            
-            if (user == null) {
-                return ResponseEntity.badRequest().body("❌ User not found.");
-            }
 
             Boolean isOnline = statusData.get("isOnline");
             if (isOnline != null) {
-                user.setIsOnline(isOnline);
-                if (isOnline) {
-                    user.setLastLogin(LocalDateTime.now());
-                }
-                user.setUpdatedAt(LocalDateTime.now());
-                userRepository.save(user);
+                presenceService.setOnline(email, isOnline);
             }
 
             return ResponseEntity.ok("✅ Online status updated!");
@@ -140,30 +158,61 @@ public class ProfileController {
         }
     }
 
-    // Get user by email (for meeting participants)
+    // Bulk presence: {"emails": [...]} -> {email: online}
+    @PostMapping("/presence")
+    public ResponseEntity<?> getPresence(@RequestBody Map<String, List<String>> request) {
+        List<String> emails = request.get("emails");
+        if (emails == null || emails.isEmpty()) {
+            return ResponseEntity.ok(Map.of());
+        }
+        if (emails.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("❌ At most " + MAX_BATCH_SIZE + " emails per request.");
+        }
+        return ResponseEntity.ok(presenceService.getPresence(emails));
+    }
+
+    // Get user by email (for meeting participants; conditional like getProfile)
     @GetMapping("/user/{email}")
-    public ResponseEntity<?> getUserByEmail(@PathVariable String email) {
+    public ResponseEntity<?> getUserByEmail(@PathVariable String email, ServletWebRequest request) {
         try {
-            User user = userRepository.findByEmail(email);
-            
-            if (user == null) {
+            VersionCache.Validators version = versionCache.card(email);
+            if (version == null) {
                 return ResponseEntity.badRequest().body("❌ User not found.");
             }
+            if (ConditionalGet.notModified(request, version.etag(), version.lastModified())) {
+                return null;
+            }
+
+            UserCard card = profileCardCache.get(email);
 
-            Map<String, Object> userInfo = new HashMap<>();
-            userInfo.put("id", user.getId());
-            userInfo.put("email", user.getEmail());
-            userInfo.put("fullName", user.getFullName());
-            userInfo.put("displayName", user.getDisplayName());
-            userInfo.put("avatarUrl", user.getAvatarUrl());
-            userInfo.put("company", user.getCompany());
-            userInfo.put("jobTitle", user.getJobTitle());
-            userInfo.put("isOnline", user.getIsOnline());
+            if (card == null) {
+                return ResponseEntity.badRequest().body("❌ User not found.");
+            }
 
-            return ResponseEntity.ok(userInfo);
+            return ResponseEntity.ok(card.withIsOnline(presenceService.isOnline(card.email())));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("❌ Error fetching user: " + e.getMessage());
         }
     }
-}
 
+    // Batch lookup for a whole room: {"emails": [...]} -> {email: card}, unknown emails omitted
+    @PostMapping("/users/batch")
+    public ResponseEntity<?> getUsersByEmails(@RequestBody Map<String, List<String>> request) {
+        try {
+            List<String> emails = request.get("emails");
+            if (emails == null || emails.isEmpty()) {
+                return ResponseEntity.ok(Map.of());
+            }
+            if (emails.size() > MAX_BATCH_SIZE) {
+                return ResponseEntity.badRequest().body("❌ At most " + MAX_BATCH_SIZE + " emails per request.");
+            }
+
+            // Cards are cached; presence is live, and kept under the stored spelling of the email
+            Map<String, UserCard> cards = new HashMap<>(profileCardCache.getAll(emails));
+            cards.replaceAll((requested, card) -> card.withIsOnline(presenceService.isOnline(card.email())));
+            return ResponseEntity.ok(cards);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("❌ Error fetching users: " + e.getMessage());
+        }
+    }
+}
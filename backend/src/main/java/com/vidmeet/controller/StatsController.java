@@ -0,0 +1,83 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.model.Meeting;
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.CallQualityStore.Resolution;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    @Autowired
+    private CallQualityStore qualityStore;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    // ✅ Call quality for every participant of a room (host only)
+    // resolution: raw (per report), 1m or 10m
+    @GetMapping("/room/{roomId}")
+    public ResponseEntity<?> getRoomStats(@RequestHeader("Authorization") String token,
+                                          @PathVariable String roomId,
+                                          @RequestParam(defaultValue = "raw") String resolution) {
+        String email = jwtUtil.extractUsername(token.substring(7));
+        Resolution parsed = parseResolution(resolution);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body("❌ resolution must be raw, 1m or 10m.");
+        }
+        Meeting meeting = meetingRepository.findByRoomId(roomId);
+        if (meeting == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("⚠️ Meeting not found.");
+        }
+        if (!email.equals(meeting.getHost())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Only the host can view room stats.");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("roomId", roomId);
+        response.put("resolution", resolution);
+        response.put("participants", qualityStore.query(roomId, parsed));
+        return ResponseEntity.ok(response);
+    }
+
+    // ✅ Caller's own call quality in a room
+    @GetMapping("/room/{roomId}/me")
+    public ResponseEntity<?> getMyStats(@RequestHeader("Authorization") String token,
+                                        @PathVariable String roomId,
+                                        @RequestParam(defaultValue = "raw") String resolution) {
+        String email = jwtUtil.extractUsername(token.substring(7));
+        Resolution parsed = parseResolution(resolution);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body("❌ resolution must be raw, 1m or 10m.");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("roomId", roomId);
+        response.put("resolution", resolution);
+        response.put("points", qualityStore.query(roomId, email, parsed));
+        return ResponseEntity.ok(response);
+    }
+
+    private static Resolution parseResolution(String resolution) {
+        return switch (resolution) {
+            case "raw" -> Resolution.RAW;
+            case "1m" -> Resolution.MINUTE;
+            case "10m" -> Resolution.TEN_MINUTES;
+            default -> null;
+        };
+    }
+}
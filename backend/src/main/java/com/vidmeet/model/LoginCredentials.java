@@ -0,0 +1,9 @@
+package com.vidmeet.model;
+
+// What login needs from a User row: the hash to check and whether the account may sign in
+public record LoginCredentials(
+        Long id,
+        String email,
+        String password,
+        String status) {
+}
@@ -0,0 +1,10 @@
+package com.vidmeet.model;
+
+import java.time.LocalDateTime;
+
+// Who hosts a room, for GET /api/meetings/host; set when the meeting is created and never changed
+public record MeetingHost(
+        Long id,
+        String host,
+        LocalDateTime createdAt) {
+}
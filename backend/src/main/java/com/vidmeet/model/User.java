@@ -22,6 +22,9 @@ public class User {
     @Column(name = "display_name")
     private String displayName;
 
+    // The large columns are lazy (one fetch group, loaded together on first access), so
+    // reading a User row for anything else doesn't drag them along
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String bio;
 
@@ -43,9 +46,11 @@ public class User {
     @Column(name = "website")
     private String website;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "social_links")
     private String socialLinks; // JSON string for social media links
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "preferences")
     private String preferences; // JSON string for user preferences
 
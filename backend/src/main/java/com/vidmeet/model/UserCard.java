@@ -0,0 +1,22 @@
+package com.vidmeet.model;
+
+// Card-sized view of a User for participant lists; loaded by projection, never the full row
+public record UserCard(
+        Long id,
+        String email,
+        String fullName,
+        String displayName,
+        String avatarUrl,
+        String company,
+        String jobTitle,
+        Boolean isOnline) {
+
+    public static UserCard of(User user) {
+        return new UserCard(user.getId(), user.getEmail(), user.getFullName(), user.getDisplayName(),
+                user.getAvatarUrl(), user.getCompany(), user.getJobTitle(), user.getIsOnline());
+    }
+
+    public UserCard withIsOnline(Boolean online) {
+        return new UserCard(id, email, fullName, displayName, avatarUrl, company, jobTitle, online);
+    }
+}
@@ -0,0 +1,23 @@
+package com.vidmeet.model;
+
+import java.time.LocalDateTime;
+
+// The user's own profile page: every column except the password hash and bookkeeping
+public record UserProfile(
+        Long id,
+        String email,
+        String fullName,
+        String displayName,
+        String bio,
+        String avatarUrl,
+        String phoneNumber,
+        String location,
+        String company,
+        String jobTitle,
+        String website,
+        String socialLinks,
+        String preferences,
+        LocalDateTime createdAt,
+        LocalDateTime lastLogin,
+        String status) {
+}
@@ -0,0 +1,11 @@
+package com.vidmeet.model;
+
+import java.time.LocalDateTime;
+
+// The columns that stamp a User row's changes: profile edits set updatedAt, presence
+// flushes set lastLogin. Enough to validate a cached profile or card without reading it.
+public record UserVersion(
+        Long id,
+        LocalDateTime updatedAt,
+        LocalDateTime lastLogin) {
+}
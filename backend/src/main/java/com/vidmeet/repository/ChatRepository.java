@@ -1,12 +1,23 @@
 package com.vidmeet.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.repository.query.Param;
 
 import com.vidmeet.model.ChatMessage;
 
+@Transactional(readOnly = true)
 public interface ChatRepository extends JpaRepository<ChatMessage, Long> {
 	  List<ChatMessage> findByRoomId(String roomId);
 
+	  List<ChatMessage> findByRoomIdOrderByIdAsc(String roomId);
+
+	  // Rooms whose newest message is older than cutoff (archival candidates)
+	  @Query("select c.roomId from ChatMessage c group by c.roomId having max(c.timestamp) < :cutoff")
+	  List<String> findRoomIdsIdleSince(@Param("cutoff") LocalDateTime cutoff);
+
 	}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.vidmeet.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Primary from spring.datasource.*, plus optional read replicas. With datasource.replicas.urls
+// empty the primary pool is the application's only data source, as before. With replicas,
+// read-only transactions go to them; the User, Meeting and Chat repositories run their finds
+// in one, so the hot lookups (findByRoomId, findByEmail, ...) leave the primary while writes
+// stay on it.
+//
+// Routing is decided per transaction, so Hibernate must not keep a connection past one:
+// Spring's default holds it until the EntityManager closes, which under open-in-view is the
+// end of the request, and a handler that reads and then saves would write on the replica.
+//
+// Lag checks run on their own thread rather than the shared @Scheduled one: a replica that is
+// down costs a connection timeout per check, and presence flushes and snapshots must not queue
+// behind it. Replica pools give up on a connection after connection-timeout-ms for the same reason.
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Value("${datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMillis;
+
+    @Value("${datasource.replicas.lag-query:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    @Value("${datasource.replicas.connection-timeout-ms:2000}")
+    private long replicaConnectionTimeoutMillis;
+
+    @Value("${datasource.replicas.lag-check-interval-ms:1000}")
+    private long lagCheckIntervalMillis;
+
+    private ReplicaRoutingDataSource routing;
+    private ScheduledExecutorService lagChecker;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls.split(",")) {
+            if (url.isBlank()) continue;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setConnectionTimeout(replicaConnectionTimeoutMillis);
+            replica.setReadOnly(true);
+            replica.setInitializationFailTimeout(-1); // a replica that is down must not stop startup
+            replicas.put(replica.getPoolName(), replica);
+        }
+        if (replicas.isEmpty()) return primary;
+
+        routing = new ReplicaRoutingDataSource(primary, replicas, maxLagMillis, lagQuery, meterRegistry);
+        lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkReplicaLag, lagCheckIntervalMillis, lagCheckIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        System.out.println("🔀 Routing read-only transactions to " + replicas.size() + " replica(s)");
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    public void checkReplicaLag() {
+        if (routing == null) return;
+        try {
+            routing.checkLag();
+        } catch (Exception e) {
+            // An exception would cancel the schedule for good
+            System.err.println("Error checking replica lag: " + e.getMessage());
+        }
+    }
+
+    // The proxy has no close of its own; a bare primary pool is closed by Spring
+    @PreDestroy
+    public void close() {
+        if (lagChecker != null) lagChecker.shutdownNow();
+        if (routing != null) routing.close();
+    }
+}
@@ -1,8 +1,15 @@
 package com.vidmeet.repository;
 
 import com.vidmeet.model.Meeting;
+import com.vidmeet.model.MeetingHost;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+@Transactional(readOnly = true)
 public interface MeetingRepository extends JpaRepository<Meeting, Long> {
     Meeting findByRoomId(String roomId);
+
+    @Query("select new com.vidmeet.model.MeetingHost(m.id, m.host, m.joinedAt) from Meeting m where m.roomId = :roomId")
+    MeetingHost findHostByRoomId(String roomId);
 }
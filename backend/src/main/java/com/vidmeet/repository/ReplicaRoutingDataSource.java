@@ -0,0 +1,159 @@
+package com.vidmeet.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a replica and everything else to the primary. Replicas take
+// turns among those whose last lag check came in under max-lag-ms; with none healthy (or before
+// the first check) reads go to the primary. Has to sit behind a LazyConnectionDataSourceProxy:
+// JPA opens its connection when the transaction begins, before Spring marks it read-only.
+//
+// The lag query is run on each replica. A Seconds_Behind_Source / Seconds_Behind_Master column
+// (MySQL's SHOW REPLICA STATUS) is read as seconds; otherwise a single column is read as
+// milliseconds. No row, NULL or an error takes the replica out of rotation.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile long lagMillis = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    // replicas: name -> data source, in rotation order
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis,
+                                    String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            Gauge.builder("vidmeet.db.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replication lag at the last check, ms (-1 = unknown)")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        replicaReads = Counter.builder("vidmeet.db.reads").tag("target", "replica")
+                .description("Read-only transactions by the database they ran on").register(meterRegistry);
+        primaryReads = Counter.builder("vidmeet.db.reads").tag("target", "primary")
+                .description("Read-only transactions by the database they ran on").register(meterRegistry);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.healthy) {
+                replicaReads.increment();
+                return replica.name;
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            Long lag = null;
+            String problem = null;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    lag = readLag(result);
+                }
+                if (lag == null) problem = "replication not running";
+            } catch (SQLException e) {
+                problem = e.getMessage();
+            }
+            boolean healthy = lag != null && lag <= maxLagMillis;
+            if (problem == null && !healthy) problem = "lag " + lag + " ms";
+            replica.lagMillis = lag == null ? -1 : lag;
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    System.out.println("🟢 Replica " + replica.name + " in rotation (lag " + lag + " ms)");
+                } else {
+                    System.err.println("Replica " + replica.name + " out of rotation: " + problem);
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    private static Long readLag(ResultSet result) throws SQLException {
+        if (!result.next()) return null;
+        ResultSetMetaData meta = result.getMetaData();
+        for (int column = 1; column <= meta.getColumnCount(); column++) {
+            String label = meta.getColumnLabel(column);
+            if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                long seconds = result.getLong(column);
+                return result.wasNull() ? null : seconds * 1000;
+            }
+        }
+        if (meta.getColumnCount() != 1) return null;
+        long millis = result.getLong(1);
+        return result.wasNull() ? null : millis;
+    }
+
+    // Closes the pools this routes to
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.err.println("Error closing data source: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.vidmeet.repository;
+
+import com.vidmeet.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
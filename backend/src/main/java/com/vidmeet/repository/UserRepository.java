@@ -1,8 +1,71 @@
 package com.vidmeet.repository;
 
+import com.vidmeet.model.LoginCredentials;
 import com.vidmeet.model.User;
+import com.vidmeet.model.UserCard;
+import com.vidmeet.model.UserProfile;
+import com.vidmeet.model.UserVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Full entity, for the write paths; reads use the projections below
     User findByEmail(String email);
-}
\ No newline at end of file
+
+    boolean existsByEmail(String email);
+
+    @Query("select new com.vidmeet.model.LoginCredentials(u.id, u.email, u.password, u.status) "
+            + "from User u where u.email = :email")
+    LoginCredentials findCredentialsByEmail(String email);
+
+    @Query("select new com.vidmeet.model.UserProfile(u.id, u.email, u.fullName, u.displayName, u.bio, "
+            + "u.avatarUrl, u.phoneNumber, u.location, u.company, u.jobTitle, u.website, u.socialLinks, "
+            + "u.preferences, u.createdAt, u.lastLogin, u.status) from User u where u.email = :email")
+    UserProfile findProfileByEmail(String email);
+
+    // Read-write so it runs on the primary: VersionCache reloads this right after an edit
+    // evicts it, and a lagging replica's pre-edit row would be cached as current
+    @Transactional
+    @Query("select new com.vidmeet.model.UserVersion(u.id, coalesce(u.updatedAt, u.createdAt), u.lastLogin) "
+            + "from User u where u.email = :email")
+    UserVersion findVersionByEmail(String email);
+
+    @Query("select new com.vidmeet.model.UserCard(u.id, u.email, u.fullName, u.displayName, "
+            + "u.avatarUrl, u.company, u.jobTitle, u.isOnline) from User u where u.email in :emails")
+    List<UserCard> findCardsByEmailIn(Collection<String> emails);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(String email, String password);
+
+    // active, inactive or suspended; see SuspensionService
+    @Modifying
+    @Transactional
+    @Query("update User u set u.status = :status where u.email = :email")
+    int updateStatus(String email, String status);
+
+    // Bulk presence writes used by PresenceService; they touch only the presence columns
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.isOnline = true, u.lastLogin = :lastLogin where u.email in :emails")
+    int markOnline(Collection<String> emails, LocalDateTime lastLogin);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.isOnline = false where u.email in :emails")
+    int markOffline(Collection<String> emails);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.isOnline = false where u.isOnline = true")
+    int markAllOffline();
+}
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -12,10 +13,11 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 24; // 24h
+    public static final long EXPIRATION_TIME = 1000 * 60 * 60 * 24; // 24h
 
     public String generateToken(String username) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti, used for revocation
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
@@ -36,6 +38,15 @@ public class JwtUtil {
         }
     }
 
+    // Single parse for callers that need both validation and claims; null if invalid
+    public Claims parseValidClaims(String token) {
+        try {
+            return getClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private Claims getClaims(String token) {
         return Jwts.parser()
                 .setSigningKey(secret.getBytes())
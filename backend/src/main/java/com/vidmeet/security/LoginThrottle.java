@@ -0,0 +1,100 @@
+package com.vidmeet.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Fixed-window throttling checked before any BCrypt work is queued: per IP on every
+// attempt, per account on failed logins only (a success clears the account's window).
+// Accounts are keyed by trimmed, lower-cased email, matching how MySQL compares emails, so
+// a change of case can't dodge a lockout.
+@Component
+public class LoginThrottle {
+
+    private final Map<String, Window> accountFailures = new ConcurrentHashMap<>();
+    private final Map<String, Window> ipAttempts = new ConcurrentHashMap<>();
+
+    @Value("${security.login.max-failures-per-account:5}")
+    private int maxFailuresPerAccount;
+
+    @Value("${security.login.account-window-seconds:900}")
+    private long accountWindowSeconds;
+
+    @Value("${security.login.max-attempts-per-ip:30}")
+    private int maxAttemptsPerIp;
+
+    @Value("${security.login.ip-window-seconds:60}")
+    private long ipWindowSeconds;
+
+    // Counts this attempt against the IP; returns 0 if allowed, otherwise seconds to wait
+    public long acquire(String email, String ip) {
+        long now = System.currentTimeMillis();
+        if (email != null) {
+            Window account = accountFailures.get(key(email));
+            if (account != null && account.count(now) >= maxFailuresPerAccount) {
+                return account.secondsLeft(now);
+            }
+        }
+        Window window = ipAttempts.computeIfAbsent(ip, k -> new Window(ipWindowSeconds * 1000));
+        if (window.increment(now) > maxAttemptsPerIp) {
+            return window.secondsLeft(now);
+        }
+        return 0;
+    }
+
+    public void recordFailure(String email) {
+        if (email == null) return;
+        accountFailures.computeIfAbsent(key(email), k -> new Window(accountWindowSeconds * 1000))
+                .increment(System.currentTimeMillis());
+    }
+
+    public void recordSuccess(String email) {
+        if (email == null) return;
+        accountFailures.remove(key(email));
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        accountFailures.values().removeIf(w -> w.isExpired(now));
+        ipAttempts.values().removeIf(w -> w.isExpired(now));
+    }
+
+    private static final class Window {
+        private final long lengthMillis;
+        private long start;
+        private int count;
+
+        Window(long lengthMillis) {
+            this.lengthMillis = lengthMillis;
+        }
+
+        synchronized int increment(long now) {
+            if (now - start >= lengthMillis) {
+                start = now;
+                count = 0;
+            }
+            return ++count;
+        }
+
+        synchronized int count(long now) {
+            return now - start >= lengthMillis ? 0 : count;
+        }
+
+        synchronized long secondsLeft(long now) {
+            return Math.max(1, (start + lengthMillis - now + 999) / 1000);
+        }
+
+        synchronized boolean isExpired(long now) {
+            return now - start >= lengthMillis;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.vidmeet.security;
+
+import com.vidmeet.model.RevokedToken;
+import com.vidmeet.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked tokens (logout) and user-wide cutoffs (suspension). The Bloom filter answers
+// "definitely not revoked" for almost every request; only positives touch the exact maps.
+// The database is the durable copy and is only read at startup.
+@Component
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository repository;
+
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>(); // jti -> expiry millis
+    private final Map<String, Cutoff> userCutoffs = new ConcurrentHashMap<>(); // email -> cutoff
+    private volatile BloomFilter bloom;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    public TokenRevocationService(RevokedTokenRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void load() {
+        long now = System.currentTimeMillis();
+        for (RevokedToken row : repository.findByExpiresAtAfter(toLocal(now))) {
+            long expiresAt = toMillis(row.getExpiresAt());
+            if (row.getTokenId() != null) {
+                revokedTokenIds.put(row.getTokenId(), expiresAt);
+            } else {
+                userCutoffs.merge(row.getEmail(), new Cutoff(toMillis(row.getRevokedAt()), expiresAt), Cutoff::latest);
+            }
+        }
+        rebuild();
+    }
+
+    // Hot path: called by JwtFilter for every authenticated request
+    public boolean isRevoked(Claims claims) {
+        BloomFilter filter = bloom;
+        String tokenId = claims.getId();
+        if (tokenId != null && filter.mightContain(tokenId) && revokedTokenIds.containsKey(tokenId)) {
+            return true;
+        }
+        String email = claims.getSubject();
+        if (email != null && filter.mightContain(email)) {
+            Cutoff cutoff = userCutoffs.get(email);
+            Date issuedAt = claims.getIssuedAt();
+            return cutoff != null && (issuedAt == null || issuedAt.getTime() <= cutoff.revokedAt());
+        }
+        return false;
+    }
+
+    // Logout: revoke one token until it would have expired anyway
+    public synchronized void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            revokeAllForUser(claims.getSubject());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : now + JwtUtil.EXPIRATION_TIME;
+        repository.save(new RevokedToken(claims.getId(), claims.getSubject(), toLocal(now), toLocal(expiresAt)));
+        revokedTokenIds.put(claims.getId(), expiresAt);
+        bloom.put(claims.getId());
+    }
+
+    // Suspension: every token issued to this user so far stops working
+    public synchronized void revokeAllForUser(String email) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + JwtUtil.EXPIRATION_TIME;
+        repository.save(new RevokedToken(null, email, toLocal(now), toLocal(expiresAt)));
+        userCutoffs.merge(email, new Cutoff(now, expiresAt), Cutoff::latest);
+        bloom.put(email);
+    }
+
+    // Entries outlive the tokens they cover by at most one interval; a fresh filter also
+    // sheds the false-positive rate accumulated from dropped entries.
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> cutoff.expiresAt() <= now);
+
+        int size = revokedTokenIds.size() + userCutoffs.size();
+        BloomFilter next = new BloomFilter(Math.max(expectedEntries, size * 2), falsePositiveRate);
+        revokedTokenIds.keySet().forEach(next::put);
+        userCutoffs.keySet().forEach(next::put);
+        bloom = next;
+
+        repository.deleteExpired(toLocal(now));
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Cutoff(long revokedAt, long expiresAt) {
+        static Cutoff latest(Cutoff a, Cutoff b) {
+            return a.revokedAt() >= b.revokedAt() ? a : b;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.vidmeet.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -24,9 +27,24 @@ public class WebSecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    // Raising the strength is picked up on each user's next login (see AuthController)
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Repository work that follows a BCrypt result, so the bcrypt pool only ever hashes.
+    // Bounded like it: a full queue is rejected and AuthController answers 503.
+    @Bean
+    public ThreadPoolTaskExecutor authCompletionExecutor(@Value("${security.auth.completion-threads:8}") int threads,
+                                                         @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("auth-");
+        executor.setDaemon(true);
+        return executor;
     }
 
     @Bean
@@ -38,6 +56,8 @@ public class WebSecurityConfig {
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**", "/ws/**", "/ws-stomp/**").permitAll()
+                // Only served on management.server.port, which isn't exposed publicly
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/meetings/validate-meeting/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/meetings/host/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/profile/user/**").permitAll()
@@ -0,0 +1,254 @@
+package com.vidmeet.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Call-quality time series pushed by clients as "stats" messages (RTT, jitter, packet loss,
+// bitrate). Each participant gets a fixed-size series at three resolutions: raw samples,
+// 1-minute means and 10-minute means, each a preallocated ring of primitive arrays, so
+// memory per participant is constant and recording a sample allocates nothing. A room's
+// series are kept for closedRoomRetentionMillis after its last participant leaves, so the
+// host can still look at them, and series idle longer than the coarsest ring covers are
+// purged. At maxSeries a new participant evicts the idlest series rather than being dropped.
+@Service
+public class CallQualityStore {
+
+    public enum Resolution {
+        RAW(0, 120), MINUTE(60_000, 60), TEN_MINUTES(600_000, 144);
+
+        final long bucketMillis;
+        final int capacity;
+
+        Resolution(long bucketMillis, int capacity) {
+            this.bucketMillis = bucketMillis;
+            this.capacity = capacity;
+        }
+    }
+
+    // Values of one point, in the order they are stored
+    public record Point(long timestamp, float rttMs, float jitterMs, float packetLossPct, float bitrateKbps) {
+    }
+
+    private final Map<String, Map<String, Series>> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Long> closedRooms = new ConcurrentHashMap<>(); // roomId -> closed at
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private final AtomicLong evictedSeries = new AtomicLong();
+    private long evictedReported;
+
+    @Value("${stats.max-series:20000}")
+    private int maxSeries = 20000;
+
+    @Value("${stats.closed-room-retention-ms:1800000}")
+    private long closedRoomRetentionMillis = 1_800_000;
+
+    // Called once by the signaling handler, which owns the meter registry
+    public void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("vidmeet.stats.series", seriesCount, AtomicInteger::get)
+                .description("Call-quality series held in memory")
+                .register(registry);
+        FunctionCounter.builder("vidmeet.stats.evicted", evictedSeries, AtomicLong::get)
+                .description("Call-quality series evicted to make room for new participants")
+                .register(registry);
+    }
+
+    public void record(String roomId, String email, long timestamp,
+                       float rttMs, float jitterMs, float packetLossPct, float bitrateKbps) {
+        if (!closedRooms.isEmpty()) closedRooms.remove(roomId); // in use again
+        Map<String, Series> room = rooms.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+        Series series = room.get(email);
+        if (series == null) {
+            if (seriesCount.get() >= maxSeries) evictIdlest();
+            series = room.computeIfAbsent(email, k -> {
+                seriesCount.incrementAndGet();
+                return new Series();
+            });
+        }
+        series.add(timestamp, rttMs, jitterMs, packetLossPct, bitrateKbps);
+    }
+
+    // The last participant left; the series go after the retention period
+    public void roomClosed(String roomId) {
+        if (rooms.containsKey(roomId)) closedRooms.put(roomId, System.currentTimeMillis());
+    }
+
+    public long getEvictedSeries() {
+        return evictedSeries.get();
+    }
+
+    // A scan over every series, but only when full and only for a participant's first sample
+    private void evictIdlest() {
+        Map<String, Series> idlestRoom = null;
+        String idlestEmail = null;
+        Series idlest = null;
+        for (Map<String, Series> room : rooms.values()) {
+            for (Map.Entry<String, Series> entry : room.entrySet()) {
+                Series series = entry.getValue();
+                if (idlest == null || series.lastTimestamp() < idlest.lastTimestamp()) {
+                    idlestRoom = room;
+                    idlestEmail = entry.getKey();
+                    idlest = series;
+                }
+            }
+        }
+        if (idlest != null && idlestRoom.remove(idlestEmail, idlest)) {
+            seriesCount.decrementAndGet();
+            evictedSeries.incrementAndGet();
+        }
+    }
+
+    // email -> points, oldest first; empty when the room has no stats
+    public Map<String, List<Point>> query(String roomId, Resolution resolution) {
+        Map<String, List<Point>> result = new LinkedHashMap<>();
+        Map<String, Series> room = rooms.get(roomId);
+        if (room != null) {
+            room.forEach((email, series) -> result.put(email, series.points(resolution)));
+        }
+        return result;
+    }
+
+    public List<Point> query(String roomId, String email, Resolution resolution) {
+        Map<String, Series> room = rooms.get(roomId);
+        Series series = room == null ? null : room.get(email);
+        return series == null ? List.of() : series.points(resolution);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.purge-interval-ms:300000}")
+    public void purgeIdle() {
+        long now = System.currentTimeMillis();
+        closedRooms.forEach((roomId, closedAt) -> {
+            if (closedAt <= now - closedRoomRetentionMillis && closedRooms.remove(roomId, closedAt)) {
+                Map<String, Series> room = rooms.remove(roomId);
+                if (room != null) seriesCount.addAndGet(-room.size());
+            }
+        });
+
+        long cutoff = now - Resolution.TEN_MINUTES.bucketMillis * Resolution.TEN_MINUTES.capacity;
+        rooms.values().forEach(room -> room.values().removeIf(series -> {
+            boolean idle = series.lastTimestamp() < cutoff;
+            if (idle) seriesCount.decrementAndGet();
+            return idle;
+        }));
+        rooms.values().removeIf(Map::isEmpty);
+
+        long evicted = evictedSeries.get();
+        if (evicted > evictedReported) {
+            System.out.println("⚠️ " + (evicted - evictedReported) + " call-quality series evicted at stats.max-series="
+                    + maxSeries + " since the last purge");
+            evictedReported = evicted;
+        }
+    }
+
+    static final class Series {
+        private final Ring raw = new Ring(Resolution.RAW);
+        private final Ring minute = new Ring(Resolution.MINUTE);
+        private final Ring tenMinutes = new Ring(Resolution.TEN_MINUTES);
+        private long lastTimestamp;
+
+        synchronized void add(long timestamp, float rtt, float jitter, float loss, float bitrate) {
+            raw.add(timestamp, rtt, jitter, loss, bitrate);
+            minute.add(timestamp, rtt, jitter, loss, bitrate);
+            tenMinutes.add(timestamp, rtt, jitter, loss, bitrate);
+            lastTimestamp = timestamp;
+        }
+
+        synchronized long lastTimestamp() {
+            return lastTimestamp;
+        }
+
+        synchronized List<Point> points(Resolution resolution) {
+            return switch (resolution) {
+                case RAW -> raw.points();
+                case MINUTE -> minute.points();
+                case TEN_MINUTES -> tenMinutes.points();
+            };
+        }
+    }
+
+    // Ring of (timestamp, 4 values). With bucketMillis > 0 samples are averaged into the open
+    // bucket, which is committed to the ring when a sample for a later bucket arrives.
+    static final class Ring {
+        private static final int FIELDS = 4;
+
+        private final long bucketMillis;
+        private final int capacity;
+        private final long[] timestamps;
+        private final float[] values;
+        private int next;
+        private int size;
+
+        private long bucketStart = -1;
+        private final double[] bucketSums = new double[FIELDS];
+        private int bucketCount;
+
+        Ring(Resolution resolution) {
+            this.bucketMillis = resolution.bucketMillis;
+            this.capacity = resolution.capacity;
+            this.timestamps = new long[capacity];
+            this.values = new float[capacity * FIELDS];
+        }
+
+        void add(long timestamp, float rtt, float jitter, float loss, float bitrate) {
+            if (bucketMillis == 0) {
+                commit(timestamp, rtt, jitter, loss, bitrate);
+                return;
+            }
+            long start = timestamp - timestamp % bucketMillis;
+            if (start != bucketStart && bucketCount > 0) {
+                commitBucket();
+            }
+            bucketStart = start;
+            bucketSums[0] += rtt;
+            bucketSums[1] += jitter;
+            bucketSums[2] += loss;
+            bucketSums[3] += bitrate;
+            bucketCount++;
+        }
+
+        private void commitBucket() {
+            commit(bucketStart, (float) (bucketSums[0] / bucketCount), (float) (bucketSums[1] / bucketCount),
+                    (float) (bucketSums[2] / bucketCount), (float) (bucketSums[3] / bucketCount));
+            bucketSums[0] = bucketSums[1] = bucketSums[2] = bucketSums[3] = 0;
+            bucketCount = 0;
+        }
+
+        private void commit(long timestamp, float rtt, float jitter, float loss, float bitrate) {
+            timestamps[next] = timestamp;
+            int base = next * FIELDS;
+            values[base] = rtt;
+            values[base + 1] = jitter;
+            values[base + 2] = loss;
+            values[base + 3] = bitrate;
+            next = (next + 1) % capacity;
+            if (size < capacity) size++;
+        }
+
+        // Committed points oldest first, then the still-open bucket
+        List<Point> points() {
+            List<Point> points = new ArrayList<>(size + 1);
+            int first = (next - size + capacity) % capacity;
+            for (int i = 0; i < size; i++) {
+                int slot = (first + i) % capacity;
+                int base = slot * FIELDS;
+                points.add(new Point(timestamps[slot], values[base], values[base + 1], values[base + 2], values[base + 3]));
+            }
+            if (bucketCount > 0) {
+                points.add(new Point(bucketStart, (float) (bucketSums[0] / bucketCount),
+                        (float) (bucketSums[1] / bucketCount), (float) (bucketSums[2] / bucketCount),
+                        (float) (bucketSums[3] / bucketCount)));
+            }
+            return points;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import com.vidmeet.websocket.VideoSocketHandler;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Cold tier for chat, off unless chat.archive.enabled is set. Rooms with nobody connected and
+// no message for chat.archive.min-idle-ms count as ended; a background pass moves their rows
+// out of the ChatMessage table into compressed segment files under
+// chat.archive.dir/<base64url roomId>/, then deletes the rows. The directory must be given
+// explicitly and should be storage every node sees and that outlives the container: rows
+// moved there are gone from the database. ChatController merges archive and table by id, so
+// readers don't see the move. A crash between writing a segment and deleting its rows only
+// leaves duplicates, which reads drop; a row committed late with a lower id than rows already
+// archived simply goes into a later segment.
+//
+// Segment: MAGIC, VERSION, deflated blocks of up to block-messages messages, then the index
+//   blockCount | (firstId, lastId, offset, length, count)[] | indexOffset, MAGIC
+// Inside a block: count, then per message id delta, timestamp (micros, delta), sender, text,
+// as varints and varint-length strings. Named <firstId>-<lastId>.vca.
+@Service
+public class ChatArchive {
+
+    static final int MAGIC = 0x56434131; // "VCA1"
+    static final int VERSION = 1;
+    private static final int FOOTER_BYTES = 12;
+
+    private final ChatRepository chatRepository;
+    private final AtomicLong archivedMessages = new AtomicLong();
+    private final AtomicLong archivedRooms = new AtomicLong();
+
+    @Value("${chat.archive.enabled:false}")
+    private boolean enabled;
+
+    // Blank = no archive: nothing is moved and reads find nothing archived
+    @Value("${chat.archive.dir:}")
+    private String dir = "";
+
+    @Value("${chat.archive.min-idle-ms:21600000}")
+    private long minIdleMillis = 21_600_000;
+
+    @Value("${chat.archive.max-rooms-per-pass:100}")
+    private int maxRoomsPerPass = 100;
+
+    @Value("${chat.archive.block-messages:512}")
+    private int blockMessages = 512;
+
+    public ChatArchive(ChatRepository chatRepository) {
+        this.chatRepository = chatRepository;
+    }
+
+    // Archiving deletes rows, so it never falls back to a directory nobody chose
+    @PostConstruct
+    public void checkDirectory() {
+        if (enabled && dir.isBlank()) {
+            throw new IllegalStateException("chat.archive.enabled=true needs chat.archive.dir");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.archive.interval-ms:600000}", initialDelayString = "${chat.archive.interval-ms:600000}")
+    public void archiveEndedRooms() {
+        if (!enabled) return;
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(minIdleMillis * 1_000_000);
+        int rooms = 0;
+        for (String roomId : chatRepository.findRoomIdsIdleSince(cutoff)) {
+            if (rooms >= maxRoomsPerPass) break;
+            if (roomId == null || VideoSocketHandler.roomParticipants.containsKey(roomId)) continue;
+            try {
+                archiveRoom(roomId);
+                rooms++;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Chat archival of room " + roomId + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Moves every row of the room the table holds now; returns how many
+    public int archiveRoom(String roomId) throws IOException {
+        List<ChatMessage> messages = chatRepository.findByRoomIdOrderByIdAsc(roomId);
+        if (messages.isEmpty()) return 0;
+        writeSegment(roomDir(roomId), messages);
+        chatRepository.deleteAllByIdInBatch(messages.stream().map(ChatMessage::getId).toList());
+        archivedMessages.addAndGet(messages.size());
+        archivedRooms.incrementAndGet();
+        System.out.println("🗄️ Archived " + messages.size() + " chat messages of room " + roomId);
+        return messages.size();
+    }
+
+    // Archived messages of the room in id order, each id once
+    public List<ChatMessage> read(String roomId) throws IOException {
+        return read(roomId, null);
+    }
+
+    // Only the blocks whose id range covers one of ids are read
+    public List<ChatMessage> find(String roomId, Collection<Long> ids) throws IOException {
+        List<ChatMessage> result = new ArrayList<>();
+        for (ChatMessage message : read(roomId, ids)) {
+            if (ids.contains(message.getId())) result.add(message);
+        }
+        return result;
+    }
+
+    public long getArchivedMessages() {
+        return archivedMessages.get();
+    }
+
+    public long getArchivedRooms() {
+        return archivedRooms.get();
+    }
+
+    private List<ChatMessage> read(String roomId, Collection<Long> ids) throws IOException {
+        if (dir.isBlank()) return List.of();
+        Path roomDir = roomDir(roomId);
+        if (!Files.isDirectory(roomDir)) return List.of();
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(roomDir)) {
+            segments = files.filter(p -> p.getFileName().toString().endsWith(".vca"))
+                    .sorted(Comparator.comparingLong(ChatArchive::firstId))
+                    .toList();
+        }
+        // Segments may overlap: rows re-archived after a crash, or committed late with lower ids
+        List<ChatMessage> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Path segment : segments) {
+            for (ChatMessage message : readSegment(segment, roomId, ids)) {
+                if (seen.add(message.getId())) result.add(message);
+            }
+        }
+        result.sort(Comparator.comparingLong(ChatMessage::getId));
+        return result;
+    }
+
+    // Messages must be in id order. Written to a temp file and moved into place.
+    void writeSegment(Path roomDir, List<ChatMessage> messages) throws IOException {
+        Files.createDirectories(roomDir);
+        String name = messages.get(0).getId() + "-" + messages.get(messages.size() - 1).getId() + ".vca";
+        Path path = roomDir.resolve(name);
+        Path tmp = roomDir.resolve(name + ".tmp");
+
+        int blocks = (messages.size() + blockMessages - 1) / blockMessages;
+        ByteBuffer index = ByteBuffer.allocate(4 + blocks * 32 + FOOTER_BYTES);
+        index.putInt(blocks);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip());
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockMessages * 128);
+            byte[] compressed = new byte[1 << 16];
+            for (int from = 0; from < messages.size(); from += blockMessages) {
+                List<ChatMessage> block = messages.subList(from, Math.min(from + blockMessages, messages.size()));
+                raw.reset();
+                encodeBlock(new DataOutputStream(raw), block);
+                long offset = out.position();
+                deflater.reset();
+                deflater.setInput(raw.toByteArray());
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(compressed);
+                    out.write(ByteBuffer.wrap(compressed, 0, n));
+                }
+                index.putLong(block.get(0).getId()).putLong(block.get(block.size() - 1).getId())
+                        .putLong(offset).putInt((int) (out.position() - offset)).putInt(block.size());
+            }
+            long indexOffset = out.position();
+            index.putLong(indexOffset).putInt(MAGIC).flip();
+            out.write(index);
+            out.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    List<ChatMessage> readSegment(Path path, String roomId, Collection<Long> ids) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = in.size();
+            ByteBuffer header = read(in, 0, 8);
+            ByteBuffer footer = read(in, size - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || footer.getInt() != MAGIC) {
+                throw new IOException("not a chat archive segment: " + path);
+            }
+            ByteBuffer index = read(in, indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+            int blocks = index.getInt();
+            List<ChatMessage> result = new ArrayList<>();
+            Inflater inflater = new Inflater();
+            byte[] raw = new byte[1 << 16];
+            try {
+                for (int b = 0; b < blocks; b++) {
+                    long firstId = index.getLong();
+                    long lastId = index.getLong();
+                    long offset = index.getLong();
+                    int length = index.getInt();
+                    index.getInt(); // count
+                    if (ids != null && ids.stream().noneMatch(id -> id >= firstId && id <= lastId)) continue;
+                    ByteBuffer block = read(in, offset, length);
+                    inflater.reset();
+                    inflater.setInput(block);
+                    int inflated = 0;
+                    while (!inflater.finished()) {
+                        if (inflated == raw.length) raw = Arrays.copyOf(raw, raw.length * 2);
+                        int n = inflater.inflate(raw, inflated, raw.length - inflated);
+                        if (n == 0 && inflater.needsInput()) throw new IOException("truncated block in " + path);
+                        inflated += n;
+                    }
+                    decodeBlock(ByteBuffer.wrap(raw, 0, inflated), roomId, result);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("corrupt block in " + path, e);
+            } finally {
+                inflater.end();
+            }
+            return result;
+        }
+    }
+
+    private Path roomDir(String roomId) {
+        return Path.of(dir, Base64.getUrlEncoder().withoutPadding().encodeToString(roomId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static long firstId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('-')));
+    }
+
+    private static ByteBuffer read(FileChannel in, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) throw new IOException("unexpected end of segment");
+        }
+        return buffer.flip();
+    }
+
+    private static void encodeBlock(DataOutputStream out, List<ChatMessage> block) throws IOException {
+        writeVarint(out, block.size());
+        long previousId = block.get(0).getId();
+        long previousMicros = 0;
+        out.writeLong(previousId);
+        for (ChatMessage message : block) {
+            writeVarint(out, message.getId() - previousId);
+            previousId = message.getId();
+            long micros = micros(message.getTimestamp());
+            writeVarint(out, zigzag(micros - previousMicros));
+            previousMicros = micros;
+            writeString(out, message.getSender());
+            writeString(out, message.getMessage());
+        }
+    }
+
+    private static void decodeBlock(ByteBuffer in, String roomId, List<ChatMessage> result) {
+        long count = readVarint(in);
+        long id = in.getLong();
+        long micros = 0;
+        for (long i = 0; i < count; i++) {
+            id += readVarint(in);
+            long delta = readVarint(in);
+            micros += (delta >>> 1) ^ -(delta & 1);
+            ChatMessage message = new ChatMessage();
+            message.setId(id);
+            message.setRoomId(roomId);
+            message.setTimestamp(micros == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC));
+            message.setSender(readString(in));
+            message.setMessage(readString(in));
+            result.add(message);
+        }
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        if (timestamp == null) return Long.MIN_VALUE;
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1000;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // Strings are varint(byteLength + 1) then UTF-8 bytes; 0 encodes null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarint(in);
+        if (length == 0) return null;
+        String value = new String(in.array(), in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Full-text search over persisted chat, one inverted index per room. New messages go into a
+// small mutable buffer; every flush-docs messages the buffer is frozen into an immutable
+// segment (sorted term dictionary, packed postings), and a background merge folds a room's
+// smaller segments together once it has more than max-segments. A room's index is built from
+// the archive and table on its first search and kept while the total fits the memory budget and
+// max-rooms; past either the rooms searched least recently are dropped and rebuilt on demand. A
+// room with no chat isn't kept at all, so searching made-up room ids can't grow the map. A query
+// only touches one room's segments, so its cost follows that room's chat rather than the table.
+@Service
+public class ChatSearchIndex {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private final ChatRepository chatRepository;
+    private final ChatArchive chatArchive;
+    private final Map<String, RoomIndex> rooms = new ConcurrentHashMap<>();
+    private final AtomicLong indexBytes = new AtomicLong();
+
+    @Value("${chat.search.flush-docs:1024}")
+    private int flushDocs = 1024;
+
+    @Value("${chat.search.max-segments:8}")
+    private int maxSegments = 8;
+
+    @Value("${chat.search.memory-budget-mb:64}")
+    private long memoryBudgetMb = 64;
+
+    @Value("${chat.search.max-rooms:10000}")
+    private int maxRooms = 10_000;
+
+    public ChatSearchIndex(ChatRepository chatRepository, ChatArchive chatArchive) {
+        this.chatRepository = chatRepository;
+        this.chatArchive = chatArchive;
+    }
+
+    // Called once the message is persisted. Rooms nobody has searched yet aren't indexed;
+    // their first search reads the message from the table.
+    public void add(ChatMessage message) {
+        if (message.getId() == null || message.getRoomId() == null) return;
+        RoomIndex room = rooms.get(message.getRoomId());
+        if (room != null) room.add(message.getId(), message.getMessage());
+    }
+
+    // Ids of matching messages, newest first. Every word of the query has to occur; the last
+    // one also matches as a prefix, so a partly typed word already finds results.
+    public List<Long> search(String roomId, String query, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+        RoomIndex room = rooms.computeIfAbsent(roomId, RoomIndex::new);
+        room.lastSearch = System.currentTimeMillis();
+        if (!room.load()) {
+            // Nothing to index; a message saved meanwhile is found by the next search's load
+            room.evict();
+            rooms.remove(roomId, room);
+            return List.of();
+        }
+        List<Long> result = room.search(terms, limit);
+        enforceBudget(room);
+        return result;
+    }
+
+    public long getIndexBytes() {
+        return indexBytes.get();
+    }
+
+    public int getIndexedRoomCount() {
+        return rooms.size();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.merge-interval-ms:10000}")
+    public void mergeSegments() {
+        for (RoomIndex room : rooms.values()) {
+            List<Segment> segments = room.segments;
+            if (segments.size() <= maxSegments) continue;
+            // Smallest half into one, so segment sizes grow geometrically and big segments
+            // are rewritten rarely
+            List<Segment> victims = new ArrayList<>(segments);
+            victims.sort(Comparator.comparingInt(s -> s.docIds.length));
+            victims = victims.subList(0, segments.size() / 2 + 1);
+            room.replace(victims, Segment.merge(victims));
+        }
+    }
+
+    // Drops the least recently searched rooms until the indexes fit the budget and room cap again
+    private void enforceBudget(RoomIndex current) {
+        long budget = memoryBudgetMb * 1024 * 1024;
+        if (indexBytes.get() <= budget && rooms.size() <= maxRooms) return;
+        List<RoomIndex> byAge = new ArrayList<>(rooms.values());
+        byAge.sort(Comparator.comparingLong(r -> r.lastSearch));
+        for (RoomIndex room : byAge) {
+            if (indexBytes.get() <= budget * 9 / 10 && rooms.size() <= maxRooms * 9 / 10) break;
+            if (room == current) continue;
+            room.evict();
+            rooms.remove(room.roomId, room);
+        }
+    }
+
+    // Lowercased runs of letters and digits
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) return terms;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private final class RoomIndex {
+        final String roomId;
+        volatile long lastSearch;
+        volatile List<Segment> segments = List.of();
+        private Buffer buffer = new Buffer();
+        private boolean loaded;
+        private boolean empty;
+        private boolean evicted;
+        private long loadedMaxId;
+        private long bytes;
+
+        RoomIndex(String roomId) {
+            this.roomId = roomId;
+        }
+
+        // Messages saved before this reads the table are in it; ones added earlier are skipped
+        // (see add), ones added later are checked against what was loaded. False if the room
+        // has no chat at all.
+        synchronized boolean load() {
+            if (loaded) return !empty;
+            List<ChatMessage> messages = new ArrayList<>();
+            try {
+                messages.addAll(chatArchive.read(roomId));
+            } catch (IOException e) {
+                System.err.println("Chat search is missing archived messages of room " + roomId + ": " + e.getMessage());
+            }
+            messages.addAll(chatRepository.findByRoomId(roomId));
+            for (ChatMessage message : messages) {
+                if (buffer.ids.contains(message.getId())) continue; // archived while we read
+                buffer.add(message.getId(), message.getMessage());
+                loadedMaxId = Math.max(loadedMaxId, message.getId());
+            }
+            loaded = true;
+            empty = buffer.size() == 0;
+            if (empty) return false;
+            account(buffer.bytes);
+            freeze();
+            return true;
+        }
+
+        synchronized void add(long id, String text) {
+            if (!loaded || evicted) return;
+            if (id <= loadedMaxId && contains(id)) return;
+            long before = buffer.bytes;
+            buffer.add(id, text);
+            account(buffer.bytes - before);
+            if (buffer.size() >= flushDocs) freeze();
+        }
+
+        List<Long> search(List<String> terms, int limit) {
+            List<Segment> snapshot;
+            List<Long> result = new ArrayList<>();
+            synchronized (this) {
+                snapshot = segments;
+                buffer.search(terms, limit, result);
+            }
+            for (Segment segment : snapshot) {
+                segment.search(terms, limit, result);
+            }
+            result.sort(Comparator.reverseOrder());
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        }
+
+        synchronized void replace(List<Segment> victims, Segment merged) {
+            if (evicted) return;
+            List<Segment> next = new ArrayList<>(segments.size());
+            long freed = 0;
+            for (Segment segment : segments) {
+                if (victims.stream().anyMatch(v -> v == segment)) {
+                    freed += segment.bytes;
+                } else {
+                    next.add(segment);
+                }
+            }
+            next.add(merged);
+            segments = List.copyOf(next);
+            account(merged.bytes - freed);
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            indexBytes.addAndGet(-bytes);
+            bytes = 0;
+        }
+
+        private void freeze() {
+            if (buffer.size() == 0) return;
+            Segment segment = Segment.freeze(buffer);
+            List<Segment> next = new ArrayList<>(segments);
+            next.add(segment);
+            segments = List.copyOf(next);
+            account(segment.bytes - buffer.bytes);
+            buffer = new Buffer();
+        }
+
+        private boolean contains(long id) {
+            if (buffer.ids.contains(id)) return true;
+            for (Segment segment : segments) {
+                if (Arrays.binarySearch(segment.docIds, id) >= 0) return true;
+            }
+            return false;
+        }
+
+        private void account(long delta) {
+            if (evicted) return;
+            bytes += delta;
+            indexBytes.addAndGet(delta);
+        }
+    }
+
+    // Mutable postings of the newest messages, in arrival order
+    private static final class Buffer {
+        final List<Long> docIds = new ArrayList<>();
+        final Set<Long> ids = new HashSet<>();
+        final Map<String, Ints> postings = new HashMap<>();
+        long bytes;
+
+        void add(long id, String text) {
+            int doc = docIds.size();
+            docIds.add(id);
+            ids.add(id);
+            bytes += 64;
+            for (String term : tokenize(text)) {
+                Ints list = postings.get(term);
+                if (list == null) {
+                    list = new Ints();
+                    postings.put(term, list);
+                    bytes += 96 + term.length();
+                }
+                list.add(doc);
+                bytes += 4;
+            }
+        }
+
+        int size() {
+            return docIds.size();
+        }
+
+        void search(List<String> terms, int limit, List<Long> result) {
+            long[] matches = null;
+            for (int t = 0; t < terms.size(); t++) {
+                boolean prefix = t == terms.size() - 1;
+                long[] bits = new long[(docIds.size() >> 6) + 1];
+                if (prefix) {
+                    postings.forEach((term, list) -> {
+                        if (term.startsWith(terms.get(terms.size() - 1))) list.setBits(bits);
+                    });
+                } else {
+                    Ints list = postings.get(terms.get(t));
+                    if (list == null) return;
+                    list.setBits(bits);
+                }
+                matches = matches == null ? bits : and(matches, bits);
+            }
+            int found = 0;
+            for (int doc = docIds.size() - 1; doc >= 0 && found < limit; doc--) {
+                if ((matches[doc >> 6] & (1L << doc)) != 0) {
+                    result.add(docIds.get(doc));
+                    found++;
+                }
+            }
+        }
+    }
+
+    // Frozen postings: docIds ascending, terms sorted, postings of terms[i] are the doc
+    // ordinals postings[starts[i]] .. postings[starts[i + 1]] - 1, ascending
+    private static final class Segment {
+        final long[] docIds;
+        final String[] terms;
+        final int[] starts;
+        final int[] postings;
+        final long bytes;
+
+        private Segment(long[] docIds, TreeMap<String, Ints> byTerm) {
+            this.docIds = docIds;
+            this.terms = byTerm.keySet().toArray(new String[0]);
+            this.starts = new int[terms.length + 1];
+            int total = 0;
+            for (Ints list : byTerm.values()) total += list.size;
+            this.postings = new int[total];
+            int pos = 0;
+            int t = 0;
+            long termBytes = 0;
+            for (Map.Entry<String, Ints> entry : byTerm.entrySet()) {
+                starts[t++] = pos;
+                Ints list = entry.getValue();
+                Arrays.sort(list.values, 0, list.size);
+                System.arraycopy(list.values, 0, postings, pos, list.size);
+                pos += list.size;
+                termBytes += 48 + entry.getKey().length();
+            }
+            starts[t] = pos;
+            this.bytes = 8L * docIds.length + 4L * starts.length + 4L * postings.length + termBytes + 96;
+        }
+
+        static Segment freeze(Buffer buffer) {
+            int n = buffer.size();
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingLong(buffer.docIds::get));
+            long[] docIds = new long[n];
+            int[] remap = new int[n];
+            for (int i = 0; i < n; i++) {
+                docIds[i] = buffer.docIds.get(order[i]);
+                remap[order[i]] = i;
+            }
+            TreeMap<String, Ints> byTerm = new TreeMap<>();
+            buffer.postings.forEach((term, list) -> {
+                Ints mapped = new Ints();
+                for (int i = 0; i < list.size; i++) mapped.add(remap[list.values[i]]);
+                byTerm.put(term, mapped);
+            });
+            return new Segment(docIds, byTerm);
+        }
+
+        static Segment merge(List<Segment> segments) {
+            int n = 0;
+            for (Segment segment : segments) n += segment.docIds.length;
+            long[] docIds = new long[n];
+            int pos = 0;
+            for (Segment segment : segments) {
+                System.arraycopy(segment.docIds, 0, docIds, pos, segment.docIds.length);
+                pos += segment.docIds.length;
+            }
+            Arrays.sort(docIds);
+            TreeMap<String, Ints> byTerm = new TreeMap<>();
+            for (Segment segment : segments) {
+                int[] remap = new int[segment.docIds.length];
+                for (int i = 0; i < remap.length; i++) remap[i] = Arrays.binarySearch(docIds, segment.docIds[i]);
+                for (int t = 0; t < segment.terms.length; t++) {
+                    Ints mapped = byTerm.computeIfAbsent(segment.terms[t], k -> new Ints());
+                    for (int p = segment.starts[t]; p < segment.starts[t + 1]; p++) mapped.add(remap[segment.postings[p]]);
+                }
+            }
+            return new Segment(docIds, byTerm);
+        }
+
+        void search(List<String> terms, int limit, List<Long> result) {
+            long[] matches = null;
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                int from = lowerBound(term);
+                int to;
+                if (t == terms.size() - 1) {
+                    to = lowerBound(term + Character.MAX_VALUE);
+                } else {
+                    to = from < this.terms.length && this.terms[from].equals(term) ? from + 1 : from;
+                }
+                if (from == to) return;
+                long[] bits = new long[(docIds.length >> 6) + 1];
+                for (int p = starts[from]; p < starts[to]; p++) bits[postings[p] >> 6] |= 1L << postings[p];
+                matches = matches == null ? bits : and(matches, bits);
+            }
+            int found = 0;
+            for (int doc = docIds.length - 1; doc >= 0 && found < limit; doc--) {
+                if ((matches[doc >> 6] & (1L << doc)) != 0) {
+                    result.add(docIds[doc]);
+                    found++;
+                }
+            }
+        }
+
+        private int lowerBound(String term) {
+            int index = Arrays.binarySearch(terms, term);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) a[i] &= b[i];
+        return a;
+    }
+
+    private static final class Ints {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void setBits(long[] bits) {
+            for (int i = 0; i < size; i++) bits[values[i] >> 6] |= 1L << values[i];
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.vidmeet.service;
+
+import com.vidmeet.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Who is online, kept in memory and fed by socket connect/disconnect, heartbeats and the
+// explicit REST toggle. Only online/offline transitions are queued for the database, and
+// they are written in coalesced bulk UPDATEs on a timer instead of one row save per event.
+// Presence lives in this node's memory, so the service assumes a single backend node: with
+// several, each would only know its own sockets and the startup reset would clear the others'
+// users. Set presence.reset-on-startup=false there.
+@Service
+public class PresenceService {
+
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final Map<String, Presence> presence = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> pendingWrites = new ConcurrentHashMap<>(); // email -> latest state
+    private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+
+    @Value("${presence.heartbeat-timeout-ms:90000}")
+    private long heartbeatTimeoutMillis;
+
+    @Value("${presence.reset-on-startup:true}")
+    private boolean resetOnStartup = true;
+
+    public PresenceService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Nothing is connected yet, so any is_online=true left over from the last run is stale
+    // (on a single node; see above)
+    @PostConstruct
+    public void resetStaleFlags() {
+        if (resetOnStartup) userRepository.markAllOffline();
+    }
+
+    public void connected(String email) {
+        update(email, p -> p.sessions++);
+    }
+
+    public void disconnected(String email) {
+        update(email, p -> p.sessions = Math.max(0, p.sessions - 1));
+    }
+
+    public void heartbeat(String email) {
+        update(email, p -> { });
+    }
+
+    // Explicit toggle from the REST API; lapses if no heartbeat arrives within the timeout
+    public void setOnline(String email, boolean online) {
+        update(email, p -> p.explicit = online);
+    }
+
+    // Told the email whenever a user goes online or offline, and again once the flush has
+    // written their row (lastLogin changes then)
+    public void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    public boolean isOnline(String email) {
+        return presence.containsKey(email);
+    }
+
+    public Map<String, Boolean> getPresence(Collection<String> emails) {
+        Map<String, Boolean> result = new HashMap<>();
+        for (String email : emails) {
+            result.put(email, presence.containsKey(email));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:5000}")
+    public void flush() {
+        expireExplicitPresence();
+
+        List<String> online = new ArrayList<>();
+        List<String> offline = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : pendingWrites.entrySet()) {
+            // Conditional remove keeps a flip that lands mid-flush queued for the next round
+            if (pendingWrites.remove(entry.getKey(), entry.getValue())) {
+                (entry.getValue() ? online : offline).add(entry.getKey());
+            }
+        }
+
+        // lastLogin is stamped with the flush time, at most one interval after the real connect
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < online.size(); i += UPDATE_CHUNK_SIZE) {
+            write(online.subList(i, Math.min(online.size(), i + UPDATE_CHUNK_SIZE)), true,
+                    chunk -> userRepository.markOnline(chunk, now));
+        }
+        for (int i = 0; i < offline.size(); i += UPDATE_CHUNK_SIZE) {
+            write(offline.subList(i, Math.min(offline.size(), i + UPDATE_CHUNK_SIZE)), false,
+                    userRepository::markOffline);
+        }
+    }
+
+    // A chunk that fails goes back in the queue for the next flush. putIfAbsent leaves any flip
+    // that arrived meanwhile in place, since it is newer than the state being retried.
+    private void write(List<String> chunk, boolean online, Consumer<List<String>> update) {
+        try {
+            update.accept(chunk);
+        } catch (Exception e) {
+            chunk.forEach(email -> pendingWrites.putIfAbsent(email, online));
+            System.err.println("⚠️ Presence flush failed for " + chunk.size() + " users, retrying next round: " + e.getMessage());
+            return;
+        }
+        chunk.forEach(this::notifyChanged);
+    }
+
+    private void expireExplicitPresence() {
+        long cutoff = System.currentTimeMillis() - heartbeatTimeoutMillis;
+        for (Map.Entry<String, Presence> entry : presence.entrySet()) {
+            Presence p = entry.getValue();
+            if (p.sessions == 0 && p.lastSeen < cutoff) {
+                update(entry.getKey(), x -> {
+                    if (x.sessions == 0 && x.lastSeen < cutoff) x.explicit = false;
+                }, false);
+            }
+        }
+    }
+
+    private void update(String email, Consumer<Presence> change) {
+        update(email, change, true);
+    }
+
+    private void update(String email, Consumer<Presence> change, boolean touch) {
+        if (email == null) return;
+        long now = System.currentTimeMillis();
+        boolean[] flipped = new boolean[1];
+        presence.compute(email, (key, p) -> {
+            boolean wasOnline = p != null;
+            if (p == null) p = new Presence();
+            change.accept(p);
+            if (touch) p.lastSeen = now;
+            boolean isOnline = p.sessions > 0 || p.explicit;
+            if (wasOnline != isOnline) {
+                pendingWrites.put(key, isOnline);
+                flipped[0] = true;
+            }
+            // Offline users are simply absent from the map
+            return isOnline ? p : null;
+        });
+        if (flipped[0]) notifyChanged(email);
+    }
+
+    private void notifyChanged(String email) {
+        for (Consumer<String> listener : changeListeners) {
+            listener.accept(email);
+        }
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute for its key
+    private static final class Presence {
+        int sessions;
+        boolean explicit;
+        volatile long lastSeen;
+    }
+}
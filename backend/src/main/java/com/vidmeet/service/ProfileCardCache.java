@@ -0,0 +1,89 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.UserCard;
+import com.vidmeet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process cache of participant cards. Misses for a whole batch are resolved with one
+// IN query; ProfileController invalidates an entry whenever that user's profile changes.
+// Emails match case-insensitively, as they do in MySQL's collation: entries are keyed by the
+// lower-cased email and results by the spelling the caller asked for.
+@Service
+public class ProfileCardCache {
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    @Value("${profile.cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${profile.cache.max-entries:50000}")
+    private int maxEntries;
+
+    public ProfileCardCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public UserCard get(String email) {
+        return getAll(List.of(email)).get(email);
+    }
+
+    // Unknown emails are simply absent from the result
+    public Map<String, UserCard> getAll(Collection<String> emails) {
+        long now = System.currentTimeMillis();
+        Map<String, UserCard> found = new HashMap<>();
+        Map<String, String> misses = new LinkedHashMap<>(); // key -> email as first asked for
+
+        for (String email : emails) {
+            if (email == null) continue;
+            String key = key(email);
+            Entry entry = cache.get(key);
+            if (entry != null && entry.expiresAt() > now) {
+                found.put(key, entry.card());
+            } else {
+                misses.putIfAbsent(key, email);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            if (cache.size() + misses.size() > maxEntries) {
+                cache.values().removeIf(e -> e.expiresAt() <= now);
+                if (cache.size() + misses.size() > maxEntries) {
+                    cache.clear();
+                }
+            }
+            for (UserCard card : userRepository.findCardsByEmailIn(misses.values())) {
+                String key = key(card.email());
+                cache.put(key, new Entry(card, now + ttlMillis));
+                found.put(key, card);
+            }
+        }
+
+        Map<String, UserCard> result = new LinkedHashMap<>();
+        for (String email : emails) {
+            UserCard card = email == null ? null : found.get(key(email));
+            if (card != null) result.put(email, card);
+        }
+        return result;
+    }
+
+    public void invalidate(String email) {
+        cache.remove(key(email));
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(UserCard card, long expiresAt) {
+    }
+}
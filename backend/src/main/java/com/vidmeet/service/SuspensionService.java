@@ -0,0 +1,53 @@
+package com.vidmeet.service;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.security.TokenRevocationService;
+import com.vidmeet.websocket.SessionDirectory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+// Suspending an account takes effect everywhere at once: the status stops new logins, the
+// user-wide revocation cutoff stops every token already issued, and open signaling sessions
+// (authenticated once, at the handshake) are closed. Reactivating only clears the status;
+// the old tokens stay revoked and the user logs in again.
+@Service
+public class SuspensionService {
+
+    static final String SUSPENDED = "suspended";
+    static final String ACTIVE = "active";
+
+    private final UserRepository userRepository;
+    private final TokenRevocationService revocationService;
+    private final SessionDirectory sessionDirectory;
+
+    public SuspensionService(UserRepository userRepository, TokenRevocationService revocationService,
+                             SessionDirectory sessionDirectory) {
+        this.userRepository = userRepository;
+        this.revocationService = revocationService;
+        this.sessionDirectory = sessionDirectory;
+    }
+
+    // False if there is no such user
+    public boolean suspend(String email) {
+        if (userRepository.updateStatus(email, SUSPENDED) == 0) return false;
+        revocationService.revokeAllForUser(email);
+        for (WebSocketSession session : List.copyOf(sessionDirectory.sessionsOf(email))) {
+            try {
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Account suspended"));
+            } catch (Exception e) {
+                System.err.println("Error closing session of suspended user: " + e.getMessage());
+            }
+        }
+        System.out.println("⛔ " + email + " suspended");
+        return true;
+    }
+
+    public boolean reactivate(String email) {
+        if (userRepository.updateStatus(email, ACTIVE) == 0) return false;
+        System.out.println("✅ " + email + " reactivated");
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.MeetingHost;
+import com.vidmeet.model.UserVersion;
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Validators (ETag / Last-Modified) for the polled GET endpoints, kept in memory so a
+// conditional request that still matches is answered 304 without a query.
+//
+// A user's version is their row id, updatedAt and lastLogin. ProfileController evicts it on
+// a profile edit and PresenceService on every online/offline flip and presence flush, the
+// only writers of those columns besides registration. Responses also carry live presence,
+// which no column stamps, so each user's last change is remembered here too and counted in
+// Last-Modified. A meeting's host is set once at creation, so the meeting's id is its
+// version. Entries expire after the card cache TTL, which bounds staleness from writes made
+// on another node or outside the app.
+@Service
+public class VersionCache {
+
+    private final UserRepository userRepository;
+    private final MeetingRepository meetingRepository;
+    private final PresenceService presenceService;
+    private final Map<String, Entry<UserVersion>> users = new ConcurrentHashMap<>();
+    private final Map<String, Entry<MeetingHost>> meetings = new ConcurrentHashMap<>();
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>(); // email -> millis
+
+    // Last-Modified never falls below this, so forgetting changedAt (at startup or when it
+    // is cleared) can't make a stale copy look current
+    private volatile long changedFloor = System.currentTimeMillis();
+
+    @Value("${profile.cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${profile.cache.max-entries:50000}")
+    private int maxEntries;
+
+    public record Validators(String etag, long lastModified) {
+    }
+
+    public VersionCache(UserRepository userRepository, MeetingRepository meetingRepository,
+                        PresenceService presenceService) {
+        this.userRepository = userRepository;
+        this.meetingRepository = meetingRepository;
+        this.presenceService = presenceService;
+        presenceService.addChangeListener(this::invalidateUser);
+    }
+
+    // For GET /api/profile; null for an unknown user
+    public Validators profile(String email) {
+        UserVersion version = getUser(email);
+        if (version == null) return null;
+        long updated = millis(version.updatedAt());
+        long lastLogin = millis(version.lastLogin());
+        boolean online = presenceService.isOnline(email);
+        return new Validators("p" + version.id() + "-" + updated + "-" + lastLogin + (online ? "-1" : "-0"),
+                Math.max(Math.max(updated, lastLogin), lastChange(email)));
+    }
+
+    // For GET /api/profile/user/{email}, whose card has no lastLogin
+    public Validators card(String email) {
+        UserVersion version = getUser(email);
+        if (version == null) return null;
+        long updated = millis(version.updatedAt());
+        boolean online = presenceService.isOnline(email);
+        return new Validators("c" + version.id() + "-" + updated + (online ? "-1" : "-0"),
+                Math.max(updated, lastChange(email)));
+    }
+
+    public Validators meetingHost(MeetingHost meeting) {
+        return new Validators("m" + meeting.id(), millis(meeting.createdAt()));
+    }
+
+    // Cached; null for an unknown room
+    public MeetingHost getMeetingHost(String roomId) {
+        return load(meetings, roomId, meetingRepository::findHostByRoomId);
+    }
+
+    public void invalidateUser(String email) {
+        users.remove(email);
+        if (changedAt.size() >= maxEntries) {
+            changedFloor = System.currentTimeMillis();
+            changedAt.clear();
+        }
+        changedAt.put(email, System.currentTimeMillis());
+    }
+
+    private UserVersion getUser(String email) {
+        long started = System.currentTimeMillis();
+        UserVersion version = load(users, email, userRepository::findVersionByEmail);
+        // A change evicted while we were querying may have been cached over with the old row
+        if (changedAt.getOrDefault(email, 0L) >= started) users.remove(email);
+        return version;
+    }
+
+    private long lastChange(String email) {
+        return Math.max(changedAt.getOrDefault(email, 0L), changedFloor);
+    }
+
+    // Misses aren't cached: the key may be created any moment
+    private <T> T load(Map<String, Entry<T>> cache, String key, Function<String, T> query) {
+        long now = System.currentTimeMillis();
+        Entry<T> entry = cache.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.value();
+        }
+        T value = query.apply(key);
+        if (value != null) {
+            if (cache.size() >= maxEntries) {
+                cache.values().removeIf(e -> e.expiresAt() <= now);
+                if (cache.size() >= maxEntries) {
+                    cache.clear();
+                }
+            }
+            cache.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Entry<T>(T value, long expiresAt) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.vidmeet.websocket;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntBiFunction;
+
+// Top-K active speaker tracking for rooms too big for a full WebRTC mesh. Clients report
+// audio levels (audio_level); once a room has more than meshLimit sessions, offer/answer/ICE
+// is only relayed between a participant and the current speaker set, so a listener holds at
+// most K peer connections however large the room gets. The set is recomputed every tick from
+// smoothed levels; a speaker stays in it for holdMillis after last being active, so brief
+// pauses don't cause renegotiation. Every change (and a room crossing meshLimit) produces a
+// speakers hint telling clients which connections to open and close; a room dropping back to
+// meshLimit or fewer gets a mesh hint, so listeners reconnect to everyone. A room split into
+// breakouts is really several meshes, so all of this is per (room, partition): each partition
+// is sized, ranked and hinted on its own.
+public class ActiveSpeakerManager implements Closeable {
+
+    private static final double SMOOTHING = 0.3;
+    private static final double ACTIVE_LEVEL = 0.05;
+
+    private final int topK;
+    private final int meshLimit;
+    private final long tickMillis;
+    private final long holdNanos;
+    private final Map<Key, RoomSpeakers> roomSpeakers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+    private ToIntBiFunction<String, String> partitionSize;
+    private SpeakerListener listener;
+    private BiConsumer<String, String> meshListener;
+
+    public ActiveSpeakerManager(int topK, int meshLimit, long tickMillis, long holdMillis) {
+        this.topK = topK;
+        this.meshLimit = meshLimit;
+        this.tickMillis = tickMillis;
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMillis);
+    }
+
+    // Full mesh regardless of size
+    public static ActiveSpeakerManager disabled() {
+        return new ActiveSpeakerManager(0, Integer.MAX_VALUE, 0, 0);
+    }
+
+    public interface SpeakerListener {
+        void speakersChanged(String roomId, String partition, List<String> speakers,
+                             List<String> added, List<String> removed);
+    }
+
+    private record Key(String roomId, String partition) {
+    }
+
+    // Called once by the handler. tickMillis <= 0 starts no ticker; the caller ticks
+    void start(ToIntBiFunction<String, String> partitionSize, SpeakerListener listener,
+               BiConsumer<String, String> meshListener) {
+        this.partitionSize = partitionSize;
+        this.listener = listener;
+        this.meshListener = meshListener;
+        if (meshLimit == Integer.MAX_VALUE || tickMillis <= 0) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "active-speakers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isLargeRoom(int sessions) {
+        return sessions > meshLimit;
+    }
+
+    public void reportLevel(String roomId, String partition, String email, double level) {
+        if (meshLimit == Integer.MAX_VALUE) return;
+        double clamped = Math.max(0, Math.min(1, level));
+        roomSpeakers.computeIfAbsent(new Key(roomId, partition), k -> new RoomSpeakers())
+                .levels.computeIfAbsent(email, k -> new Level())
+                .update(clamped, System.nanoTime());
+    }
+
+    // Whether a and b may negotiate a peer connection in a large room. Until anyone has
+    // reported a level there is no speaker set, and clients that never report keep the mesh.
+    public boolean mayConnect(String roomId, String partition, String a, String b) {
+        RoomSpeakers room = roomSpeakers.get(new Key(roomId, partition));
+        if (room == null || room.speakers.isEmpty()) return true;
+        return room.speakers.contains(a) || room.speakers.contains(b);
+    }
+
+    public List<String> getSpeakers(String roomId, String partition) {
+        RoomSpeakers room = roomSpeakers.get(new Key(roomId, partition));
+        return room == null ? List.of() : List.copyOf(room.speakers);
+    }
+
+    // Also called when a session moves to another partition; it reports there from then on
+    public void leave(String roomId, String partition, String email) {
+        RoomSpeakers room = roomSpeakers.get(new Key(roomId, partition));
+        if (room != null) room.levels.remove(email);
+    }
+
+    // A breakout that has been closed
+    public void discard(String roomId, String partition) {
+        roomSpeakers.remove(new Key(roomId, partition));
+    }
+
+    public void discard(String roomId) {
+        roomSpeakers.keySet().removeIf(key -> key.roomId().equals(roomId));
+    }
+
+    public void tick() {
+        long now = System.nanoTime();
+        for (Map.Entry<Key, RoomSpeakers> entry : roomSpeakers.entrySet()) {
+            String roomId = entry.getKey().roomId();
+            String partition = entry.getKey().partition();
+            RoomSpeakers room = entry.getValue();
+            boolean large = isLargeRoom(partitionSize.applyAsInt(roomId, partition));
+            Set<String> previous = room.speakers;
+            Set<String> next = select(room, previous, now);
+            boolean changed = !next.equals(previous);
+            room.speakers = next;
+
+            if (large && (changed || !room.large)) {
+                // Coming from the mesh, clients hold no speaker set yet: everyone is added
+                List<String> added = new ArrayList<>(next);
+                List<String> removed = new ArrayList<>();
+                if (room.large) {
+                    added.removeAll(previous);
+                    removed.addAll(previous);
+                    removed.removeAll(next);
+                }
+                try {
+                    listener.speakersChanged(roomId, partition, List.copyOf(next), added, removed);
+                } catch (Exception e) {
+                    System.err.println("Error sending speaker update for room " + roomId + ": " + e.getMessage());
+                }
+            } else if (!large && room.large) {
+                try {
+                    meshListener.accept(roomId, partition);
+                } catch (Exception e) {
+                    System.err.println("Error sending mesh hint for room " + roomId + ": " + e.getMessage());
+                }
+            }
+            room.large = large;
+        }
+    }
+
+    // Held speakers first (loudest first), then the loudest others, up to K
+    private Set<String> select(RoomSpeakers room, Set<String> previous, long now) {
+        // Levels keep changing under us; sort a snapshot so the comparator stays consistent
+        List<Candidate> ranked = new ArrayList<>(room.levels.size());
+        room.levels.forEach((email, level) -> ranked.add(new Candidate(email, level.smoothed, level.lastActive)));
+        ranked.sort(Comparator.comparingDouble(Candidate::level).reversed());
+
+        Set<String> next = new LinkedHashSet<>();
+        for (Candidate c : ranked) {
+            if (next.size() == topK) break;
+            if (previous.contains(c.email()) && now - c.lastActive() < holdNanos) {
+                next.add(c.email());
+            }
+        }
+        for (Candidate c : ranked) {
+            if (next.size() == topK) break;
+            next.add(c.email());
+        }
+        return Collections.unmodifiableSet(next);
+    }
+
+    private record Candidate(String email, double level, long lastActive) {
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    private static final class RoomSpeakers {
+        final Map<String, Level> levels = new ConcurrentHashMap<>();
+        volatile Set<String> speakers = Set.of();
+        boolean large; // only touched by the ticker
+    }
+
+    private static final class Level {
+        volatile double smoothed;
+        volatile long lastActive = Long.MIN_VALUE / 2;
+
+        // One reporter per participant, so plain read-modify-write is fine
+        void update(double level, long now) {
+            smoothed = smoothed * (1 - SMOOTHING) + level * SMOOTHING;
+            if (smoothed >= ACTIVE_LEVEL) lastActive = now;
+        }
+    }
+}
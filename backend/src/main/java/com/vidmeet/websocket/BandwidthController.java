@@ -0,0 +1,200 @@
+package com.vidmeet.websocket;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-room bandwidth adaptation driven by receivers' stats reports. Each receiver gets a
+// downlink estimate, GCC-style: back off when RTT climbs above its baseline (queues building)
+// or loss is heavy, probe upwards while the path looks clean (multiplicatively far from the
+// last overuse point, additively near it), hold on moderate loss. A browser-reported
+// available bitrate, when present, is blended in. The RTT baseline is the minimum over the
+// last MIN_RTT_WINDOW_MILLIS, so a path whose base delay goes up (route change, handover)
+// stops reading as congestion once the window has moved past the old samples.
+// The estimate is split evenly over the streams it receives, and every (sender, receiver)
+// pair gets its own layer and bitrate cap, so one weak receiver only slows the connections
+// that actually feed it. Hysteresis keeps decisions from flapping:
+//   - layers drop as soon as the budget falls below 90% of the current layer's floor, but
+//     only rise after the budget has stayed 20% above the next floor for upgradeHoldMillis
+//   - max_bitrate is only re-sent when it rises by more than changeThreshold (or falls by a
+//     third of that)
+// Time is passed in by the caller, so the controller is deterministic under simulation.
+// The probing steps and the RTT window assume a report per receiver every second, which is
+// what Room.jsx sends.
+public class BandwidthController {
+
+    public enum Layer { LOW, MID, HIGH }
+
+    // One message for the sender: layer (when it changed) and/or its new cap for this receiver
+    public record Hint(String sender, String receiver, Layer layer, Integer maxKbps) {
+    }
+
+    static final double MIN_KBPS = 100;
+    static final double MAX_KBPS = 4000;
+    private static final double HEAVY_LOSS_PCT = 10;
+    private static final double LOW_LOSS_PCT = 2;
+    static final long MIN_RTT_WINDOW_MILLIS = 10_000;
+
+    private final boolean enabled;
+    private final int midFloorKbps;
+    private final int highFloorKbps;
+    private final long upgradeHoldMillis;
+    private final double changeThreshold;
+    private final Map<String, Map<String, Receiver>> rooms = new ConcurrentHashMap<>();
+
+    public BandwidthController(boolean enabled, int midFloorKbps, int highFloorKbps,
+                               long upgradeHoldMillis, double changeThreshold) {
+        this.enabled = enabled;
+        this.midFloorKbps = midFloorKbps;
+        this.highFloorKbps = highFloorKbps;
+        this.upgradeHoldMillis = upgradeHoldMillis;
+        this.changeThreshold = changeThreshold;
+    }
+
+    public static BandwidthController disabled() {
+        return new BandwidthController(false, 0, 0, 0, 0);
+    }
+
+    // senders: the peers this receiver currently gets media from
+    public List<Hint> onReceiverStats(String roomId, String receiver, long nowMillis, double lossPct,
+                                      double rttMs, double availableKbps, Collection<String> senders) {
+        if (!enabled || senders.isEmpty()) return List.of();
+        Receiver state = rooms.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(receiver, k -> new Receiver());
+        synchronized (state) {
+            state.updateEstimate(nowMillis, lossPct, rttMs, availableKbps);
+            double budget = state.estimateKbps / senders.size();
+
+            List<Hint> hints = new ArrayList<>();
+            state.pairs.keySet().retainAll(senders);
+            for (String sender : senders) {
+                Pair pair = state.pairs.computeIfAbsent(sender, k -> new Pair());
+                Layer layer = pair.decideLayer(budget, nowMillis);
+                Integer maxKbps = pair.decideBitrate(budget);
+                if (layer != null || maxKbps != null) {
+                    hints.add(new Hint(sender, receiver, layer, maxKbps));
+                }
+            }
+            return hints;
+        }
+    }
+
+    public double getEstimateKbps(String roomId, String receiver) {
+        Map<String, Receiver> room = rooms.get(roomId);
+        Receiver state = room == null ? null : room.get(receiver);
+        return state == null ? 0 : state.estimateKbps;
+    }
+
+    public void leave(String roomId, String email) {
+        Map<String, Receiver> room = rooms.get(roomId);
+        if (room == null) return;
+        room.remove(email);
+        for (Receiver state : room.values()) {
+            synchronized (state) {
+                state.pairs.remove(email);
+            }
+        }
+    }
+
+    public void discard(String roomId) {
+        rooms.remove(roomId);
+    }
+
+    private int floor(Layer layer) {
+        return switch (layer) {
+            case LOW -> 0;
+            case MID -> midFloorKbps;
+            case HIGH -> highFloorKbps;
+        };
+    }
+
+    private Layer layerFor(double budget) {
+        if (budget >= highFloorKbps) return Layer.HIGH;
+        if (budget >= midFloorKbps) return Layer.MID;
+        return Layer.LOW;
+    }
+
+    private static final class Receiver {
+        double estimateKbps = 2500;
+        double lastOveruseKbps;
+        final Map<String, Pair> pairs = new HashMap<>();
+        // RTT samples of the window with increasing RTT front to back: the front is the minimum
+        final ArrayDeque<RttSample> rttWindow = new ArrayDeque<>();
+
+        void updateEstimate(long now, double lossPct, double rttMs, double availableKbps) {
+            if (availableKbps > 0) {
+                estimateKbps = estimateKbps * 0.5 + availableKbps * 0.5;
+            }
+            boolean delayRising = false;
+            if (rttMs > 0) {
+                while (!rttWindow.isEmpty() && rttWindow.peekLast().rttMs() >= rttMs) rttWindow.pollLast();
+                rttWindow.addLast(new RttSample(now, rttMs));
+                while (rttWindow.peekFirst().atMillis() <= now - MIN_RTT_WINDOW_MILLIS) rttWindow.pollFirst();
+                delayRising = rttMs > rttWindow.peekFirst().rttMs() * 1.5 + 10;
+            }
+
+            if (delayRising || lossPct > HEAVY_LOSS_PCT) {
+                // Drop to just under what actually got through, as GCC does on overuse
+                lastOveruseKbps = estimateKbps;
+                estimateKbps = Math.min(estimateKbps * 0.85, estimateKbps * (1 - lossPct / 100) * 0.95);
+            } else if (lossPct < LOW_LOSS_PCT) {
+                boolean nearLastOveruse = estimateKbps > lastOveruseKbps * 0.8 && estimateKbps < lastOveruseKbps * 1.1;
+                estimateKbps = nearLastOveruse ? estimateKbps * 1.01 + 10 : estimateKbps * 1.08 + 10;
+            }
+            estimateKbps = Math.max(MIN_KBPS, Math.min(MAX_KBPS, estimateKbps));
+        }
+    }
+
+    private record RttSample(long atMillis, double rttMs) {
+    }
+
+    private final class Pair {
+        Layer layer; // null until the first decision has been sent
+        long upgradeSince = -1;
+        int lastSentKbps;
+
+        // Returns the new layer, or null when it stays
+        Layer decideLayer(double budget, long now) {
+            Layer target = layerFor(budget);
+            if (layer == null) {
+                layer = target;
+                return layer;
+            }
+            if (target.compareTo(layer) < 0 && budget < floor(layer) * 0.9) {
+                layer = target;
+                upgradeSince = -1;
+                return layer;
+            }
+            if (target.compareTo(layer) > 0) {
+                Layer next = Layer.values()[layer.ordinal() + 1];
+                if (budget >= floor(next) * 1.2) {
+                    if (upgradeSince < 0) upgradeSince = now;
+                    if (now - upgradeSince >= upgradeHoldMillis) {
+                        layer = next;
+                        upgradeSince = -1;
+                        return layer;
+                    }
+                    return null;
+                }
+            }
+            upgradeSince = -1;
+            return null;
+        }
+
+        // Returns the new cap, or null when it moved too little to be worth a message.
+        // Cuts go out at a third of the threshold: overshooting a bottleneck costs loss.
+        Integer decideBitrate(double budget) {
+            int kbps = (int) Math.round(budget);
+            double threshold = kbps < lastSentKbps ? changeThreshold / 3 : changeThreshold;
+            if (lastSentKbps > 0 && Math.abs(kbps - lastSentKbps) <= lastSentKbps * threshold) {
+                return null;
+            }
+            lastSentKbps = kbps;
+            return kbps;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.vidmeet.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Breakout partitions inside one meeting. Sessions start in the main partition; the host can
+// move them into named breakouts and back without reconnecting, since a move only changes
+// which member list a session sits in (and its partition attribute). Chat and signaling fan
+// out over the sender's member list, so their cost follows the partition's size; room-wide
+// events and host broadcasts still go over the whole room. Until a room is first split it has
+// no entry here and callers fall back to the room's own session list.
+public class BreakoutRooms {
+
+    public static final String MAIN = "main";
+    static final String ATTR_PARTITION = "vidmeet.partition";
+
+    private final Map<String, Partitions> rooms = new ConcurrentHashMap<>();
+
+    private static final class Partitions {
+        final Map<String, CopyOnWriteArrayList<WebSocketSession>> members = new ConcurrentHashMap<>();
+        // Breakout chat history; main keeps using the room's history
+        final Map<String, List<VideoSocketHandler.ChatMessage>> history = new ConcurrentHashMap<>();
+
+        // A session joining while the room is being split may already have been copied into main
+        void add(String partition, WebSocketSession session) {
+            members.computeIfAbsent(partition, k -> new CopyOnWriteArrayList<>()).addIfAbsent(session);
+        }
+    }
+
+    public String partitionOf(WebSocketSession session) {
+        Object partition = session.getAttributes().get(ATTR_PARTITION);
+        return partition == null ? MAIN : (String) partition;
+    }
+
+    // Sessions of one partition, or null while the room has never been split
+    public List<WebSocketSession> members(String roomId, String partition) {
+        Partitions room = rooms.get(roomId);
+        if (room == null) return null;
+        List<WebSocketSession> members = room.members.get(partition);
+        return members == null ? List.of() : members;
+    }
+
+    public synchronized void join(String roomId, WebSocketSession session) {
+        Partitions room = rooms.get(roomId);
+        if (room != null) room.add(MAIN, session);
+    }
+
+    // Moves a session (as stored in the room list) to partition; the first move splits the
+    // room, putting every current session in main. Returns the partition it came from.
+    public synchronized String move(String roomId, List<WebSocketSession> roomSessions,
+                                    WebSocketSession session, String partition) {
+        Partitions room = rooms.computeIfAbsent(roomId, k -> {
+            Partitions split = new Partitions();
+            split.members.put(MAIN, new CopyOnWriteArrayList<>(roomSessions));
+            return split;
+        });
+        String from = partitionOf(session);
+        if (from.equals(partition)) return from;
+        List<WebSocketSession> old = room.members.get(from);
+        if (old != null) {
+            old.remove(session);
+            if (old.isEmpty() && !MAIN.equals(from)) room.members.remove(from);
+        }
+        room.add(partition, session);
+        if (MAIN.equals(partition)) {
+            session.getAttributes().remove(ATTR_PARTITION);
+        } else {
+            session.getAttributes().put(ATTR_PARTITION, partition);
+        }
+        return from;
+    }
+
+    public synchronized void leave(String roomId, WebSocketSession session) {
+        Partitions room = rooms.get(roomId);
+        if (room == null) return;
+        String partition = partitionOf(session);
+        List<WebSocketSession> members = room.members.get(partition);
+        if (members != null) {
+            members.remove(session);
+            if (members.isEmpty() && !MAIN.equals(partition)) {
+                room.members.remove(partition);
+                room.history.remove(partition);
+            }
+        }
+    }
+
+    // Everyone back to main; the room is unsplit afterwards
+    public synchronized void close(String roomId) {
+        Partitions room = rooms.remove(roomId);
+        if (room == null) return;
+        room.members.values().forEach(members -> members.forEach(s -> s.getAttributes().remove(ATTR_PARTITION)));
+    }
+
+    public List<VideoSocketHandler.ChatMessage> history(String roomId, String partition) {
+        Partitions room = rooms.get(roomId);
+        return room == null ? null : room.history.computeIfAbsent(partition, k -> new CopyOnWriteArrayList<>());
+    }
+
+    // partition -> sessions, main first; empty while the room is not split
+    public Map<String, List<WebSocketSession>> partitions(String roomId) {
+        Map<String, List<WebSocketSession>> result = new LinkedHashMap<>();
+        Partitions room = rooms.get(roomId);
+        if (room != null) {
+            List<WebSocketSession> main = room.members.get(MAIN);
+            result.put(MAIN, main == null ? new ArrayList<>() : new ArrayList<>(main));
+            room.members.forEach((name, members) -> {
+                if (!MAIN.equals(name)) result.put(name, new ArrayList<>(members));
+            });
+        }
+        return result;
+    }
+
+    public void discard(String roomId) {
+        rooms.remove(roomId);
+    }
+}
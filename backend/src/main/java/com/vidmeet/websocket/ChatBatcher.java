@@ -0,0 +1,82 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.VideoSocketHandler.ChatMessage;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// Large-room chat mode. Once a room has threshold sessions, chat messages are buffered per
+// room and flushed once per tick as a single chat-batch frame, so M messages in a tick cost
+// one send per recipient instead of M. Smaller rooms keep sending immediately.
+public class ChatBatcher implements Closeable {
+
+    private final int threshold;
+    private final long tickMillis;
+    private final Map<String, List<ChatMessage>> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+    private BiConsumer<String, List<ChatMessage>> flusher;
+
+    public ChatBatcher(int threshold, long tickMillis) {
+        this.threshold = threshold;
+        this.tickMillis = tickMillis;
+    }
+
+    public static ChatBatcher disabled() {
+        return new ChatBatcher(Integer.MAX_VALUE, 0);
+    }
+
+    // Called once by the handler with the function that fans a batch out to a room.
+    // tickMillis <= 0 starts no ticker; the caller flushes (benchmarks do)
+    void start(BiConsumer<String, List<ChatMessage>> flusher) {
+        this.flusher = flusher;
+        if (threshold == Integer.MAX_VALUE || tickMillis <= 0) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::flush, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // A room that dropped below the threshold keeps batching until its buffer drains,
+    // so an immediate send can never overtake messages still waiting for the tick
+    public boolean shouldBatch(String roomId, int roomSize) {
+        return roomSize >= threshold || pending.containsKey(roomId);
+    }
+
+    public void add(String roomId, ChatMessage message) {
+        pending.compute(roomId, (k, batch) -> {
+            if (batch == null) batch = new ArrayList<>();
+            batch.add(message);
+            return batch;
+        });
+    }
+
+    public void flush() {
+        for (String roomId : pending.keySet()) {
+            List<ChatMessage> batch = pending.remove(roomId);
+            if (batch == null) continue;
+            try {
+                flusher.accept(roomId, batch);
+            } catch (Exception e) {
+                System.err.println("Error flushing chat batch for room " + roomId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void discard(String roomId) {
+        pending.remove(roomId);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.vidmeet.websocket;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-session token buckets for inbound frames, one per message class. Buckets live in the
+// session's attributes, so they go away with the session and need no cleanup. A session that
+// keeps overrunning its buckets (more than disconnectAfter drops without a quiet strikeWindow
+// in between) is disconnected rather than dropped frame by frame. Chat sent over REST has no
+// session, so it gets one chat bucket per sender instead.
+public class InboundRateLimiter {
+
+    public enum MessageClass { CHAT, SIGNALING, CONTROL }
+
+    public enum Decision { ALLOW, DROP, DISCONNECT }
+
+    static final String ATTR_BUCKETS = "vidmeet.rateLimits";
+    private static final Set<String> SIGNALING_TYPES = Set.of("offer", "answer", "ice-candidate", "audio_level");
+
+    private final boolean enabled;
+    private final Limit chat;
+    private final Limit signaling;
+    private final Limit control;
+    private final int disconnectAfter;
+    private final long strikeWindowNanos;
+    private final Map<String, TokenBucket> senderChat = new ConcurrentHashMap<>();
+
+    public InboundRateLimiter(boolean enabled, Limit chat, Limit signaling, Limit control,
+                              int disconnectAfter, long strikeWindowMillis) {
+        this.enabled = enabled;
+        this.chat = chat;
+        this.signaling = signaling;
+        this.control = control;
+        this.disconnectAfter = disconnectAfter;
+        this.strikeWindowNanos = strikeWindowMillis * 1_000_000L;
+    }
+
+    public static InboundRateLimiter unlimited() {
+        return new InboundRateLimiter(false, null, null, null, 0, 0);
+    }
+
+    // Unknown and unparseable types count as control: they're the ones default re-broadcasts.
+    // Direct messages are chat that happens to have one recipient.
+    public static MessageClass classify(String type) {
+        if ("chat".equals(type) || "direct".equals(type)) return MessageClass.CHAT;
+        if (type != null && SIGNALING_TYPES.contains(type)) return MessageClass.SIGNALING;
+        return MessageClass.CONTROL;
+    }
+
+    public Decision check(WebSocketSession session, MessageClass messageClass) {
+        if (!enabled) return Decision.ALLOW;
+        SessionBuckets buckets = (SessionBuckets) session.getAttributes()
+                .computeIfAbsent(ATTR_BUCKETS, k -> new SessionBuckets());
+        return buckets.check(messageClass, System.nanoTime());
+    }
+
+    // Chat limit for a message sent outside any session, e.g. POST /api/direct
+    public boolean tryChat(String sender) {
+        if (!enabled) return true;
+        TokenBucket bucket = senderChat.computeIfAbsent(sender, k -> new TokenBucket(chat));
+        synchronized (bucket) {
+            return bucket.tryAcquire(System.nanoTime());
+        }
+    }
+
+    // A bucket that has refilled is no different from a new one
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeIdleSenders() {
+        long now = System.nanoTime();
+        senderChat.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                return bucket.isFull(now);
+            }
+        });
+    }
+
+    public record Limit(int capacity, double perSecond) {
+    }
+
+    private final class SessionBuckets {
+        private final TokenBucket chatBucket = new TokenBucket(chat);
+        private final TokenBucket signalingBucket = new TokenBucket(signaling);
+        private final TokenBucket controlBucket = new TokenBucket(control);
+        private int strikes;
+        private long lastStrike;
+
+        // Frames of one session are delivered one at a time, but be safe anyway
+        synchronized Decision check(MessageClass messageClass, long now) {
+            TokenBucket bucket = switch (messageClass) {
+                case CHAT -> chatBucket;
+                case SIGNALING -> signalingBucket;
+                case CONTROL -> controlBucket;
+            };
+            if (bucket.tryAcquire(now)) return Decision.ALLOW;
+
+            if (now - lastStrike > strikeWindowNanos) strikes = 0;
+            lastStrike = now;
+            return ++strikes > disconnectAfter ? Decision.DISCONNECT : Decision.DROP;
+        }
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(Limit limit) {
+            this.capacity = limit.capacity();
+            this.tokensPerNano = limit.perSecond() / 1e9;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+
+        boolean isFull(long now) {
+            return tokens + (now - lastRefill) * tokensPerNano >= capacity;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.vidmeet.websocket;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Reads every segment in a journal directory, oldest first. A zero length prefix marks the
+// end of a segment's written records (or a record cut short by a crash).
+public final class JournalReader {
+
+    private JournalReader() {
+    }
+
+    public static long read(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        long count = 0;
+        for (Path segment : RoomEventJournal.listSegments(directory)) {
+            count += readSegment(segment, consumer);
+        }
+        return count;
+    }
+
+    static long readSegment(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < RoomEventJournal.HEADER_SIZE
+                    || buffer.getInt(0) != RoomEventJournal.MAGIC
+                    || buffer.getInt(4) != RoomEventJournal.VERSION) {
+                throw new IOException("Not a room journal segment: " + segment);
+            }
+
+            long count = 0;
+            int position = RoomEventJournal.HEADER_SIZE;
+            while (position + 4 <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + 4 + length > buffer.limit()) break;
+
+                int p = position + 4;
+                byte kind = buffer.get(p);
+                long epochMillis = buffer.getLong(p + 1);
+                p += 9;
+                int roomLength = buffer.getShort(p);
+                String roomId = string(buffer, p + 2, roomLength);
+                p += 2 + roomLength;
+                int emailLength = buffer.getShort(p);
+                String email = string(buffer, p + 2, emailLength);
+                p += 2 + emailLength;
+                int extra = buffer.getInt(p);
+                int payloadLength = buffer.getInt(p + 4);
+                String payload = string(buffer, p + 8, payloadLength);
+
+                consumer.accept(new JournalRecord(kind, epochMillis, roomId, email, extra, payload));
+                count++;
+                position += 4 + length;
+            }
+            return count;
+        }
+    }
+
+    private static String string(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,5 @@
+package com.vidmeet.websocket;
+
+// One decoded RoomEventJournal entry; kind is one of the RoomEventJournal constants
+public record JournalRecord(byte kind, long epochMillis, String roomId, String email, int extra, String payload) {
+}
@@ -0,0 +1,114 @@
+package com.vidmeet.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+// Feeds a recorded journal back through a VideoSocketHandler: JOIN/LEAVE become connection
+// events, INBOUND frames are re-delivered, and metadata-only signaling frames are replaced
+// by a placeholder of the recorded type and size. Outbound and kick records are what the
+// handler produced originally and are only counted.
+//
+// speed: 1.0 = original timing, 10.0 = ten times faster, 0 = as fast as possible.
+public class JournalReplayer {
+
+    private final VideoSocketHandler handler;
+    private final BiFunction<String, String, WebSocketSession> sessionFactory; // (roomId, email)
+    private final double speed;
+    private final Map<String, WebSocketSession> sessions = new HashMap<>();
+
+    private long firstRecordMillis = -1;
+    private long startNanos;
+    private long replayed;
+    private long recordedOutbound;
+
+    public JournalReplayer(VideoSocketHandler handler,
+                           BiFunction<String, String, WebSocketSession> sessionFactory,
+                           double speed) {
+        this.handler = handler;
+        this.sessionFactory = sessionFactory;
+        this.speed = speed;
+    }
+
+    public long replay(Path directory) throws IOException {
+        JournalReader.read(directory, this::apply);
+        // Anyone still connected at the end of the recording leaves
+        for (WebSocketSession session : sessions.values()) {
+            handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+        }
+        sessions.clear();
+        return replayed;
+    }
+
+    // Frames the original run sent (sum of recipients over outbound records)
+    public long getRecordedOutbound() {
+        return recordedOutbound;
+    }
+
+    private void apply(JournalRecord record) {
+        pace(record.epochMillis());
+        String key = record.roomId() + '\n' + record.email();
+        try {
+            switch (record.kind()) {
+                case RoomEventJournal.JOIN -> {
+                    WebSocketSession session = sessionFactory.apply(record.roomId(), record.email());
+                    sessions.put(key, session);
+                    handler.afterConnectionEstablished(session);
+                }
+                case RoomEventJournal.LEAVE -> {
+                    WebSocketSession session = sessions.remove(key);
+                    if (session != null) handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+                }
+                case RoomEventJournal.INBOUND, RoomEventJournal.INBOUND_META -> {
+                    WebSocketSession session = sessions.get(key);
+                    if (session == null) return;
+                    String payload = record.kind() == RoomEventJournal.INBOUND
+                            ? record.payload()
+                            : placeholder(record.payload(), record.email());
+                    handler.handleMessage(session, new TextMessage(payload));
+                }
+                case RoomEventJournal.OUTBOUND, RoomEventJournal.OUTBOUND_META -> recordedOutbound += record.extra();
+                default -> { }
+            }
+            replayed++;
+        } catch (Exception e) {
+            System.err.println("Replay error at " + record.epochMillis() + ": " + e.getMessage());
+        }
+    }
+
+    private void pace(long epochMillis) {
+        if (firstRecordMillis < 0) {
+            firstRecordMillis = epochMillis;
+            startNanos = System.nanoTime();
+            return;
+        }
+        if (speed <= 0) return;
+        long dueNanos = startNanos + (long) ((epochMillis - firstRecordMillis) * 1_000_000 / speed);
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // {"type":"offer","bytes":1234} -> a frame of that type padded to roughly the same size
+    static String placeholder(String metadata, String from) {
+        int typeStart = metadata.indexOf("\"type\":\"") + 8;
+        String type = metadata.substring(typeStart, metadata.indexOf('"', typeStart));
+        int bytesStart = metadata.indexOf("\"bytes\":") + 8;
+        int bytes = Integer.parseInt(metadata.substring(bytesStart, metadata.indexOf('}', bytesStart)));
+
+        String head = "{\"type\":\"" + type + "\",\"from\":\"" + from + "\",\"replay\":\"";
+        int padding = Math.max(0, bytes - head.length() - 2);
+        return head + "x".repeat(padding) + "\"}";
+    }
+}
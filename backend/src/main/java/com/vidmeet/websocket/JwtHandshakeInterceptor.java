@@ -0,0 +1,66 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// Verifies the JWT once at handshake time and pins the caller's identity on the session,
+// so the handler never has to trust (or re-parse) anything the client put in the URL.
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ATTR_EMAIL = "vidmeet.email";
+    public static final String ATTR_ROOM_ID = "vidmeet.roomId";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+
+    public JwtHandshakeInterceptor(JwtUtil jwtUtil, TokenRevocationService revocationService) {
+        this.jwtUtil = jwtUtil;
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        // Path is /ws/{roomId}
+        String[] segments = request.getURI().getPath().split("/");
+        if (segments.length < 3 || segments[2].isEmpty()) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+
+        String token = resolveToken(request);
+        Claims claims = token != null ? jwtUtil.parseValidClaims(token) : null;
+        if (claims == null || revocationService.isRevoked(claims)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        attributes.put(ATTR_EMAIL, claims.getSubject());
+        attributes.put(ATTR_ROOM_ID, segments[2]);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // Browsers can't set headers on a WebSocket upgrade, so the token normally arrives as ?token=
+    private String resolveToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
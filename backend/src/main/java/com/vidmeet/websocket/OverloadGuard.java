@@ -0,0 +1,211 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Node-wide admission control for signaling sessions and new meetings. Hard caps (sessions,
+// rooms, room size) are reserved on every join and given back on leave, so concurrent
+// handshakes can't all squeeze past the same free slot; on top of that a sampler thread watches two
+// live indicators and marks the node saturated while either is over its threshold:
+//   - outbound backlog: bytes queued in ConcurrentWebSocketSessionDecorator buffers, i.e.
+//     clients we can't write to as fast as we produce frames
+//   - scheduling lag: how late the sampler's own 100 ms tick fires (smoothed), which
+//     grows with CPU starvation and GC pauses the same way an event-loop lag does
+// While saturated, new sessions and meetings are refused; existing sessions are untouched.
+public class OverloadGuard implements Closeable {
+
+    // 1013 Try Again Later, for the whole node; 4000-range code for a room at its cap
+    public static final CloseStatus NODE_OVERLOADED = CloseStatus.SERVICE_OVERLOAD.withReason("Server busy, retry later");
+    public static final CloseStatus ROOM_FULL = new CloseStatus(4029, "Room is full");
+
+    private static final long SAMPLE_PERIOD_MILLIS = 100;
+
+    private final boolean enabled;
+    private final int maxSessions;
+    private final int maxRooms;
+    private final int maxRoomSize;
+    private final long maxOutboundBytes;
+    private final long maxLagMillis;
+    private final int retryAfterSeconds;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferLimitBytes;
+    private final AtomicInteger sessions = new AtomicInteger();
+    // Admitted sessions per room; the room count is kept alongside so it can be reserved too
+    private final Map<String, Integer> roomSessions = new ConcurrentHashMap<>();
+    private final AtomicInteger roomCount = new AtomicInteger();
+    private final ScheduledExecutorService sampler;
+    private volatile Map<String, List<WebSocketSession>> rooms = Map.of();
+    private volatile long outboundBytes;
+    private volatile double lagMillis;
+    private volatile boolean saturated;
+    private long nextTick;
+    private Counter rejectedNode;
+    private Counter rejectedRoom;
+    private Counter rejectedMeetings;
+
+    public OverloadGuard(boolean enabled, int maxSessions, int maxRooms, int maxRoomSize,
+                         long maxOutboundBytes, long maxLagMillis, int retryAfterSeconds,
+                         int sendTimeLimitMillis, int sendBufferLimitBytes) {
+        this.enabled = enabled;
+        this.maxSessions = maxSessions;
+        this.maxRooms = maxRooms;
+        this.maxRoomSize = maxRoomSize;
+        this.maxOutboundBytes = maxOutboundBytes;
+        this.maxLagMillis = maxLagMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferLimitBytes = sendBufferLimitBytes;
+        if (enabled) {
+            this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "overload-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.nextTick = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SAMPLE_PERIOD_MILLIS);
+            sampler.scheduleWithFixedDelay(this::sample, SAMPLE_PERIOD_MILLIS, SAMPLE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            this.sampler = null;
+        }
+    }
+
+    public static OverloadGuard unlimited() {
+        return new OverloadGuard(false, 0, 0, 0, 0, 0, 0, 10_000, 512 * 1024);
+    }
+
+    // Serializes concurrent sends to one client (a raw session throws TEXT_PARTIAL_WRITING
+    // when two broadcasts hit it at once) and buffers for slow readers. A client that stays
+    // stuck past the time or buffer limit is closed instead of holding memory indefinitely.
+    public WebSocketSession decorate(WebSocketSession session) {
+        return new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferLimitBytes);
+    }
+
+    // Called once by the handler so the sampler can see every outbound buffer
+    void watch(Map<String, List<WebSocketSession>> rooms, MeterRegistry registry) {
+        this.rooms = rooms;
+        Gauge.builder("vidmeet.ws.outbound.bytes", this, g -> g.outboundBytes)
+                .description("Bytes queued for slow WebSocket clients")
+                .register(registry);
+        Gauge.builder("vidmeet.node.scheduling.lag", this, g -> g.lagMillis)
+                .description("Smoothed lateness of a 100 ms timer tick, in ms")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("vidmeet.node.saturated", this, g -> g.saturated ? 1 : 0)
+                .description("1 while new sessions and meetings are being shed")
+                .register(registry);
+        rejectedNode = rejectedCounter(registry, "node");
+        rejectedRoom = rejectedCounter(registry, "room");
+        rejectedMeetings = rejectedCounter(registry, "meeting");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("vidmeet.overload.rejected")
+                .description("Sessions or meetings refused by overload protection")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    // Returns null when the session may join; otherwise the status to close it with.
+    // A null result must be paired with release(roomId) when the session ends.
+    public CloseStatus admitSession(String roomId) {
+        if (!enabled) return null;
+        if (saturated) {
+            rejectedNode.increment();
+            return NODE_OVERLOADED;
+        }
+        if (sessions.incrementAndGet() > maxSessions) {
+            sessions.decrementAndGet();
+            rejectedNode.increment();
+            return NODE_OVERLOADED;
+        }
+        CloseStatus[] rejection = new CloseStatus[1];
+        roomSessions.compute(roomId, (id, count) -> {
+            if (count == null) {
+                if (roomCount.incrementAndGet() > maxRooms) {
+                    roomCount.decrementAndGet();
+                    rejection[0] = NODE_OVERLOADED;
+                    return null;
+                }
+                return 1;
+            }
+            if (count >= maxRoomSize) {
+                rejection[0] = ROOM_FULL;
+                return count;
+            }
+            return count + 1;
+        });
+        if (rejection[0] != null) {
+            sessions.decrementAndGet();
+            (rejection[0] == ROOM_FULL ? rejectedRoom : rejectedNode).increment();
+        }
+        return rejection[0];
+    }
+
+    public void release(String roomId) {
+        if (!enabled) return;
+        sessions.decrementAndGet();
+        roomSessions.computeIfPresent(roomId, (id, count) -> {
+            if (count > 1) return count - 1;
+            roomCount.decrementAndGet();
+            return null;
+        });
+    }
+
+    // New meetings only bring more load, so they're refused first
+    public boolean admitMeeting() {
+        if (!enabled) return true;
+        if (saturated || roomCount.get() >= maxRooms || sessions.get() >= maxSessions) {
+            rejectedMeetings.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    private void sample() {
+        long lag = Math.max(0, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nextTick));
+        lagMillis = lagMillis * 0.8 + lag * 0.2;
+
+        long queued = 0;
+        for (List<WebSocketSession> room : rooms.values()) {
+            for (WebSocketSession session : room) {
+                if (session instanceof ConcurrentWebSocketSessionDecorator decorated) {
+                    queued += decorated.getBufferSize();
+                }
+            }
+        }
+        outboundBytes = queued;
+
+        boolean wasSaturated = saturated;
+        saturated = queued > maxOutboundBytes || lagMillis > maxLagMillis;
+        if (saturated != wasSaturated) {
+            System.out.printf("%s Overload protection %s (outbound=%d bytes, lag=%.1f ms)%n",
+                    saturated ? "🔥" : "✅", saturated ? "shedding new load" : "recovered", queued, lagMillis);
+        }
+        nextTick = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SAMPLE_PERIOD_MILLIS);
+    }
+
+    @Override
+    public void close() {
+        if (sampler != null) sampler.shutdownNow();
+    }
+}
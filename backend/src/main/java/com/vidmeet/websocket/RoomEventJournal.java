@@ -0,0 +1,224 @@
+package com.vidmeet.websocket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Append-only journal of VideoSocketHandler events, written to fixed-size memory-mapped
+// segment files. Writers reserve space with a single getAndAdd and copy their record in
+// without locking; the length prefix is written last, so a reader stops cleanly at the
+// first record that was never completed. Only segment rotation takes a lock.
+//
+// Segment layout: MAGIC, VERSION, then records of
+//   int length | byte kind | long epochMillis | short roomLen | room | short emailLen | email
+//   | int extra | int payloadLen | payload (all strings UTF-8)
+// Signaling frames (offer/answer/ICE) are journaled as metadata only ({"type","bytes"}).
+public class RoomEventJournal implements Closeable {
+
+    public static final byte JOIN = 1;
+    public static final byte LEAVE = 2;
+    public static final byte INBOUND = 3;
+    public static final byte INBOUND_META = 4;
+    public static final byte OUTBOUND = 5;
+    public static final byte OUTBOUND_META = 6;
+    public static final byte KICK = 7;
+
+    static final int MAGIC = 0x564d4a31; // "VMJ1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final Set<String> SIGNALING_TYPES = Set.of("offer", "answer", "ice-candidate");
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long startMillis = System.currentTimeMillis();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final Object rotateLock = new Object();
+    private volatile Segment current;
+    private volatile boolean failed;
+
+    private RoomEventJournal() {
+        this.enabled = false;
+        this.directory = null;
+        this.segmentSize = 0;
+        this.maxSegments = 0;
+    }
+
+    public RoomEventJournal(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this.enabled = true;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        this.current = openSegment();
+    }
+
+    public static RoomEventJournal disabled() {
+        return new RoomEventJournal();
+    }
+
+    public boolean isEnabled() {
+        return enabled && !failed;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    public void join(String roomId, String email) {
+        if (isEnabled()) append(JOIN, roomId, email, 0, EMPTY);
+    }
+
+    public void leave(String roomId, String email) {
+        if (isEnabled()) append(LEAVE, roomId, email, 0, EMPTY);
+    }
+
+    public void inbound(String roomId, String email, String type, String payload) {
+        if (!isEnabled()) return;
+        if (type != null && SIGNALING_TYPES.contains(type)) {
+            append(INBOUND_META, roomId, email, 0, metadata(type, payload.length()));
+        } else {
+            append(INBOUND, roomId, email, 0, payload.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Room-wide frame; extra is the recipient count
+    public void outbound(String roomId, int recipients, String payload) {
+        if (isEnabled()) append(OUTBOUND, roomId, "", recipients, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Frame to one participant (email), or a large/signaling frame journaled by size only
+    public void outboundMeta(String roomId, String email, int recipients, String type, int bytes) {
+        if (isEnabled()) append(OUTBOUND_META, roomId, email, recipients, metadata(type, bytes));
+    }
+
+    public void outboundTo(String roomId, String email, String payload) {
+        if (isEnabled()) append(OUTBOUND, roomId, email, 1, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void kick(String roomId, String kicker, String kicked) {
+        if (isEnabled()) append(KICK, roomId, kicker, 0, kicked.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] metadata(String type, int bytes) {
+        return ("{\"type\":\"" + type + "\",\"bytes\":" + bytes + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void append(byte kind, String roomId, String email, int extra, byte[] payload) {
+        byte[] room = roomId.getBytes(StandardCharsets.UTF_8);
+        byte[] who = email.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 8 + 2 + room.length + 2 + who.length + 4 + 4 + payload.length;
+        int recordSize = 4 + length;
+        if (recordSize > segmentSize - HEADER_SIZE || room.length > Short.MAX_VALUE || who.length > Short.MAX_VALUE) {
+            droppedRecords.incrementAndGet();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        while (true) {
+            Segment segment = current;
+            int position = segment.position.getAndAdd(recordSize);
+            if (position + recordSize <= segmentSize) {
+                MappedByteBuffer buffer = segment.buffer;
+                int p = position + 4;
+                buffer.put(p, kind);
+                buffer.putLong(p + 1, now);
+                p += 9;
+                buffer.putShort(p, (short) room.length);
+                buffer.put(p + 2, room);
+                p += 2 + room.length;
+                buffer.putShort(p, (short) who.length);
+                buffer.put(p + 2, who);
+                p += 2 + who.length;
+                buffer.putInt(p, extra);
+                buffer.putInt(p + 4, payload.length);
+                buffer.put(p + 8, payload);
+                buffer.putInt(position, length); // publish
+                return;
+            }
+            if (!rotate(segment)) {
+                droppedRecords.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private boolean rotate(Segment full) {
+        synchronized (rotateLock) {
+            if (current != full) return true; // someone else already rotated
+            try {
+                current = openSegment();
+                full.buffer.force();
+                full.channel.close();
+                pruneOldSegments();
+                return true;
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("Room journal disabled after I/O error: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path path = directory.resolve(String.format("journal-%d-%06d.seg", startMillis, segmentSequence.getAndIncrement()));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        return new Segment(channel, buffer);
+    }
+
+    private void pruneOldSegments() throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    // Oldest first; file names sort by process start time, then sequence
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().matches("journal-\\d+-\\d+\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) return;
+        synchronized (rotateLock) {
+            Segment segment = current;
+            segment.buffer.force();
+            segment.channel.close();
+            failed = true;
+        }
+    }
+
+    private static final class Segment {
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+
+        Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.vidmeet.websocket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Participant table of one room. Each email is interned into a small int id, the lowest free
+// one, so ids stay dense and are reused after people leave. Membership is a bitset over ids,
+// id -> email is a plain array, and email -> id is an open-addressing int table holding ids
+// into that array (linear probing, backward-shift deletion, load kept under 1/2). No entry
+// objects and no boxing: a room costs a few small arrays instead of a hash-set node per
+// participant. Clients get the id with each roster entry, so later roster updates reference
+// the id rather than the email.
+public class RoomRoster {
+
+    private String[] emails = new String[4];
+    private long[] members = new long[1];
+    private int[] index = new int[8]; // id + 1 per slot, 0 = empty
+    private int size;
+
+    // Id of the participant, newly assigned if they weren't in the room
+    public synchronized int add(String email) {
+        int existing = find(email);
+        if (existing >= 0) return existing;
+        int id = nextFreeId();
+        if (id >= emails.length) emails = Arrays.copyOf(emails, emails.length * 2);
+        if (id >> 6 >= members.length) members = Arrays.copyOf(members, members.length * 2);
+        emails[id] = email;
+        members[id >> 6] |= 1L << id;
+        size++;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        } else {
+            place(id);
+        }
+        return id;
+    }
+
+    // Id the participant had, or -1 if they weren't in the room
+    public synchronized int remove(String email) {
+        int slot = slotOf(email);
+        if (slot < 0) return -1;
+        int id = index[slot] - 1;
+        unlink(slot);
+        emails[id] = null;
+        members[id >> 6] &= ~(1L << id);
+        size--;
+        return id;
+    }
+
+    public synchronized boolean contains(String email) {
+        return find(email) >= 0;
+    }
+
+    public synchronized int idOf(String email) {
+        return find(email);
+    }
+
+    public synchronized String emailOf(int id) {
+        return id >= 0 && id < emails.length ? emails[id] : null;
+    }
+
+    // The room's own copy of an email string if it holds one, so long-lived references (chat
+    // history, pending requests) share one instance per participant
+    public synchronized String canonical(String email) {
+        int id = find(email);
+        return id < 0 ? email : emails[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Members in id order
+    public synchronized List<String> emails() {
+        List<String> result = new ArrayList<>(size);
+        forEachId(id -> result.add(emails[id]));
+        return result;
+    }
+
+    // Ids and emails of the members, index-aligned, taken together
+    public synchronized Entries entries() {
+        int[] idList = new int[size];
+        List<String> emailList = new ArrayList<>(size);
+        forEachId(id -> {
+            idList[emailList.size()] = id;
+            emailList.add(emails[id]);
+        });
+        return new Entries(idList, emailList);
+    }
+
+    public record Entries(int[] ids, List<String> emails) {
+    }
+
+    private void forEachId(IntConsumer action) {
+        for (int word = 0; word < members.length; word++) {
+            long bits = members[word];
+            while (bits != 0) {
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private static int hash(String email) {
+        int h = email.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String email) {
+        int slot = slotOf(email);
+        return slot < 0 ? -1 : index[slot] - 1;
+    }
+
+    private int slotOf(String email) {
+        int mask = index.length - 1;
+        for (int slot = hash(email) & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) return -1;
+            if (emails[entry - 1].equals(email)) return slot;
+        }
+    }
+
+    private void place(int id) {
+        int mask = index.length - 1;
+        int slot = hash(emails[id]) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = id + 1;
+    }
+
+    private void rehash(int capacity) {
+        index = new int[capacity];
+        forEachId(this::place);
+    }
+
+    // Empties a slot and pulls later entries of the probe run back, so lookups never need
+    // tombstones to keep going
+    private void unlink(int slot) {
+        int mask = index.length - 1;
+        index[slot] = 0;
+        for (int next = (slot + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int home = hash(emails[index[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                index[slot] = index[next];
+                index[next] = 0;
+                slot = next;
+            }
+        }
+    }
+
+    private int nextFreeId() {
+        for (int word = 0; word < members.length; word++) {
+            long free = ~members[word];
+            if (free != 0) return (word << 6) + Long.numberOfTrailingZeros(free);
+        }
+        return members.length << 6;
+    }
+}
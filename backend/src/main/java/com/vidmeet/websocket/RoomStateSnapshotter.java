@@ -0,0 +1,240 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.VideoSocketHandler.ChatMessage;
+import com.vidmeet.websocket.VideoSocketHandler.JoinRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Periodic binary snapshot of room state that lives only in VideoSocketHandler's maps
+// (hosts, pending join requests, chat), restored on startup so a rolling restart doesn't
+// hand reconnecting clients empty rooms. Sessions and participants are not saved; clients
+// re-register them when they reconnect. Restored rooms nobody returns to are dropped
+// after snapshot.restore-grace-ms.
+//
+// Format: MAGIC, VERSION, createdAt, roomCount, then per room
+//   roomId | names[] | host (name index + 1, 0 = none) | pending (name, ts)[] | chat (name, ts, text)[]
+// Counts and lengths are varints; each room's emails are written once in its names table.
+@Component
+public class RoomStateSnapshotter {
+
+    static final int MAGIC = 0x564d5331; // "VMS1"
+    static final int VERSION = 1;
+
+    private final Map<String, Long> restoredRooms = new ConcurrentHashMap<>(); // roomId -> restored at
+
+    @Value("${snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${snapshot.file:room-state.snap}")
+    private String file;
+
+    @Value("${snapshot.restore-grace-ms:600000}")
+    private long restoreGraceMillis;
+
+    @PostConstruct
+    public void restoreOnStartup() {
+        if (!enabled) return;
+        Path path = Path.of(file);
+        if (!Files.exists(path)) return;
+        try {
+            long start = System.nanoTime();
+            int rooms = restore(path);
+            System.out.printf("♻️ Restored %d rooms from %s in %.1f ms%n", rooms, path, (System.nanoTime() - start) / 1e6);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable room snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${snapshot.interval-ms:10000}")
+    public void periodicSnapshot() {
+        if (!enabled) return;
+        dropAbandonedRooms();
+        try {
+            write(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("Room snapshot failed: " + e.getMessage());
+        }
+    }
+
+    // Final snapshot on shutdown is the one a rolling restart actually restores from
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        periodicSnapshot();
+    }
+
+    // Written to a temp file and moved into place, so a crash mid-write keeps the old snapshot
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            List<String> roomIds = new ArrayList<>(VideoSocketHandler.roomHosts.keySet());
+            for (String roomId : VideoSocketHandler.roomMessages.keySet()) {
+                if (!VideoSocketHandler.roomHosts.containsKey(roomId)) roomIds.add(roomId);
+            }
+            for (String roomId : VideoSocketHandler.pendingJoinRequests.keySet()) {
+                if (!VideoSocketHandler.roomHosts.containsKey(roomId)
+                        && !VideoSocketHandler.roomMessages.containsKey(roomId)) roomIds.add(roomId);
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(roomIds.size());
+            for (String roomId : roomIds) {
+                writeRoom(out, roomId);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeRoom(DataOutputStream out, String roomId) throws IOException {
+        String host = VideoSocketHandler.roomHosts.get(roomId);
+        // One copy of each live list, so a chat or join landing mid-write can't make the names
+        // table miss a sender or the counts disagree with the entries that follow them
+        List<JoinRequest> pending = List.copyOf(VideoSocketHandler.pendingJoinRequests.getOrDefault(roomId, List.of()));
+        List<ChatMessage> messages = List.copyOf(VideoSocketHandler.roomMessages.getOrDefault(roomId, List.of()));
+
+        Map<String, Integer> index = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        if (host != null) intern(host, index, names);
+        for (JoinRequest request : pending) intern(request.getRequesterEmail(), index, names);
+        for (ChatMessage message : messages) intern(message.getSender(), index, names);
+
+        writeString(out, roomId);
+        writeVarint(out, names.size());
+        for (String name : names) writeString(out, name);
+        writeVarint(out, host == null ? 0 : index.get(host) + 1);
+
+        writeVarint(out, pending.size());
+        for (JoinRequest request : pending) {
+            writeVarint(out, index.get(request.getRequesterEmail()));
+            out.writeLong(request.getTimestamp().getTime());
+        }
+        writeVarint(out, messages.size());
+        for (ChatMessage message : messages) {
+            writeVarint(out, index.get(message.getSender()));
+            out.writeLong(message.getTimestamp().getTime());
+            writeString(out, message.getMessage());
+        }
+    }
+
+    public int restore(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("not a room snapshot");
+        }
+        in.getLong(); // createdAt
+        int roomCount = in.getInt();
+        long now = System.currentTimeMillis();
+
+        for (int r = 0; r < roomCount; r++) {
+            String roomId = readString(in);
+            String[] names = new String[readVarint(in)];
+            for (int i = 0; i < names.length; i++) names[i] = readString(in);
+            int host = readVarint(in);
+
+            int pendingCount = readVarint(in);
+            List<JoinRequest> pending = new ArrayList<>(pendingCount);
+            for (int i = 0; i < pendingCount; i++) {
+                pending.add(new JoinRequest(names[readVarint(in)], new Date(in.getLong())));
+            }
+            int messageCount = readVarint(in);
+            List<ChatMessage> messages = new ArrayList<>(messageCount);
+            for (int i = 0; i < messageCount; i++) {
+                String sender = names[readVarint(in)];
+                Date timestamp = new Date(in.getLong());
+                messages.add(new ChatMessage(readString(in), sender, timestamp));
+            }
+
+            // Live state wins if a client already reconnected before the restore finished
+            if (host > 0) VideoSocketHandler.roomHosts.putIfAbsent(roomId, names[host - 1]);
+            if (!pending.isEmpty()) {
+                VideoSocketHandler.pendingJoinRequests.putIfAbsent(roomId, new CopyOnWriteArrayList<>(pending));
+            }
+            if (!messages.isEmpty()) {
+                VideoSocketHandler.roomMessages.putIfAbsent(roomId, new CopyOnWriteArrayList<>(messages));
+            }
+            restoredRooms.put(roomId, now);
+        }
+        return roomCount;
+    }
+
+    private void dropAbandonedRooms() {
+        long cutoff = System.currentTimeMillis() - restoreGraceMillis;
+        restoredRooms.entrySet().removeIf(entry -> {
+            String roomId = entry.getKey();
+            if (VideoSocketHandler.roomParticipants.containsKey(roomId)) {
+                return true; // back in normal use; the handler owns its lifecycle now
+            }
+            if (entry.getValue() < cutoff) {
+                VideoSocketHandler.roomHosts.remove(roomId);
+                VideoSocketHandler.roomMessages.remove(roomId);
+                VideoSocketHandler.pendingJoinRequests.remove(roomId);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static void intern(String name, Map<String, Integer> index, List<String> names) {
+        if (index.putIfAbsent(name, names.size()) == null) names.add(name);
+    }
+
+    // Strings are varint(byteLength + 1) then UTF-8 bytes; 0 encodes null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in) - 1;
+        if (length < 0) return null;
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,64 @@
+package com.vidmeet.websocket;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Node-wide index from user to their open signaling sessions (one per tab/room), kept by the
+// handler on connect and disconnect. Reaching a user is one map lookup instead of a scan of
+// some room's session list, which also makes cross-room delivery possible: direct messages
+// and meeting invites. Sessions are the handler's send-safe decorators.
+public class SessionDirectory {
+
+    private final Map<String, Set<WebSocketSession>> sessions = new ConcurrentHashMap<>();
+
+    void add(String email, WebSocketSession session) {
+        sessions.computeIfAbsent(email, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    void remove(String email, WebSocketSession session) {
+        sessions.computeIfPresent(email, (k, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public Set<WebSocketSession> sessionsOf(String email) {
+        Set<WebSocketSession> set = sessions.get(email);
+        return set == null ? Set.of() : set;
+    }
+
+    // The user's sessions in one room (usually zero or one)
+    public List<WebSocketSession> sessionsOf(String email, String roomId) {
+        return sessionsOf(email).stream()
+                .filter(s -> roomId.equals(s.getAttributes().get(JwtHandshakeInterceptor.ATTR_ROOM_ID)))
+                .toList();
+    }
+
+    public boolean isConnected(String email) {
+        return sessions.containsKey(email);
+    }
+
+    public int getUserCount() {
+        return sessions.size();
+    }
+
+    // Sends to every open session of the user; returns how many got it
+    public int send(String email, TextMessage message) {
+        int delivered = 0;
+        for (WebSocketSession session : sessionsOf(email)) {
+            if (!session.isOpen()) continue;
+            try {
+                session.sendMessage(message);
+                delivered++;
+            } catch (Exception e) {
+                System.err.println("Error sending direct message to " + email + ": " + e.getMessage());
+            }
+        }
+        return delivered;
+    }
+}
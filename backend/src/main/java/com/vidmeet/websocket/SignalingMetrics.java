@@ -0,0 +1,114 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Meters for VideoSocketHandler. Everything is registered up front so the hot path is a
+// map lookup plus an increment; message types outside KNOWN_TYPES share the "other" tag
+// so clients can't blow up tag cardinality.
+public class SignalingMetrics {
+
+    static final Set<String> KNOWN_TYPES = Set.of(
+            "chat", "join_request", "approval", "kick_participant", "accept_join_request",
+            "reject_join_request", "heartbeat", "offer", "answer", "ice-candidate", "audio_level", "stats",
+            "breakout_assign", "breakout_close", "host_broadcast", "direct");
+    private static final String OTHER = "other";
+    private static final String INVALID = "invalid";
+
+    private final Map<String, Counter> messageCounters = new HashMap<>();
+    private final Map<String, Timer> handleTimers = new HashMap<>();
+    private final DistributionSummary fanOutSize;
+    private final Timer broadcastTimer;
+    private final Counter sendFailures;
+    private final Map<InboundRateLimiter.MessageClass, Counter> rateLimited = new EnumMap<>(InboundRateLimiter.MessageClass.class);
+    private final Counter rateLimitDisconnects;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    public SignalingMetrics(MeterRegistry registry, Map<String, ?> rooms) {
+        for (String type : KNOWN_TYPES) {
+            register(registry, type);
+        }
+        register(registry, OTHER);
+        register(registry, INVALID);
+
+        this.fanOutSize = DistributionSummary.builder("vidmeet.ws.fanout.size")
+                .description("Recipients per broadcast")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.broadcastTimer = Timer.builder("vidmeet.ws.broadcast")
+                .description("Time to serialize and send one broadcast to every recipient")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.sendFailures = Counter.builder("vidmeet.ws.send.failures")
+                .description("Outbound frames that failed to send")
+                .register(registry);
+        for (InboundRateLimiter.MessageClass messageClass : InboundRateLimiter.MessageClass.values()) {
+            rateLimited.put(messageClass, Counter.builder("vidmeet.ws.ratelimit.dropped")
+                    .description("Inbound frames dropped by per-session rate limits")
+                    .tag("class", messageClass.name().toLowerCase())
+                    .register(registry));
+        }
+        this.rateLimitDisconnects = Counter.builder("vidmeet.ws.ratelimit.disconnects")
+                .description("Sessions closed for repeatedly exceeding rate limits")
+                .register(registry);
+        Gauge.builder("vidmeet.ws.rooms.active", rooms, Map::size)
+                .description("Rooms with at least one connected session")
+                .register(registry);
+        Gauge.builder("vidmeet.ws.sessions.active", activeSessions, AtomicInteger::get)
+                .description("Open signaling sessions")
+                .register(registry);
+    }
+
+    private void register(MeterRegistry registry, String type) {
+        messageCounters.put(type, Counter.builder("vidmeet.ws.messages")
+                .description("Inbound signaling messages")
+                .tag("type", type)
+                .register(registry));
+        handleTimers.put(type, Timer.builder("vidmeet.ws.handle")
+                .description("handleTextMessage time from decode to dispatch completion")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    public void recordMessage(String type, long elapsedNanos) {
+        String key = type == null ? INVALID : (messageCounters.containsKey(type) ? type : OTHER);
+        messageCounters.get(key).increment();
+        handleTimers.get(key).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBroadcast(int recipients, long elapsedNanos) {
+        fanOutSize.record(recipients);
+        broadcastTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSendFailure() {
+        sendFailures.increment();
+    }
+
+    public void recordRateLimited(InboundRateLimiter.MessageClass messageClass) {
+        rateLimited.get(messageClass).increment();
+    }
+
+    public void recordRateLimitDisconnect() {
+        rateLimitDisconnects.increment();
+    }
+
+    public void sessionOpened() {
+        activeSessions.incrementAndGet();
+    }
+
+    public void sessionClosed() {
+        activeSessions.decrementAndGet();
+    }
+}
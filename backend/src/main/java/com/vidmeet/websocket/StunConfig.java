@@ -0,0 +1,40 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+
+// Optional STUN responder on the signaling node; clients list it first in iceServers
+@Configuration
+public class StunConfig {
+
+    @Value("${stun.enabled:false}")
+    private boolean stunEnabled;
+
+    @Value("${stun.bind-address:0.0.0.0}")
+    private String stunBindAddress;
+
+    @Value("${stun.port:3478}")
+    private int stunPort;
+
+    @Value("${stun.response-buffers:256}")
+    private int stunResponseBuffers;
+
+    @Bean(destroyMethod = "close")
+    public StunServer stunServer(MeterRegistry meterRegistry) {
+        StunServer server = new StunServer(new InetSocketAddress(stunBindAddress, stunPort), stunResponseBuffers);
+        if (stunEnabled) {
+            try {
+                server.start(meterRegistry);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot bind STUN responder to " + stunBindAddress + ":" + stunPort, e);
+            }
+        }
+        return server;
+    }
+}
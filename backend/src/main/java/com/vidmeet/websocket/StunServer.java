@@ -0,0 +1,212 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.zip.CRC32;
+
+// STUN binding responder (RFC 5389), so ICE can learn server-reflexive candidates from the
+// signaling node instead of a public STUN server. One thread runs a selector loop over a
+// non-blocking DatagramChannel. Requests are read into one direct buffer and answered from a
+// fixed pool of direct response buffers; when the socket's send buffer is full, responses
+// wait in the pool and go out on OP_WRITE, and once the pool is exhausted requests are
+// dropped (clients retransmit). Only Binding requests with the magic cookie are answered,
+// with XOR-MAPPED-ADDRESS and FINGERPRINT; everything else is silently discarded.
+public class StunServer implements Closeable {
+
+    static final int MAGIC_COOKIE = 0x2112A442;
+    static final int HEADER_LENGTH = 20;
+    static final short BINDING_REQUEST = 0x0001;
+    static final short BINDING_SUCCESS = 0x0101;
+    static final short ATTR_XOR_MAPPED_ADDRESS = 0x0020;
+    static final short ATTR_FINGERPRINT = (short) 0x8028;
+    private static final int FINGERPRINT_XOR = 0x5354554e;
+    private static final int MAX_DATAGRAM = 1500; // larger requests are truncated, then rejected
+    private static final int MAX_RESPONSE = 64;   // header + IPv6 XOR-MAPPED-ADDRESS + FINGERPRINT
+
+    private final InetSocketAddress bindAddress;
+    private final int poolSize;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private DatagramChannel channel;
+    private Selector selector;
+    private SelectionKey key;
+    private Thread thread;
+    private volatile boolean running;
+
+    // Only written by the selector thread
+    private volatile long responses;
+    private volatile long dropped;
+    private volatile long invalid;
+
+    public StunServer(InetSocketAddress bindAddress, int poolSize) {
+        this.bindAddress = bindAddress;
+        this.poolSize = poolSize;
+    }
+
+    private record Pending(ByteBuffer buffer, SocketAddress target) {
+    }
+
+    public synchronized void start(MeterRegistry registry) throws IOException {
+        if (running) return;
+        for (int i = 0; i < poolSize; i++) {
+            pool.push(ByteBuffer.allocateDirect(MAX_RESPONSE));
+        }
+        channel = bindAddress.getAddress() instanceof Inet6Address
+                ? DatagramChannel.open(StandardProtocolFamily.INET6)
+                : DatagramChannel.open(StandardProtocolFamily.INET);
+        channel.configureBlocking(false);
+        channel.bind(bindAddress);
+        selector = Selector.open();
+        key = channel.register(selector, SelectionKey.OP_READ);
+
+        if (registry != null) {
+            FunctionCounter.builder("vidmeet.stun.responses", this, s -> s.responses)
+                    .description("STUN binding responses sent")
+                    .register(registry);
+            FunctionCounter.builder("vidmeet.stun.dropped", this, s -> s.dropped)
+                    .description("STUN requests dropped because every response buffer was in use")
+                    .register(registry);
+            FunctionCounter.builder("vidmeet.stun.invalid", this, s -> s.invalid)
+                    .description("Datagrams that were not STUN binding requests")
+                    .register(registry);
+        }
+
+        running = true;
+        thread = new Thread(this::run, "stun-responder");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("📡 STUN responder listening on " + getLocalAddress());
+    }
+
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    public long getResponses() {
+        return responses;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+                if (!running) break;
+                flush();
+                receive();
+                key.interestOps(pending.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) System.err.println("STUN responder stopped: " + e.getMessage());
+        }
+    }
+
+    private void receive() throws IOException {
+        SocketAddress source;
+        while ((source = channel.receive(readBuffer.clear())) != null) {
+            readBuffer.flip();
+            ByteBuffer response = pool.poll();
+            if (response == null) {
+                dropped++;
+                continue;
+            }
+            if (!writeBindingResponse(readBuffer, (InetSocketAddress) source, response.clear())) {
+                invalid++;
+                pool.push(response);
+                continue;
+            }
+            response.flip();
+            // Keep order simple: once anything is queued, everything queues behind it
+            if (pending.isEmpty() && channel.send(response, source) > 0) {
+                responses++;
+                pool.push(response);
+            } else {
+                pending.add(new Pending(response, source));
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        while (!pending.isEmpty()) {
+            Pending next = pending.peek();
+            if (channel.send(next.buffer(), next.target()) == 0) return;
+            pending.poll();
+            responses++;
+            pool.push(next.buffer());
+        }
+    }
+
+    // Writes the success response for a valid Binding request into out; false if the
+    // datagram isn't one. Only called from the selector thread (crc is shared).
+    boolean writeBindingResponse(ByteBuffer request, InetSocketAddress source, ByteBuffer out) {
+        int start = request.position();
+        if (request.remaining() < HEADER_LENGTH) return false;
+        int length = request.getShort(start + 2) & 0xffff;
+        if (request.getShort(start) != BINDING_REQUEST || request.getInt(start + 4) != MAGIC_COOKIE
+                || length % 4 != 0 || HEADER_LENGTH + length != request.remaining()) {
+            return false;
+        }
+
+        byte[] address = source.getAddress().getAddress();
+        out.putShort(BINDING_SUCCESS);
+        out.putShort((short) (4 + 4 + address.length + 8));
+        // Magic cookie and transaction id are echoed as they came
+        for (int i = 4; i < HEADER_LENGTH; i++) {
+            out.put(request.get(start + i));
+        }
+
+        out.putShort(ATTR_XOR_MAPPED_ADDRESS);
+        out.putShort((short) (4 + address.length));
+        out.put((byte) 0);
+        out.put((byte) (address.length == 4 ? 0x01 : 0x02));
+        out.putShort((short) (source.getPort() ^ (MAGIC_COOKIE >>> 16)));
+        // X-Address is XORed with the cookie, then (IPv6) the transaction id: bytes 4.. of the header
+        for (int i = 0; i < address.length; i++) {
+            out.put((byte) (address[i] ^ request.get(start + 4 + i)));
+        }
+
+        crc.reset();
+        crc.update(out.duplicate().flip());
+        out.putShort(ATTR_FINGERPRINT);
+        out.putShort((short) 4);
+        out.putInt((int) crc.getValue() ^ FINGERPRINT_XOR);
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) return;
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+        channel.close();
+    }
+}
@@ -1,34 +1,98 @@
 package com.vidmeet.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class VideoSocketHandler extends TextWebSocketHandler {
 
-    public static final Map<String, Set<String>> roomParticipants = new ConcurrentHashMap<>();
+    private static final String ATTR_OUTBOUND = "vidmeet.outbound";
+    private static final String ATTR_REJECTED = "vidmeet.rejected";
+
+    public static final Map<String, RoomRoster> roomParticipants = new ConcurrentHashMap<>();
     public static final Map<String, List<ChatMessage>> roomMessages = new ConcurrentHashMap<>();
     public static final Map<String, String> roomHosts = new ConcurrentHashMap<>(); // roomId -> hostEmail
     public static final Map<String, List<JoinRequest>> pendingJoinRequests = new ConcurrentHashMap<>();
     private final Map<String, List<WebSocketSession>> rooms = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PresenceService presenceService;
+    private final SignalingMetrics metrics;
+    private final RoomEventJournal journal;
+    private final InboundRateLimiter rateLimiter;
+    private final OverloadGuard overloadGuard;
+    private final ChatBatcher chatBatcher;
+    private final ActiveSpeakerManager speakers;
+    private final CallQualityStore qualityStore;
+    private final BandwidthController bandwidth;
+    private final BreakoutRooms breakouts = new BreakoutRooms();
+    private final SessionDirectory directory;
+
+    public VideoSocketHandler(PresenceService presenceService, MeterRegistry meterRegistry,
+                              RoomEventJournal journal, InboundRateLimiter rateLimiter,
+                              OverloadGuard overloadGuard, ChatBatcher chatBatcher,
+                              ActiveSpeakerManager speakers, CallQualityStore qualityStore,
+                              BandwidthController bandwidth, SessionDirectory directory) {
+        this.presenceService = presenceService;
+        this.metrics = new SignalingMetrics(meterRegistry, rooms);
+        this.journal = journal;
+        this.rateLimiter = rateLimiter;
+        this.overloadGuard = overloadGuard;
+        overloadGuard.watch(rooms, meterRegistry);
+        this.chatBatcher = chatBatcher;
+        chatBatcher.start(this::flushChatBatch);
+        this.speakers = speakers;
+        speakers.start((roomId, partition) -> {
+            List<WebSocketSession> members = audience(roomId, partition);
+            return members == null ? 0 : members.size();
+        }, this::broadcastSpeakers, this::broadcastMesh);
+        this.qualityStore = qualityStore;
+        qualityStore.registerMetrics(meterRegistry);
+        this.bandwidth = bandwidth;
+        this.directory = directory;
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String roomId = getRoomId(session);
         String email = getEmail(session);
 
-        rooms.computeIfAbsent(roomId, k -> new ArrayList<>()).add(session);
-        roomParticipants.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(email);
+        CloseStatus rejection = overloadGuard.admitSession(roomId);
+        if (rejection != null) {
+            session.getAttributes().put(ATTR_REJECTED, Boolean.TRUE);
+            System.out.println("🚫 " + email + " refused from room " + roomId + ": " + rejection.getReason());
+            try {
+                session.close(rejection);
+            } catch (Exception e) {
+                System.err.println("Error refusing session: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Every send goes through the decorator; the raw session is only used for identity
+        WebSocketSession outbound = overloadGuard.decorate(session);
+        session.getAttributes().put(ATTR_OUTBOUND, outbound);
+        rooms.computeIfAbsent(roomId, k -> new CopyOnWriteArrayList<>()).add(outbound);
+        breakouts.join(roomId, outbound);
+        directory.add(email, outbound);
+        presenceService.connected(email);
+        metrics.sessionOpened();
+        journal.join(roomId, email);
         
-        // Send current participant list to all clients
-        broadcastParticipantList(roomId);
+        // Full roster to the newcomer; everyone else only needs the new entry
+        addToRoster(roomId, email, outbound);
         
         // Send chat history to new participant
-        sendChatHistory(session, roomId);
+        sendChatHistory(outbound, roomId);
+
+        // In a large room the newcomer needs to know whom to negotiate with
+        sendSpeakers(outbound, roomId);
         
         System.out.println("✅ " + email + " joined room " + roomId);
     }
@@ -38,14 +102,22 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         String roomId = getRoomId(session);
         String email = getEmail(session);
         String payload = message.getPayload();
+        long start = System.nanoTime();
+        String type = null;
+        boolean admitted = false;
         
         try {
             Map<String, Object> data = objectMapper.readValue(payload, Map.class);
-            String type = (String) data.get("type");
+            type = (String) data.get("type");
+            if (!admit(session, email, type)) {
+                return;
+            }
+            admitted = true;
+            journal.inbound(roomId, email, type, payload);
             
             switch (type) {
                 case "chat":
-                    handleChatMessage(roomId, email, data);
+                    handleChatMessage(session, roomId, email, data);
                     break;
                 case "join_request":
                     handleJoinRequest(roomId, email, data);
@@ -62,31 +134,99 @@ public class VideoSocketHandler extends TextWebSocketHandler {
                 case "reject_join_request":
                     handleRejectJoinRequest(roomId, email, data);
                     break;
+                case "heartbeat":
+                    presenceService.heartbeat(email);
+                    break;
+                case "audio_level":
+                    if (data.get("level") instanceof Number level) {
+                        speakers.reportLevel(roomId, breakouts.partitionOf(session), email, level.doubleValue());
+                    }
+                    break;
+                case "stats":
+                    // Client getStats summary; timestamped by the server, client clocks drift
+                    qualityStore.record(roomId, email, System.currentTimeMillis(),
+                            metric(data, "rtt"), metric(data, "jitter"), metric(data, "loss"), metric(data, "bitrate"));
+                    adaptBandwidth(session, roomId, email, data);
+                    break;
+                case "breakout_assign":
+                    handleBreakoutAssign(session, roomId, email, data);
+                    break;
+                case "breakout_close":
+                    handleBreakoutClose(session, roomId, email);
+                    break;
+                case "host_broadcast":
+                    handleHostBroadcast(roomId, email, data);
+                    break;
+                case "direct":
+                    handleDirectMessage(roomId, email, data);
+                    break;
                 case "offer":
                 case "answer":
                 case "ice-candidate":
-                    // WebRTC signaling - broadcast to all except sender
-                    broadcastToOthers(session, roomId, payload);
+                    relaySignaling(session, roomId, email, data, payload);
                     break;
                 default:
-                    // Broadcast to all in room
-                    broadcastToAll(roomId, payload);
+                    // Relay to the rest of the sender's partition (the whole room if unsplit)
+                    broadcastToOthers(outbound(session), roomId, payload);
             }
         } catch (Exception e) {
+            // Unparseable frames are charged to the control bucket so garbage floods are limited too
+            if (!admitted && !admit(session, email, null)) {
+                return;
+            }
             System.err.println("Error handling message: " + e.getMessage());
+        } finally {
+            metrics.recordMessage(type, System.nanoTime() - start);
         }
     }
 
-    private void handleChatMessage(String roomId, String sender, Map<String, Object> data) {
+    private static float metric(Map<String, Object> data, String key) {
+        return data.get(key) instanceof Number n && n.floatValue() >= 0 ? n.floatValue() : 0f;
+    }
+
+    // Rate limit check; dropped frames are never journaled or fanned out
+    private boolean admit(WebSocketSession session, String email, String type) {
+        InboundRateLimiter.MessageClass messageClass = InboundRateLimiter.classify(type);
+        switch (rateLimiter.check(session, messageClass)) {
+            case ALLOW:
+                return true;
+            case DROP:
+                metrics.recordRateLimited(messageClass);
+                return false;
+            default:
+                metrics.recordRateLimited(messageClass);
+                metrics.recordRateLimitDisconnect();
+                System.err.println("⛔ Disconnecting " + email + ": rate limit exceeded for " + messageClass);
+                try {
+                    session.close(CloseStatus.POLICY_VIOLATION.withReason("Rate limit exceeded"));
+                } catch (Exception e) {
+                    System.err.println("Error closing rate-limited session: " + e.getMessage());
+                }
+                return false;
+        }
+    }
+
+    private void handleChatMessage(WebSocketSession session, String roomId, String sender, Map<String, Object> data) {
         // Create chat message
+        RoomRoster roster = roomParticipants.get(roomId);
         ChatMessage chatMessage = new ChatMessage(
             (String) data.get("message"),
-            sender,
+            roster == null ? sender : roster.canonical(sender),
             new Date()
         );
         
-        // Store message
-        roomMessages.computeIfAbsent(roomId, k -> new ArrayList<>()).add(chatMessage);
+        // Store message; breakouts keep their own history
+        String partition = breakouts.partitionOf(session);
+        List<ChatMessage> history = BreakoutRooms.MAIN.equals(partition) ? null : breakouts.history(roomId, partition);
+        if (history == null) history = roomMessages.computeIfAbsent(roomId, k -> new CopyOnWriteArrayList<>());
+        history.add(chatMessage);
+        
+        // Large rooms get chat once per tick as a chat-batch frame (main partition only)
+        List<WebSocketSession> clients = audience(roomId, session);
+        if (clients != null && BreakoutRooms.MAIN.equals(partition) && chatBatcher.shouldBatch(roomId, clients.size())) {
+            chatBatcher.add(roomId, chatMessage);
+            return;
+        }
         
         // Broadcast to all in room
         Map<String, Object> broadcastData = new HashMap<>();
@@ -95,9 +235,127 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         broadcastData.put("sender", chatMessage.getSender());
         broadcastData.put("timestamp", chatMessage.getTimestamp());
         
+        broadcastTo(roomId, clients, broadcastData);
+    }
+
+    // Host moves participants between partitions: {"assignments": {"<email>": "<partition>"}},
+    // "main" being the meeting itself. Nobody reconnects; each affected partition gets its new
+    // member list (clients reshape their mesh from it) and movers get that partition's chat.
+    private void handleBreakoutAssign(WebSocketSession session, String roomId, String host, Map<String, Object> data) {
+        if (!host.equals(roomHosts.get(roomId)) || !(data.get("assignments") instanceof Map<?, ?> assignments)) {
+            return;
+        }
+        List<WebSocketSession> clients = rooms.get(roomId);
+        if (clients == null) return;
+
+        Set<String> touched = new LinkedHashSet<>();
+        List<WebSocketSession> moved = new ArrayList<>();
+        for (WebSocketSession client : clients) {
+            if (!(assignments.get(getEmail(client)) instanceof String partition) || !isValidPartition(partition)) {
+                continue;
+            }
+            String from = breakouts.move(roomId, clients, client, partition);
+            if (!from.equals(partition)) {
+                speakers.leave(roomId, from, getEmail(client));
+                touched.add(from);
+                touched.add(partition);
+                moved.add(client);
+            }
+        }
+        for (String partition : touched) {
+            sendPartitionMembers(roomId, partition);
+            sendPartitionSpeakers(roomId, partition);
+        }
+        for (WebSocketSession client : moved) {
+            sendPartitionHistory(client, roomId, breakouts.partitionOf(client));
+        }
+        sendBreakoutOverview(outbound(session), roomId);
+    }
+
+    // Host ends all breakouts: everyone is back in one mesh
+    private void handleBreakoutClose(WebSocketSession session, String roomId, String host) {
+        if (!host.equals(roomHosts.get(roomId))) return;
+        List<WebSocketSession> returning = new ArrayList<>();
+        breakouts.partitions(roomId).forEach((partition, members) -> {
+            if (BreakoutRooms.MAIN.equals(partition)) return;
+            returning.addAll(members);
+            speakers.discard(roomId, partition);
+        });
+        breakouts.close(roomId);
+        sendPartitionMembers(roomId, BreakoutRooms.MAIN);
+        sendPartitionSpeakers(roomId, BreakoutRooms.MAIN);
+        for (WebSocketSession client : returning) {
+            sendPartitionHistory(client, roomId, BreakoutRooms.MAIN);
+        }
+        sendBreakoutOverview(outbound(session), roomId);
+    }
+
+    // Host announcement that reaches every partition
+    private void handleHostBroadcast(String roomId, String host, Map<String, Object> data) {
+        if (!host.equals(roomHosts.get(roomId)) || !(data.get("message") instanceof String message)) return;
+        Map<String, Object> broadcastData = new HashMap<>();
+        broadcastData.put("type", "host_broadcast");
+        broadcastData.put("message", message);
+        broadcastData.put("sender", host);
+        broadcastData.put("timestamp", new Date());
         broadcastToAll(roomId, broadcastData);
     }
 
+    // Private message to one user on this node, whichever room they're in:
+    // {"to": "<email>", "message": "..."}. The sender hears nothing either way: whether it was
+    // delivered would tell them whether the recipient is online, as on POST /api/direct.
+    private void handleDirectMessage(String roomId, String sender, Map<String, Object> data) {
+        if (!(data.get("to") instanceof String to) || !(data.get("message") instanceof String text)) return;
+        Map<String, Object> directData = new HashMap<>();
+        directData.put("type", "direct");
+        directData.put("from", sender);
+        directData.put("roomId", roomId);
+        directData.put("message", text);
+        directData.put("timestamp", new Date());
+        try {
+            String message = objectMapper.writeValueAsString(directData);
+            if (directory.send(to, new TextMessage(message)) > 0) {
+                journal.outboundTo(roomId, to, message);
+            }
+        } catch (Exception e) {
+            System.err.println("Error sending direct message: " + e.getMessage());
+        }
+    }
+
+    private static boolean isValidPartition(String partition) {
+        return !partition.isBlank() && partition.length() <= 64;
+    }
+
+    private void sendPartitionMembers(String roomId, String partition) {
+        List<WebSocketSession> members = audience(roomId, partition);
+        if (members == null) return;
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "breakout");
+        data.put("partition", partition);
+        data.put("members", members.stream().map(this::getEmail).toList());
+        broadcastTo(roomId, members, data);
+    }
+
+    // Always sent, even when empty, so the client drops the chat of the partition it left
+    private void sendPartitionHistory(WebSocketSession session, String roomId, String partition) {
+        List<ChatMessage> history = BreakoutRooms.MAIN.equals(partition) ? null : breakouts.history(roomId, partition);
+        if (history == null) history = roomMessages.getOrDefault(roomId, List.of());
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "chat-history");
+        data.put("messages", history);
+        sendTo(session, roomId, data);
+    }
+
+    private void sendBreakoutOverview(WebSocketSession session, String roomId) {
+        Map<String, List<String>> overview = new LinkedHashMap<>();
+        breakouts.partitions(roomId).forEach((partition, members) ->
+                overview.put(partition, members.stream().map(this::getEmail).toList()));
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "breakouts");
+        data.put("partitions", overview);
+        sendTo(session, roomId, data);
+    }
+
     private void handleJoinRequest(String roomId, String requester, Map<String, Object> data) {
         String hostEmail = roomHosts.get(roomId);
         
@@ -108,27 +366,24 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         }
         
         // Store join request for host approval
-        JoinRequest joinRequest = new JoinRequest(requester, new Date());
-        pendingJoinRequests.computeIfAbsent(roomId, k -> new ArrayList<>()).add(joinRequest);
+        RoomRoster roster = roomParticipants.get(roomId);
+        JoinRequest joinRequest = new JoinRequest(roster == null ? requester : roster.canonical(requester), new Date());
+        pendingJoinRequests.computeIfAbsent(roomId, k -> new CopyOnWriteArrayList<>()).add(joinRequest);
         
         // Notify host about join request
-        List<WebSocketSession> clients = rooms.get(roomId);
-        if (clients != null) {
-            for (WebSocketSession client : clients) {
-                try {
-                    String clientEmail = getEmail(client);
-                    if (clientEmail.equals(hostEmail)) {
-                        Map<String, Object> notificationData = new HashMap<>();
-                        notificationData.put("type", "join_request_notification");
-                        notificationData.put("requester", requester);
-                        notificationData.put("timestamp", joinRequest.getTimestamp());
-                        
-                        client.sendMessage(new TextMessage(objectMapper.writeValueAsString(notificationData)));
-                        break;
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error notifying host: " + e.getMessage());
-                }
+        for (WebSocketSession client : directory.sessionsOf(hostEmail, roomId)) {
+            try {
+                Map<String, Object> notificationData = new HashMap<>();
+                notificationData.put("type", "join_request_notification");
+                notificationData.put("requester", requester);
+                notificationData.put("timestamp", joinRequest.getTimestamp());
+                
+                String notification = objectMapper.writeValueAsString(notificationData);
+                client.sendMessage(new TextMessage(notification));
+                journal.outboundTo(roomId, hostEmail, notification);
+                break;
+            } catch (Exception e) {
+                System.err.println("Error notifying host: " + e.getMessage());
             }
         }
     }
@@ -148,21 +403,20 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         }
         
         // Remove participant from room
-        Set<String> participants = roomParticipants.get(roomId);
-        if (participants != null) {
-            participants.remove(participantToKick);
+        RoomRoster roster = roomParticipants.get(roomId);
+        if (roster != null && participantToKick != null) {
+            synchronized (roster) {
+                broadcastParticipantLeft(roomId, roster.remove(participantToKick));
+            }
         }
         
         // Close participant's WebSocket connection
-        List<WebSocketSession> clients = rooms.get(roomId);
-        if (clients != null) {
-            for (WebSocketSession client : clients) {
+        if (participantToKick != null) {
+            journal.kick(roomId, kicker, participantToKick);
+            for (WebSocketSession client : directory.sessionsOf(participantToKick, roomId)) {
                 try {
-                    String clientEmail = getEmail(client);
-                    if (clientEmail.equals(participantToKick)) {
-                        client.close();
-                        break;
-                    }
+                    client.close();
+                    break;
                 } catch (Exception e) {
                     System.err.println("Error kicking participant: " + e.getMessage());
                 }
@@ -175,9 +429,6 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         kickNotification.put("reason", data.get("reason"));
         kickNotification.put("kickedBy", kicker);
         
-        // Broadcast updated participant list
-        broadcastParticipantList(roomId);
-        
         // Send kick notification to all remaining participants
         Map<String, Object> broadcastData = new HashMap<>();
         broadcastData.put("type", "participant_kicked");
@@ -230,16 +481,14 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         rejectionData.put("rejectedBy", host);
         
         // Find requester's session and send rejection
-        List<WebSocketSession> clients = rooms.get(roomId);
-        if (clients != null) {
-            for (WebSocketSession client : clients) {
+        if (requester != null) {
+            for (WebSocketSession client : directory.sessionsOf(requester, roomId)) {
                 try {
-                    String clientEmail = getEmail(client);
-                    if (clientEmail.equals(requester)) {
-                        client.sendMessage(new TextMessage(objectMapper.writeValueAsString(rejectionData)));
-                        client.close();
-                        break;
-                    }
+                    String rejection = objectMapper.writeValueAsString(rejectionData);
+                    client.sendMessage(new TextMessage(rejection));
+                    journal.outboundTo(roomId, requester, rejection);
+                    client.close();
+                    break;
                 } catch (Exception e) {
                     System.err.println("Error rejecting join request: " + e.getMessage());
                 }
@@ -249,8 +498,6 @@ public class VideoSocketHandler extends TextWebSocketHandler {
 
     private void approveParticipant(String roomId, String participantEmail) {
         // Add to participants
-        roomParticipants.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(participantEmail);
-        
         // Send approval message
         Map<String, Object> approvalData = new HashMap<>();
         approvalData.put("type", "approval");
@@ -260,20 +507,22 @@ public class VideoSocketHandler extends TextWebSocketHandler {
         
         broadcastToAll(roomId, approvalData);
         
-        // Update participant list
-        broadcastParticipantList(roomId);
+        // Add to participants and update their lists
+        addToRoster(roomId, participantEmail, null);
     }
 
     private void broadcastToAll(String roomId, Object data) {
+        broadcastTo(roomId, rooms.get(roomId), data);
+    }
+
+    private void broadcastTo(String roomId, List<WebSocketSession> clients, Object data) {
+        long start = System.nanoTime();
         try {
             String message = objectMapper.writeValueAsString(data);
-            List<WebSocketSession> clients = rooms.get(roomId);
             if (clients != null) {
-                for (WebSocketSession client : clients) {
-                    if (client.isOpen()) {
-                        client.sendMessage(new TextMessage(message));
-                    }
-                }
+                int recipients = sendToAll(clients, new TextMessage(message), null);
+                metrics.recordBroadcast(recipients, System.nanoTime() - start);
+                journal.outbound(roomId, recipients, message);
             }
         } catch (Exception e) {
             System.err.println("Error broadcasting message: " + e.getMessage());
@@ -281,30 +530,236 @@ public class VideoSocketHandler extends TextWebSocketHandler {
     }
 
     private void broadcastToOthers(WebSocketSession sender, String roomId, String message) {
-        List<WebSocketSession> clients = rooms.get(roomId);
+        long start = System.nanoTime();
+        List<WebSocketSession> clients = audience(roomId, sender);
         if (clients != null) {
-            for (WebSocketSession client : clients) {
-                if (client.isOpen() && !client.equals(sender)) {
-                    try {
-                        client.sendMessage(new TextMessage(message));
-                    } catch (Exception e) {
-                        System.err.println("Error sending to client: " + e.getMessage());
-                    }
-                }
+            int recipients = sendToAll(clients, new TextMessage(message), sender);
+            metrics.recordBroadcast(recipients, System.nanoTime() - start);
+            journal.outboundMeta(roomId, "", recipients, "relay", message.length());
+        }
+    }
+
+    // Sessions that peer-level traffic from this session reaches: its partition once the
+    // room is split into breakouts, the whole room otherwise
+    private List<WebSocketSession> audience(String roomId, WebSocketSession session) {
+        return audience(roomId, breakouts.partitionOf(session));
+    }
+
+    private List<WebSocketSession> audience(String roomId, String partition) {
+        List<WebSocketSession> members = breakouts.members(roomId, partition);
+        return members != null ? members : rooms.get(roomId);
+    }
+
+    // Small rooms keep the full mesh: signaling goes to everyone but the sender. Large rooms
+    // only relay between a participant and the active speakers, to the addressed peer if any.
+    // Either way only within the sender's partition.
+    private void relaySignaling(WebSocketSession session, String roomId, String email,
+                                Map<String, Object> data, String payload) {
+        String partition = breakouts.partitionOf(session);
+        List<WebSocketSession> clients = audience(roomId, partition);
+        if (clients == null) return;
+        if (!speakers.isLargeRoom(clients.size())) {
+            broadcastToOthers(outbound(session), roomId, payload);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Object to = data.get("to");
+        String target = to instanceof String s && !"*".equals(s) ? s : null;
+        TextMessage message = new TextMessage(payload);
+        int recipients = 0;
+        for (WebSocketSession client : clients) {
+            String peer = getEmail(client);
+            if (!client.isOpen() || peer.equals(email) || (target != null && !target.equals(peer))
+                    || !speakers.mayConnect(roomId, partition, email, peer)) {
+                continue;
+            }
+            recipients++;
+            try {
+                client.sendMessage(message);
+            } catch (Exception e) {
+                metrics.recordSendFailure();
+                System.err.println("Error sending to client: " + e.getMessage());
+            }
+        }
+        metrics.recordBroadcast(recipients, System.nanoTime() - start);
+        journal.outboundMeta(roomId, "", recipients, "relay", payload.length());
+    }
+
+    // Receiver-side stats drive per-sender hints: which layer to send this receiver and how
+    // many kbps at most. Only peers this receiver is actually connected to count as senders.
+    private void adaptBandwidth(WebSocketSession session, String roomId, String receiver, Map<String, Object> data) {
+        String partition = breakouts.partitionOf(session);
+        List<WebSocketSession> clients = audience(roomId, partition);
+        if (clients == null) return;
+        Map<String, WebSocketSession> senders = new HashMap<>();
+        boolean large = speakers.isLargeRoom(clients.size());
+        for (WebSocketSession client : clients) {
+            String peer = getEmail(client);
+            if (client.isOpen() && !peer.equals(receiver) && (!large || speakers.mayConnect(roomId, partition, receiver, peer))) {
+                senders.put(peer, client);
             }
         }
+        List<BandwidthController.Hint> hints = bandwidth.onReceiverStats(roomId, receiver, System.currentTimeMillis(),
+                metric(data, "loss"), metric(data, "rtt"), metric(data, "available"), senders.keySet());
+        for (BandwidthController.Hint hint : hints) {
+            WebSocketSession sender = senders.get(hint.sender());
+            if (hint.layer() != null) {
+                Map<String, Object> layerHint = new HashMap<>();
+                layerHint.put("type", "layer_hint");
+                layerHint.put("receiver", receiver);
+                layerHint.put("layer", hint.layer().name().toLowerCase());
+                sendTo(sender, roomId, layerHint);
+            }
+            if (hint.maxKbps() != null) {
+                Map<String, Object> maxBitrate = new HashMap<>();
+                maxBitrate.put("type", "max_bitrate");
+                maxBitrate.put("receiver", receiver);
+                maxBitrate.put("kbps", hint.maxKbps());
+                sendTo(sender, roomId, maxBitrate);
+            }
+        }
+    }
+
+    private void sendTo(WebSocketSession session, String roomId, Map<String, Object> data) {
+        try {
+            String message = objectMapper.writeValueAsString(data);
+            session.sendMessage(new TextMessage(message));
+            journal.outboundTo(roomId, getEmail(session), message);
+        } catch (Exception e) {
+            metrics.recordSendFailure();
+            System.err.println("Error sending to client: " + e.getMessage());
+        }
+    }
+
+    // Speaker hints only concern the partition they were computed for
+    private void broadcastSpeakers(String roomId, String partition, List<String> current,
+                                   List<String> added, List<String> removed) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "speakers");
+        data.put("speakers", current);
+        data.put("added", added);
+        data.put("removed", removed);
+        broadcastTo(roomId, audience(roomId, partition), data);
+    }
+
+    // Partition back under the mesh limit: its members may all connect to each other again
+    private void broadcastMesh(String roomId, String partition) {
+        List<WebSocketSession> audience = audience(roomId, partition);
+        if (audience == null) return;
+        List<String> members = new ArrayList<>(audience.size());
+        for (WebSocketSession member : audience) members.add(getEmail(member));
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "mesh");
+        data.put("members", members);
+        broadcastTo(roomId, audience, data);
+    }
+
+    // After a breakout frame rebuilt a large partition's mesh, trim it back to the speakers
+    private void sendPartitionSpeakers(String roomId, String partition) {
+        List<WebSocketSession> members = audience(roomId, partition);
+        if (members == null) return;
+        for (WebSocketSession member : members) {
+            if (member.isOpen()) sendSpeakers(member, roomId);
+        }
     }
 
-    private void broadcastParticipantList(String roomId) {
-        Set<String> participants = roomParticipants.get(roomId);
-        if (participants != null) {
+    private void sendSpeakers(WebSocketSession session, String roomId) {
+        String partition = breakouts.partitionOf(session);
+        List<WebSocketSession> clients = audience(roomId, partition);
+        List<String> current = speakers.getSpeakers(roomId, partition);
+        if (clients == null || !speakers.isLargeRoom(clients.size()) || current.isEmpty()) return;
+        try {
             Map<String, Object> data = new HashMap<>();
-            data.put("type", "participant-list");
-            data.put("participants", new ArrayList<>(participants));
-            broadcastToAll(roomId, data);
+            data.put("type", "speakers");
+            data.put("speakers", current);
+            data.put("added", current);
+            data.put("removed", List.of());
+            String hint = objectMapper.writeValueAsString(data);
+            session.sendMessage(new TextMessage(hint));
+            journal.outboundTo(roomId, getEmail(session), hint);
+        } catch (Exception e) {
+            System.err.println("Error sending speaker set: " + e.getMessage());
+        }
+    }
+
+    // One failed client must not stop the fan-out to the rest; returns recipients attempted
+    private int sendToAll(List<WebSocketSession> clients, TextMessage message, WebSocketSession exclude) {
+        int recipients = 0;
+        for (WebSocketSession client : clients) {
+            if (client.isOpen() && !client.equals(exclude)) {
+                recipients++;
+                try {
+                    client.sendMessage(message);
+                } catch (Exception e) {
+                    metrics.recordSendFailure();
+                    System.err.println("Error sending to client: " + e.getMessage());
+                }
+            }
+        }
+        return recipients;
+    }
+
+    private void flushChatBatch(String roomId, List<ChatMessage> batch) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "chat-batch");
+        data.put("messages", batch);
+        broadcastTo(roomId, audience(roomId, BreakoutRooms.MAIN), data);
+    }
+
+    // Roster frames are only sent under the roster's lock, together with the change they
+    // announce, so every client sees changes in roster order and a reused id always arrives
+    // after the participant-left that freed it. The newcomer, if any, gets the full list.
+    private void addToRoster(String roomId, String email, WebSocketSession newcomer) {
+        while (true) {
+            RoomRoster roster = roomParticipants.computeIfAbsent(roomId, k -> new RoomRoster());
+            synchronized (roster) {
+                if (roomParticipants.get(roomId) != roster) continue; // emptied and dropped meanwhile
+                boolean alreadyListed = roster.contains(email);
+                int id = roster.add(email);
+                if (newcomer != null) sendParticipantList(newcomer, roomId, roster);
+                if (!alreadyListed) broadcastParticipantJoined(roomId, id, email, newcomer);
+                return;
+            }
+        }
+    }
+
+    // Emails with their room ids, index-aligned; later updates reference the ids
+    private void sendParticipantList(WebSocketSession session, String roomId, RoomRoster roster) {
+        RoomRoster.Entries entries = roster.entries();
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "participant-list");
+        data.put("participants", entries.emails());
+        data.put("ids", entries.ids());
+        sendTo(session, roomId, data);
+    }
+
+    private void broadcastParticipantJoined(String roomId, int id, String email, WebSocketSession exclude) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "participant-joined");
+        data.put("id", id);
+        data.put("email", email);
+        List<WebSocketSession> clients = rooms.get(roomId);
+        if (clients == null) return;
+        long start = System.nanoTime();
+        try {
+            String message = objectMapper.writeValueAsString(data);
+            int recipients = sendToAll(clients, new TextMessage(message), exclude);
+            metrics.recordBroadcast(recipients, System.nanoTime() - start);
+            journal.outbound(roomId, recipients, message);
+        } catch (Exception e) {
+            System.err.println("Error broadcasting message: " + e.getMessage());
         }
     }
 
+    private void broadcastParticipantLeft(String roomId, int id) {
+        if (id < 0) return;
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "participant-left");
+        data.put("id", id);
+        broadcastToAll(roomId, data);
+    }
+
     private void sendChatHistory(WebSocketSession session, String roomId) {
         List<ChatMessage> messages = roomMessages.get(roomId);
         if (messages != null && !messages.isEmpty()) {
@@ -312,7 +767,10 @@ public class VideoSocketHandler extends TextWebSocketHandler {
                 Map<String, Object> data = new HashMap<>();
                 data.put("type", "chat-history");
                 data.put("messages", messages);
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(data)));
+                String history = objectMapper.writeValueAsString(data);
+                session.sendMessage(new TextMessage(history));
+                // History is already in the journal as the original chat frames
+                journal.outboundMeta(roomId, getEmail(session), 1, "chat-history", history.length());
             } catch (Exception e) {
                 System.err.println("Error sending chat history: " + e.getMessage());
             }
@@ -321,46 +779,60 @@ public class VideoSocketHandler extends TextWebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().containsKey(ATTR_REJECTED)) {
+            return; // never joined
+        }
         String roomId = getRoomId(session);
         String email = getEmail(session);
 
+        overloadGuard.release(roomId);
+        presenceService.disconnected(email);
+        directory.remove(email, outbound(session));
+        speakers.leave(roomId, breakouts.partitionOf(session), email);
+        bandwidth.leave(roomId, email);
+        metrics.sessionClosed();
+        journal.leave(roomId, email);
+
+        breakouts.leave(roomId, outbound(session));
         List<WebSocketSession> clients = rooms.get(roomId);
         if (clients != null) {
-            clients.remove(session);
+            clients.remove(outbound(session));
             if (clients.isEmpty()) rooms.remove(roomId);
         }
 
-        Set<String> participants = roomParticipants.get(roomId);
-        if (participants != null) {
-            participants.remove(email);
-            if (participants.isEmpty()) {
-                roomParticipants.remove(roomId);
-                roomMessages.remove(roomId); // Clear messages when room is empty
-                roomHosts.remove(roomId); // Clear host when room is empty
-                pendingJoinRequests.remove(roomId); // Clear pending requests
+        // Update participant list for remaining users
+        RoomRoster roster = roomParticipants.get(roomId);
+        if (roster != null) {
+            synchronized (roster) {
+                broadcastParticipantLeft(roomId, roster.remove(email));
+                if (roster.isEmpty()) {
+                    roomParticipants.remove(roomId, roster);
+                    roomMessages.remove(roomId); // Clear messages when room is empty
+                    chatBatcher.discard(roomId);
+                    speakers.discard(roomId);
+                    bandwidth.discard(roomId);
+                    qualityStore.roomClosed(roomId);
+                    breakouts.discard(roomId);
+                    roomHosts.remove(roomId); // Clear host when room is empty
+                    pendingJoinRequests.remove(roomId); // Clear pending requests
+                }
             }
         }
-
-        // Update participant list for remaining users
-        broadcastParticipantList(roomId);
         
         System.out.println("❌ " + email + " left room " + roomId);
     }
 
+    private WebSocketSession outbound(WebSocketSession session) {
+        return (WebSocketSession) session.getAttributes().get(ATTR_OUTBOUND);
+    }
+
+    // Both values are verified and stored once by JwtHandshakeInterceptor
     private String getRoomId(WebSocketSession session) {
-        return Objects.requireNonNull(session.getUri()).getPath().split("/")[2];
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_ROOM_ID);
     }
 
     private String getEmail(WebSocketSession session) {
-        String query = session.getUri().getQuery();
-        if (query != null) {
-            for (String param : query.split("&")) {
-                if (param.startsWith("email=")) {
-                    return param.substring("email=".length());
-                }
-            }
-        }
-        return "Unknown";
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_EMAIL);
     }
 
     // Inner class for chat messages
@@ -1,5 +1,11 @@
 package com.vidmeet.websocket;
 
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.TokenRevocationService;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -11,11 +17,130 @@ import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
 @Configuration
 @EnableWebSocketMessageBroker
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, WebSocketConfigurer {
 
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+    private final PresenceService presenceService;
+    private final MeterRegistry meterRegistry;
+    private final CallQualityStore qualityStore;
+
+    @Value("${journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${journal.dir:journal}")
+    private String journalDir;
+
+    @Value("${journal.segment-size-mb:64}")
+    private int journalSegmentSizeMb;
+
+    @Value("${journal.max-segments:32}")
+    private int journalMaxSegments;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${ratelimit.chat.capacity:20}")
+    private int chatCapacity;
+
+    @Value("${ratelimit.chat.per-second:5}")
+    private double chatPerSecond;
+
+    @Value("${ratelimit.signaling.capacity:200}")
+    private int signalingCapacity;
+
+    @Value("${ratelimit.signaling.per-second:50}")
+    private double signalingPerSecond;
+
+    @Value("${ratelimit.control.capacity:20}")
+    private int controlCapacity;
+
+    @Value("${ratelimit.control.per-second:5}")
+    private double controlPerSecond;
+
+    @Value("${ratelimit.disconnect-after:100}")
+    private int disconnectAfter;
+
+    @Value("${ratelimit.strike-window-ms:10000}")
+    private long strikeWindowMillis;
+
+    @Value("${overload.enabled:true}")
+    private boolean overloadEnabled;
+
+    @Value("${overload.max-sessions:5000}")
+    private int maxSessions;
+
+    @Value("${overload.max-rooms:1000}")
+    private int maxRooms;
+
+    @Value("${overload.max-room-size:100}")
+    private int maxRoomSize;
+
+    @Value("${overload.max-outbound-mb:64}")
+    private long maxOutboundMb;
+
+    @Value("${overload.max-lag-ms:200}")
+    private long maxLagMillis;
+
+    @Value("${overload.retry-after-seconds:30}")
+    private int overloadRetryAfterSeconds;
+
+    @Value("${overload.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${overload.send-buffer-kb:512}")
+    private int sendBufferKb;
+
+    @Value("${chat.batch.threshold:50}")
+    private int chatBatchThreshold;
+
+    @Value("${chat.batch.tick-ms:150}")
+    private long chatBatchTickMillis;
+
+    @Value("${speakers.top-k:4}")
+    private int speakersTopK;
+
+    @Value("${speakers.mesh-limit:8}")
+    private int speakersMeshLimit;
+
+    @Value("${speakers.tick-ms:500}")
+    private long speakersTickMillis;
+
+    @Value("${speakers.hold-ms:3000}")
+    private long speakersHoldMillis;
+
+    @Value("${bandwidth.enabled:true}")
+    private boolean bandwidthEnabled;
+
+    @Value("${bandwidth.mid-floor-kbps:300}")
+    private int bandwidthMidFloorKbps;
+
+    @Value("${bandwidth.high-floor-kbps:900}")
+    private int bandwidthHighFloorKbps;
+
+    @Value("${bandwidth.upgrade-hold-ms:5000}")
+    private long bandwidthUpgradeHoldMillis;
+
+    @Value("${bandwidth.change-threshold:0.15}")
+    private double bandwidthChangeThreshold;
+
+    public WebSocketConfig(JwtUtil jwtUtil, TokenRevocationService revocationService,
+                           PresenceService presenceService, MeterRegistry meterRegistry,
+                           CallQualityStore qualityStore) {
+        this.jwtUtil = jwtUtil;
+        this.revocationService = revocationService;
+        this.presenceService = presenceService;
+        this.meterRegistry = meterRegistry;
+        this.qualityStore = qualityStore;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // STOMP endpoint for messaging features (optional for this app)
@@ -30,15 +155,73 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, WebSoc
         registry.setApplicationDestinationPrefixes("/app");
     }
 
+    // Optional room event journal; when disabled it costs one branch per event
+    @Bean(destroyMethod = "close")
+    public RoomEventJournal roomEventJournal() {
+        if (!journalEnabled) {
+            return RoomEventJournal.disabled();
+        }
+        try {
+            return new RoomEventJournal(Path.of(journalDir), journalSegmentSizeMb * 1024 * 1024, journalMaxSegments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open room journal in " + journalDir, e);
+        }
+    }
+
+    @Bean
+    public InboundRateLimiter inboundRateLimiter() {
+        return new InboundRateLimiter(rateLimitEnabled,
+                new InboundRateLimiter.Limit(chatCapacity, chatPerSecond),
+                new InboundRateLimiter.Limit(signalingCapacity, signalingPerSecond),
+                new InboundRateLimiter.Limit(controlCapacity, controlPerSecond),
+                disconnectAfter, strikeWindowMillis);
+    }
+
+    @Bean(destroyMethod = "close")
+    public OverloadGuard overloadGuard() {
+        return new OverloadGuard(overloadEnabled, maxSessions, maxRooms, maxRoomSize,
+                maxOutboundMb * 1024 * 1024, maxLagMillis, overloadRetryAfterSeconds,
+                sendTimeLimitMillis, sendBufferKb * 1024);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ChatBatcher chatBatcher() {
+        if (overloadEnabled && chatBatchThreshold > maxRoomSize) {
+            System.err.println("⚠️ chat.batch.threshold (" + chatBatchThreshold + ") is above overload.max-room-size ("
+                    + maxRoomSize + "); chat batching will never engage");
+        }
+        return new ChatBatcher(chatBatchThreshold, chatBatchTickMillis);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ActiveSpeakerManager activeSpeakerManager() {
+        return new ActiveSpeakerManager(speakersTopK, speakersMeshLimit, speakersTickMillis, speakersHoldMillis);
+    }
+
+    @Bean
+    public BandwidthController bandwidthController() {
+        return new BandwidthController(bandwidthEnabled, bandwidthMidFloorKbps, bandwidthHighFloorKbps,
+                bandwidthUpgradeHoldMillis, bandwidthChangeThreshold);
+    }
+
+    @Bean
+    public SessionDirectory sessionDirectory() {
+        return new SessionDirectory();
+    }
+
     @Bean
     public WebSocketHandler videoSocketHandler() {
-        return new VideoSocketHandler();
+        return new VideoSocketHandler(presenceService, meterRegistry, roomEventJournal(), inboundRateLimiter(),
+                overloadGuard(), chatBatcher(), activeSpeakerManager(), qualityStore, bandwidthController(),
+                sessionDirectory());
     }
 
-    // Native WebSocket endpoint used by frontend: ws://localhost:8080/ws/{roomId}
+    // Native WebSocket endpoint used by frontend: ws://localhost:8080/ws/{roomId}?token=<jwt>
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         // Use Ant-style pattern to match any path segment after /ws/
-        registry.addHandler(videoSocketHandler(), "/ws/**").setAllowedOriginPatterns("*");
+        registry.addHandler(videoSocketHandler(), "/ws/**")
+                .addInterceptors(new JwtHandshakeInterceptor(jwtUtil, revocationService))
+                .setAllowedOriginPatterns("*");
     }
 }
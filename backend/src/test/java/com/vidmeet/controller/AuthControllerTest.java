@@ -0,0 +1,123 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.model.LoginCredentials;
+import com.vidmeet.model.User;
+import com.vidmeet.model.UserCard;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.LoginThrottle;
+import com.vidmeet.security.PasswordHashingService;
+import com.vidmeet.service.ProfileCardCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Login and register against a mocked repository, with real BCrypt (cost 4) and throttling
+class AuthControllerTest {
+
+    private static final String EMAIL = "alice@vidmeet.test";
+
+    private final UserRepository repo = mock(UserRepository.class);
+    private final PasswordHashingService hasher = new PasswordHashingService(new BCryptPasswordEncoder(4), 2, 16);
+    private final ExecutorService completions = Executors.newSingleThreadExecutor(r -> new Thread(r, "completion"));
+    private final List<String> repositoryThreads = new CopyOnWriteArrayList<>();
+    private final LoginThrottle throttle = new LoginThrottle();
+    private final AuthController controller = new AuthController();
+    private String hash;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerAccount", 3);
+        ReflectionTestUtils.setField(throttle, "accountWindowSeconds", 900L);
+        ReflectionTestUtils.setField(throttle, "maxAttemptsPerIp", 1000);
+        ReflectionTestUtils.setField(throttle, "ipWindowSeconds", 60L);
+
+        ProfileCardCache cards = mock(ProfileCardCache.class);
+        when(cards.get(anyString())).thenAnswer(call -> {
+            repositoryThreads.add(Thread.currentThread().getName());
+            return new UserCard(1L, call.getArgument(0), "Alice", null, null, null, null, false);
+        });
+        when(repo.save(any(User.class))).thenAnswer(call -> {
+            repositoryThreads.add(Thread.currentThread().getName());
+            return call.getArgument(0);
+        });
+        hash = new BCryptPasswordEncoder(4).encode("correct horse");
+        credentials("active");
+
+        ReflectionTestUtils.setField(controller, "repo", repo);
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret!");
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "passwordHasher", hasher);
+        ReflectionTestUtils.setField(controller, "loginThrottle", throttle);
+        ReflectionTestUtils.setField(controller, "profileCardCache", cards);
+        ReflectionTestUtils.setField(controller, "completionExecutor", completions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+        completions.shutdown();
+    }
+
+    @Test
+    void lockoutHoldsWhateverTheCaseOfTheEmail() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, login(EMAIL, "wrong").getStatusCode().value());
+        }
+        assertEquals(429, login("Alice@Vidmeet.test", "correct horse").getStatusCode().value());
+        assertEquals(429, login("  ALICE@vidmeet.test ", "correct horse").getStatusCode().value());
+    }
+
+    @Test
+    void suspensionIsOnlyToldAfterTheRightPassword() throws Exception {
+        credentials("suspended");
+        assertEquals(401, login(EMAIL, "wrong").getStatusCode().value());
+        assertEquals(403, login(EMAIL, "correct horse").getStatusCode().value());
+    }
+
+    @Test
+    void repositoryWorkRunsOffTheBcryptPool() throws Exception {
+        assertEquals(200, login(EMAIL, "correct horse").getStatusCode().value());
+
+        User user = new User("bob@vidmeet.test", "hunter22");
+        assertEquals(200, controller.register(user, request()).get().getStatusCode().value());
+
+        assertEquals(List.of("completion", "completion"), repositoryThreads);
+        assertFalse(repositoryThreads.stream().anyMatch(name -> name.startsWith("bcrypt-")));
+    }
+
+    private void credentials(String status) {
+        when(repo.findCredentialsByEmail(eq(EMAIL))).thenReturn(new LoginCredentials(1L, EMAIL, hash, status));
+        // MySQL finds the row whatever the case
+        when(repo.findCredentialsByEmail(eq("Alice@Vidmeet.test"))).thenReturn(new LoginCredentials(1L, EMAIL, hash, status));
+        when(repo.findCredentialsByEmail(eq("  ALICE@vidmeet.test "))).thenReturn(new LoginCredentials(1L, EMAIL, hash, status));
+    }
+
+    private ResponseEntity<?> login(String email, String password) throws Exception {
+        return controller.login(new User(email, password), request()).get();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
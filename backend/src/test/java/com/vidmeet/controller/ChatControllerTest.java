@@ -0,0 +1,61 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import com.vidmeet.service.ChatArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// getChat over a real archive on disk and a mocked table
+class ChatControllerTest {
+
+    private static final String ROOM = "retro";
+
+    private final ChatRepository repository = mock(ChatRepository.class);
+    private final ChatArchive archive = new ChatArchive(repository);
+    private final ChatController controller = new ChatController();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void archiveAndTableMergeByIdIncludingLateLowerIds() throws Exception {
+        ReflectionTestUtils.setField(archive, "dir", dir.toString());
+        ReflectionTestUtils.setField(controller, "repo", repository);
+        ReflectionTestUtils.setField(controller, "archive", archive);
+
+        when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(List.of(message(1), message(2), message(5)));
+        archive.archiveRoom(ROOM);
+
+        // Still in the table: 5 again (crash before the delete), 3 committed late, 6 new
+        when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(List.of(message(3), message(5), message(6)));
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), ids(controller.getChat(ROOM)));
+
+        // ...and once 3 is archived after 5, it is still there
+        when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(List.of(message(3)));
+        archive.archiveRoom(ROOM);
+        when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(List.of(message(6)));
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), ids(controller.getChat(ROOM)));
+    }
+
+    private static List<Long> ids(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getId).toList();
+    }
+
+    private static ChatMessage message(long id) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRoomId(ROOM);
+        message.setSender("a@vidmeet.test");
+        message.setMessage("message " + id);
+        return message;
+    }
+}
@@ -0,0 +1,112 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.model.MeetingHost;
+import com.vidmeet.model.UserCard;
+import com.vidmeet.model.UserVersion;
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.PresenceService;
+import com.vidmeet.service.ProfileCardCache;
+import com.vidmeet.service.VersionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// The conditional endpoints against mocked repositories: a matching revalidation is a bodyless
+// 304 answered from VersionCache, and presence flips or profile edits change the validators.
+class ConditionalGetTest {
+
+    private static final String EMAIL = "ada@vidmeet.test";
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final MeetingRepository meetings = mock(MeetingRepository.class);
+    private PresenceService presence;
+    private VersionCache versions;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime updated = LocalDateTime.of(2026, 1, 5, 9, 30);
+        when(users.findVersionByEmail(EMAIL)).thenReturn(new UserVersion(7L, updated, null));
+        when(users.findCardsByEmailIn(any())).thenReturn(List.of(
+                new UserCard(7L, EMAIL, "Ada", "ada", null, "Vidmeet", "Engineer", false)));
+        when(meetings.findHostByRoomId("room-1")).thenReturn(new MeetingHost(3L, EMAIL, updated));
+
+        presence = new PresenceService(users);
+        versions = new VersionCache(users, meetings, presence);
+        ReflectionTestUtils.setField(versions, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(versions, "maxEntries", 1000);
+        ProfileCardCache cards = new ProfileCardCache(users);
+        ReflectionTestUtils.setField(cards, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cards, "maxEntries", 1000);
+
+        ProfileController profiles = new ProfileController();
+        ReflectionTestUtils.setField(profiles, "profileCardCache", cards);
+        ReflectionTestUtils.setField(profiles, "presenceService", presence);
+        ReflectionTestUtils.setField(profiles, "versionCache", versions);
+        MeetingController meetingController = new MeetingController();
+        ReflectionTestUtils.setField(meetingController, "versionCache", versions);
+        mvc = MockMvcBuilders.standaloneSetup(profiles, meetingController).build();
+    }
+
+    @Test
+    void matchingEtagIsAnsweredWithoutBodyOrQuery() throws Exception {
+        MvcResult first = mvc.perform(get("/api/meetings/host/room-1")).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(200, first.getResponse().getStatus());
+        assertEquals("{\"hostEmail\":\"" + EMAIL + "\"}", first.getResponse().getContentAsString());
+
+        MvcResult again = mvc.perform(get("/api/meetings/host/room-1").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(304, again.getResponse().getStatus());
+        assertEquals("", again.getResponse().getContentAsString());
+        verify(meetings, times(1)).findHostByRoomId("room-1");
+    }
+
+    @Test
+    void ifModifiedSinceIsHonouredWithoutAnEtag() throws Exception {
+        MvcResult first = mvc.perform(get("/api/profile/user/" + EMAIL)).andReturn();
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        MvcResult again = mvc.perform(get("/api/profile/user/" + EMAIL).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified)).andReturn();
+        assertEquals(304, again.getResponse().getStatus());
+        verify(users, times(1)).findVersionByEmail(EMAIL);
+        verify(users, times(1)).findCardsByEmailIn(any());
+    }
+
+    @Test
+    void presenceFlipChangesTheValidators() throws Exception {
+        String offline = mvc.perform(get("/api/profile/user/" + EMAIL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        presence.connected(EMAIL);
+        MvcResult online = mvc.perform(get("/api/profile/user/" + EMAIL).header(HttpHeaders.IF_NONE_MATCH, offline)).andReturn();
+        assertEquals(200, online.getResponse().getStatus());
+        assertNotEquals(offline, online.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void profileEditEvictsTheCachedVersion() throws Exception {
+        String before = mvc.perform(get("/api/profile/user/" + EMAIL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(users.findVersionByEmail(EMAIL)).thenReturn(new UserVersion(7L, LocalDateTime.of(2026, 2, 1, 12, 0), null));
+        versions.invalidateUser(EMAIL);
+        MvcResult after = mvc.perform(get("/api/profile/user/" + EMAIL).header(HttpHeaders.IF_NONE_MATCH, before)).andReturn();
+        assertEquals(200, after.getResponse().getStatus());
+        assertNotEquals(before, after.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+}
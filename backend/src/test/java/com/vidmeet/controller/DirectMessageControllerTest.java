@@ -0,0 +1,95 @@
+package com.vidmeet.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vidmeet.model.Meeting;
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.websocket.InboundRateLimiter;
+import com.vidmeet.websocket.SessionDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// POST /api/direct with a real rate limiter; meetings and the session directory are mocked
+class DirectMessageControllerTest {
+
+    private static final String HOST = "host@vidmeet.test";
+    private static final String GUEST = "guest@vidmeet.test";
+    private static final String STRANGER = "stranger@vidmeet.test";
+    private static final String ONLINE = "online@vidmeet.test";
+
+    private final MeetingRepository meetings = mock(MeetingRepository.class);
+    private final SessionDirectory directory = mock(SessionDirectory.class);
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final DirectMessageController controller = new DirectMessageController();
+
+    @BeforeEach
+    void setUp() {
+        Meeting meeting = new Meeting();
+        meeting.setRoomId("standup");
+        meeting.setHost(HOST);
+        meeting.setEmail(HOST);
+        meeting.setActive(true);
+        meeting.setParticipants(List.of(GUEST));
+        when(meetings.findByRoomId("standup")).thenReturn(meeting);
+        when(directory.send(eq(ONLINE), any())).thenReturn(1);
+
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret!");
+        ReflectionTestUtils.setField(controller, "sessionDirectory", directory);
+        ReflectionTestUtils.setField(controller, "meetingRepository", meetings);
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+        InboundRateLimiter.Limit limit = new InboundRateLimiter.Limit(3, 0.001);
+        ReflectionTestUtils.setField(controller, "rateLimiter",
+                new InboundRateLimiter(true, limit, limit, limit, 100, 10_000));
+    }
+
+    @Test
+    void onlyHostAndParticipantsCanInvite() {
+        assertEquals(200, invite(HOST).getStatusCode().value());
+        assertEquals(200, invite(GUEST).getStatusCode().value());
+        assertEquals(403, invite(STRANGER).getStatusCode().value());
+        verify(directory, times(2)).send(eq(ONLINE), any());
+    }
+
+    @Test
+    void answerDoesNotTellWhetherTheRecipientIsOnline() {
+        ResponseEntity<?> online = push(HOST, Map.of("to", ONLINE, "message", "hi"));
+        ResponseEntity<?> offline = push(HOST, Map.of("to", "offline@vidmeet.test", "message", "hi"));
+        assertEquals(200, offline.getStatusCode().value());
+        assertEquals(online.getStatusCode(), offline.getStatusCode());
+        assertEquals(online.getBody(), offline.getBody());
+        verify(directory, times(1)).send(eq(ONLINE), any());
+    }
+
+    @Test
+    void chatLimitAppliesPerSender() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, push(STRANGER, Map.of("to", ONLINE, "message", "spam " + i)).getStatusCode().value());
+        }
+        assertEquals(429, push(STRANGER, Map.of("to", ONLINE, "message", "spam")).getStatusCode().value());
+        assertEquals(429, push(STRANGER, Map.of("to", "offline@vidmeet.test", "message", "spam")).getStatusCode().value());
+        assertEquals(200, push(HOST, Map.of("to", ONLINE, "message", "hi")).getStatusCode().value());
+        verify(directory, times(4)).send(eq(ONLINE), any());
+    }
+
+    private ResponseEntity<?> invite(String from) {
+        return push(from, Map.of("to", ONLINE, "roomId", "standup"));
+    }
+
+    private ResponseEntity<?> push(String from, Map<String, String> request) {
+        return controller.push("Bearer " + jwtUtil.generateToken(from), request);
+    }
+}
@@ -0,0 +1,40 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.repository.MeetingRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.websocket.OverloadGuard;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Meeting creation against a mocked overload guard
+class MeetingControllerTest {
+
+    private final MeetingRepository meetings = mock(MeetingRepository.class);
+    private final OverloadGuard overloadGuard = mock(OverloadGuard.class);
+    private final MeetingController controller = new MeetingController();
+
+    @Test
+    void saturatedNodeAnswers503WithRetryAfter() {
+        when(overloadGuard.admitMeeting()).thenReturn(false);
+        when(overloadGuard.getRetryAfterSeconds()).thenReturn(30);
+        ReflectionTestUtils.setField(controller, "overloadGuard", overloadGuard);
+        ReflectionTestUtils.setField(controller, "meetingRepository", meetings);
+        ReflectionTestUtils.setField(controller, "jwtUtil", new JwtUtil());
+
+        ResponseEntity<?> response = controller.createMeeting("Bearer whatever", Map.of("roomId", "standup"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(meetings);
+    }
+}
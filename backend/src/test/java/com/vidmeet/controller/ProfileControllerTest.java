@@ -0,0 +1,108 @@
+package com.vidmeet.controller;
+
+import com.vidmeet.model.User;
+import com.vidmeet.model.UserCard;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.service.PresenceService;
+import com.vidmeet.service.ProfileCardCache;
+import com.vidmeet.service.VersionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Card lookups through a real ProfileCardCache; the repository and version cache are mocked
+class ProfileControllerTest {
+
+    private static final String ALICE = "alice@vidmeet.test";
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final VersionCache versionCache = mock(VersionCache.class);
+    private final PresenceService presence = new PresenceService(users);
+    private final ProfileCardCache cards = new ProfileCardCache(users);
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final ProfileController controller = new ProfileController();
+    private final User alice = new User(ALICE, "$2a$10$" + "x".repeat(53));
+
+    @BeforeEach
+    void setUp() {
+        alice.setFullName("Alice");
+        when(users.findCardsByEmailIn(anyCollection())).thenAnswer(call -> {
+            Collection<String> emails = call.getArgument(0);
+            return emails.stream().anyMatch(ALICE::equalsIgnoreCase) ? List.of(UserCard.of(alice)) : List.of();
+        });
+        when(users.findByEmail(ALICE)).thenReturn(alice);
+        when(versionCache.card(anyString())).thenReturn(new VersionCache.Validators("c1", 0));
+        presence.connected(ALICE);
+
+        ReflectionTestUtils.setField(cards, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cards, "maxEntries", 1000);
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret!");
+        ReflectionTestUtils.setField(controller, "userRepository", users);
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "profileCardCache", cards);
+        ReflectionTestUtils.setField(controller, "presenceService", presence);
+        ReflectionTestUtils.setField(controller, "versionCache", versionCache);
+    }
+
+    @Test
+    void userLookupIgnoresEmailCase() {
+        ResponseEntity<?> response = controller.getUserByEmail("Alice@Vidmeet.test",
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        UserCard card = (UserCard) response.getBody();
+        assertEquals(ALICE, card.email());
+        assertEquals(Boolean.TRUE, card.isOnline());
+    }
+
+    @Test
+    void batchOmitsUnknownEmailsAndAddsPresence() {
+        ResponseEntity<?> response = controller.getUsersByEmails(Map.of("emails", List.of("ALICE@vidmeet.test", "nobody@vidmeet.test")));
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(List.of("ALICE@vidmeet.test"), List.copyOf(body.keySet()));
+        assertEquals(Boolean.TRUE, ((UserCard) body.get("ALICE@vidmeet.test")).isOnline());
+    }
+
+    @Test
+    void batchOverTheCapIsRejectedBeforeAnyQuery() {
+        List<String> emails = IntStream.range(0, 501).mapToObj(i -> "user" + i + "@vidmeet.test").toList();
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getUsersByEmails(Map.of("emails", emails)).getStatusCode());
+        verify(users, never()).findCardsByEmailIn(anyCollection());
+
+        assertEquals(HttpStatus.OK, controller.getUsersByEmails(Map.of("emails", emails.subList(0, 500))).getStatusCode());
+    }
+
+    @Test
+    void profileUpdateInvalidatesTheCachedCard() {
+        controller.getUsersByEmails(Map.of("emails", List.of(ALICE)));
+        String token = "Bearer " + jwtUtil.generateToken(ALICE);
+
+        controller.updateProfile(token, Map.of("fullName", "Alice Liddell"));
+
+        verify(users).save(any(User.class));
+        Map<?, ?> body = (Map<?, ?>) controller.getUsersByEmails(Map.of("emails", List.of(ALICE))).getBody();
+        assertEquals("Alice Liddell", ((UserCard) body.get(ALICE)).fullName());
+        verify(users, times(2)).findCardsByEmailIn(anyCollection());
+        verify(versionCache).invalidateUser(ALICE);
+    }
+}
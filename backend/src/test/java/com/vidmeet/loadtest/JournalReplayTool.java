@@ -0,0 +1,65 @@
+package com.vidmeet.loadtest;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import com.vidmeet.websocket.ActiveSpeakerManager;
+import com.vidmeet.websocket.BandwidthController;
+import com.vidmeet.websocket.ChatBatcher;
+import com.vidmeet.websocket.InboundRateLimiter;
+import com.vidmeet.websocket.JournalReplayer;
+import com.vidmeet.websocket.OverloadGuard;
+import com.vidmeet.websocket.RoomEventJournal;
+import com.vidmeet.websocket.SessionDirectory;
+import com.vidmeet.websocket.StubWebSocketSession;
+import com.vidmeet.websocket.VideoSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Replays a recorded room journal through an in-process VideoSocketHandler with stub
+// sessions, at original (replay.speed=1), accelerated (e.g. 10) or unpaced (0) speed.
+//
+// Run with: mvn -Pload-test verify -DskipTests -Dloadtest.main=com.vidmeet.loadtest.JournalReplayTool
+//           -Dreplay.dir=/path/to/journal -Dreplay.speed=10
+public class JournalReplayTool {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(System.getProperty("replay.dir", "journal"));
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+
+        VideoSocketHandler handler = new VideoSocketHandler(
+                new PresenceService(Mockito.mock(UserRepository.class)),
+                new SimpleMeterRegistry(),
+                RoomEventJournal.disabled(),
+                InboundRateLimiter.unlimited(), OverloadGuard.unlimited(), ChatBatcher.disabled(),
+                ActiveSpeakerManager.disabled(), new CallQualityStore(), BandwidthController.disabled(),
+                new SessionDirectory());
+
+        List<StubWebSocketSession> sessions = new ArrayList<>();
+        AtomicLong ids = new AtomicLong();
+        JournalReplayer replayer = new JournalReplayer(handler, (roomId, email) -> {
+            StubWebSocketSession session = new StubWebSocketSession("replay-" + ids.incrementAndGet(), roomId, email);
+            sessions.add(session);
+            return session;
+        }, speed);
+
+        long start = System.nanoTime();
+        long replayed = replayer.replay(directory);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long framesSent = sessions.stream().mapToLong(StubWebSocketSession::getSentFrames).sum();
+
+        System.out.println();
+        System.out.println("=== VidMeet journal replay ===");
+        System.out.printf(Locale.ROOT, "journal=%s speed=%s%n", directory.toAbsolutePath(), speed == 0 ? "max" : speed + "x");
+        System.out.printf(Locale.ROOT, "replayed %d events in %.2f s (%,.0f events/s), %d sessions%n",
+                replayed, seconds, replayed / seconds, sessions.size());
+        System.out.printf(Locale.ROOT, "outbound frames: recorded=%d replayed=%d%n",
+                replayer.getRecordedOutbound(), framesSent);
+    }
+}
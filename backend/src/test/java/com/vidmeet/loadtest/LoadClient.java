@@ -0,0 +1,100 @@
+package com.vidmeet.loadtest;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+
+// One simulated participant. Latency markers are System.nanoTime() values written by the
+// sender; client and server share the JVM, so the clocks are directly comparable.
+class LoadClient extends TextWebSocketHandler {
+
+    static final String RELAY_MARKER = "\"sentAt\":";
+    static final String CHAT_MARKER = "load:";
+
+    final String roomId;
+    final String email;
+    private final LoadStats stats;
+    private volatile WebSocketSession session;
+
+    LoadClient(String roomId, String email, LoadStats stats) {
+        this.roomId = roomId;
+        this.email = email;
+        this.stats = stats;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // Scenario threads may send while the receive thread is busy; serialize writes
+        this.session = new ConcurrentWebSocketSessionDecorator(session, 10_000, 4 * 1024 * 1024);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        long now = System.nanoTime();
+        String payload = message.getPayload();
+        stats.framesReceived.increment();
+
+        long sentAt = extractNanos(payload, RELAY_MARKER);
+        if (sentAt > 0) {
+            stats.recordRelay(now - sentAt);
+            return;
+        }
+        sentAt = extractNanos(payload, CHAT_MARKER);
+        if (sentAt > 0) {
+            stats.recordChat(now - sentAt);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        stats.closed.increment();
+    }
+
+    void send(String payload) {
+        try {
+            session.sendMessage(new TextMessage(payload));
+            stats.framesSent.increment();
+        } catch (IOException | IllegalStateException e) {
+            stats.sendErrors.increment();
+        }
+    }
+
+    void close() {
+        try {
+            session.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+
+    boolean isOpen() {
+        return session != null && session.isOpen();
+    }
+
+    // Parses the digits following marker; -1 if absent. Avoids a JSON parse per frame so the
+    // client side stays cheap next to the server under test.
+    static long extractNanos(String payload, String marker) {
+        int idx = payload.indexOf(marker);
+        if (idx < 0) return -1;
+        int i = idx + marker.length();
+        long value = 0;
+        boolean negative = false;
+        if (i < payload.length() && payload.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+        int start = i;
+        while (i < payload.length()) {
+            char c = payload.charAt(i);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            i++;
+        }
+        if (i == start) return -1;
+        return negative ? -value : value;
+    }
+}
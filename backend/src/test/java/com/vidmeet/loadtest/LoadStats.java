@@ -0,0 +1,47 @@
+package com.vidmeet.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms (nanoseconds) for one phase of the load run
+class LoadStats {
+
+    private static final long MAX_TRACKABLE = TimeUnit.SECONDS.toNanos(60);
+
+    final LongAdder framesSent = new LongAdder();
+    final LongAdder framesReceived = new LongAdder();
+    final LongAdder sendErrors = new LongAdder();
+    final LongAdder closed = new LongAdder();
+    final Histogram relayLatency = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+    final Histogram chatLatency = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+    final Histogram connectLatency = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+
+    void recordRelay(long nanos) {
+        relayLatency.recordValue(clamp(nanos));
+    }
+
+    void recordChat(long nanos) {
+        chatLatency.recordValue(clamp(nanos));
+    }
+
+    void recordConnect(long nanos) {
+        connectLatency.recordValue(clamp(nanos));
+    }
+
+    void reset() {
+        framesSent.reset();
+        framesReceived.reset();
+        sendErrors.reset();
+        closed.reset();
+        relayLatency.reset();
+        chatLatency.reset();
+        connectLatency.reset();
+    }
+
+    private static long clamp(long nanos) {
+        return Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+    }
+}
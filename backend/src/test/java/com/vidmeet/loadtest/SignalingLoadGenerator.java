@@ -0,0 +1,247 @@
+package com.vidmeet.loadtest;
+
+import com.vidmeet.VidmeetBackendApplication;
+import com.vidmeet.security.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// In-JVM load generator for the signaling server. Boots the backend on an ephemeral port
+// against in-memory H2, connects rooms x participants real WebSocket clients to
+// /ws/{roomId}?token=..., and runs join storm -> offer/answer/ICE -> chat burst -> churn.
+//
+// Run with: mvn -Pload-test verify -DskipTests -Dloadtest.rooms=50 -Dloadtest.participants=8
+//
+// Heap per session is measured in this JVM, so it includes the client-side session too;
+// treat it as an upper bound for the server's share.
+public class SignalingLoadGenerator {
+
+    private final int rooms = Integer.getInteger("loadtest.rooms", 20);
+    private final int participants = Integer.getInteger("loadtest.participants", 8);
+    private final int iceRounds = Integer.getInteger("loadtest.iceRounds", 10);
+    private final int chatMessages = Integer.getInteger("loadtest.chatMessages", 20);
+    private final double churnFraction = Double.parseDouble(System.getProperty("loadtest.churnFraction", "0.25"));
+    private final int connectConcurrency = Integer.getInteger("loadtest.connectConcurrency", 200);
+    private final int timeoutSeconds = Integer.getInteger("loadtest.timeoutSeconds", 60);
+
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+    private final int port;
+    private final StandardWebSocketClient webSocketClient = new StandardWebSocketClient();
+    private final ExecutorService scenarioPool =
+            Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+    private final LoadStats stats = new LoadStats();
+    private final List<String> report = new ArrayList<>();
+
+    public SignalingLoadGenerator(JwtUtil jwtUtil, MeterRegistry meterRegistry, int port) {
+        this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = startBackend();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            SignalingLoadGenerator generator = new SignalingLoadGenerator(
+                    context.getBean(JwtUtil.class), context.getBean(MeterRegistry.class), port);
+            generator.run();
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    // Command-line style args outrank application.properties, so MySQL is swapped for H2
+    static ConfigurableApplicationContext startBackend() {
+        return new SpringApplicationBuilder(VidmeetBackendApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:vidmeet-load;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--snapshot.enabled=false",
+                "--ratelimit.enabled=" + Boolean.getBoolean("loadtest.rateLimit"),
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+    }
+
+    public void run() throws Exception {
+        int sessions = rooms * participants;
+        report.add(String.format(Locale.ROOT, "rooms=%d participants/room=%d sessions=%d",
+                rooms, participants, sessions));
+
+        long heapBefore = usedHeapAfterGc();
+        List<LoadClient> clients = new ArrayList<>(sessions);
+        for (int r = 0; r < rooms; r++) {
+            for (int p = 0; p < participants; p++) {
+                clients.add(new LoadClient("load-room-" + r, "p" + p + ".r" + r + "@load.test", stats));
+            }
+        }
+
+        // 1. Join storm: everyone connects at once (bounded by connectConcurrency)
+        stats.reset();
+        long start = System.nanoTime();
+        connectAll(clients);
+        long joinNanos = System.nanoTime() - start;
+        long heapAfter = usedHeapAfterGc();
+        phaseReport("join storm", joinNanos, stats.connectLatency);
+        report.add(String.format(Locale.ROOT, "heap per session: %.1f KiB (client+server)",
+                (heapAfter - heapBefore) / 1024.0 / sessions));
+
+        // 2. Offer/answer/ICE: relayed to the other P-1 participants of the room
+        long relayFrames = (long) sessions * (2 + iceRounds);
+        runPhase("signaling", clients, this::signalingScript,
+                relayFrames * (participants - 1), () -> stats.relayLatency.getTotalCount(), stats.relayLatency);
+
+        // 3. Chat burst: broadcast to all P participants, sender included
+        runPhase("chat burst", clients, this::chatScript,
+                (long) sessions * chatMessages * participants, () -> stats.chatLatency.getTotalCount(),
+                stats.chatLatency);
+
+        // 4. Churn: a fraction of each room leaves and reconnects
+        stats.reset();
+        List<LoadClient> churned = new ArrayList<>();
+        for (int i = 0; i < clients.size(); i++) {
+            if ((i % participants) < Math.round(participants * churnFraction)) {
+                churned.add(clients.get(i));
+            }
+        }
+        start = System.nanoTime();
+        churned.forEach(LoadClient::close);
+        awaitCount(() -> stats.closed.sum(), churned.size());
+        List<LoadClient> rejoined = new ArrayList<>();
+        for (LoadClient c : churned) {
+            rejoined.add(new LoadClient(c.roomId, c.email, stats));
+        }
+        connectAll(rejoined);
+        phaseReport("churn (" + churned.size() + " sessions)", System.nanoTime() - start, stats.connectLatency);
+
+        Counter failures = meterRegistry.find("vidmeet.ws.send.failures").counter();
+        report.add("server send failures: " + (failures == null ? "n/a" : (long) failures.count()));
+
+        clients.forEach(LoadClient::close);
+        rejoined.forEach(LoadClient::close);
+        scenarioPool.shutdownNow();
+
+        System.out.println();
+        System.out.println("=== VidMeet signaling load report ===");
+        report.forEach(System.out::println);
+    }
+
+    private void signalingScript(LoadClient client) {
+        String head = "{\"to\":\"*\",\"from\":\"" + client.email + "\",";
+        client.send(head + "\"type\":\"offer\",\"offer\":{\"type\":\"offer\",\"sdp\":\"v=0\"}," + LoadClient.RELAY_MARKER + System.nanoTime() + "}");
+        client.send(head + "\"type\":\"answer\",\"answer\":{\"type\":\"answer\",\"sdp\":\"v=0\"}," + LoadClient.RELAY_MARKER + System.nanoTime() + "}");
+        for (int i = 0; i < iceRounds; i++) {
+            client.send(head + "\"type\":\"ice-candidate\",\"candidate\":{\"candidate\":\"candidate:" + i
+                    + " 1 udp 2122260223 10.0.0.1 5000" + i + " typ host\",\"sdpMid\":\"0\",\"sdpMLineIndex\":0},"
+                    + LoadClient.RELAY_MARKER + System.nanoTime() + "}");
+        }
+    }
+
+    private void chatScript(LoadClient client) {
+        for (int i = 0; i < chatMessages; i++) {
+            client.send("{\"type\":\"chat\",\"message\":\"" + LoadClient.CHAT_MARKER + System.nanoTime() + "\"}");
+        }
+    }
+
+    private void runPhase(String name, List<LoadClient> clients, Consumer<LoadClient> script,
+                          long expectedSamples, LongSupplier samples, Histogram latency)
+            throws Exception {
+        stats.reset();
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (LoadClient client : clients) {
+            futures.add(scenarioPool.submit(() -> script.accept(client)));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        boolean complete = awaitCount(samples, expectedSamples);
+        long elapsed = System.nanoTime() - start;
+        phaseReport(name, elapsed, latency);
+        if (!complete) {
+            report.add(String.format(Locale.ROOT, "  !! %d of %d expected frames never arrived",
+                    expectedSamples - samples.getAsLong(), expectedSamples));
+        }
+    }
+
+    private void connectAll(List<LoadClient> clients) throws Exception {
+        Semaphore inFlight = new Semaphore(connectConcurrency);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (LoadClient client : clients) {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            URI uri = URI.create("ws://localhost:" + port + "/ws/" + client.roomId
+                    + "?token=" + jwtUtil.generateToken(client.email));
+            pending.add(webSocketClient.execute(client, null, uri).whenComplete((session, error) -> {
+                inFlight.release();
+                if (error == null) {
+                    stats.recordConnect(System.nanoTime() - start);
+                } else {
+                    stats.sendErrors.increment();
+                }
+            }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    // Waits until the counter reaches target or stops moving for a second (frames lost)
+    private boolean awaitCount(LongSupplier counter, long target) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        long last = -1;
+        long lastChange = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            long now = counter.getAsLong();
+            if (now >= target) return true;
+            if (now != last) {
+                last = now;
+                lastChange = System.nanoTime();
+            } else if (System.nanoTime() - lastChange > TimeUnit.SECONDS.toNanos(1)) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    private void phaseReport(String name, long elapsedNanos, Histogram latency) {
+        double seconds = elapsedNanos / 1e9;
+        report.add(String.format(Locale.ROOT,
+                "%-22s %8.0f ms  sent=%d recv=%d  %,.0f frames/s  p50=%.2f ms p99=%.2f ms p999=%.2f ms  errors=%d",
+                name, elapsedNanos / 1e6, stats.framesSent.sum(), stats.framesReceived.sum(),
+                stats.framesReceived.sum() / seconds,
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6, stats.sendErrors.sum()));
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,135 @@
+package com.vidmeet.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two (or three) embedded H2 databases standing in for the primary and its replicas. Each
+// holds a one-row table naming itself, so a query shows where a transaction was routed;
+// replicas also hold the lag value their lag query reports.
+class ReplicaRoutingDataSourceTest {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        database("primary");
+        database("replica-a").execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (routing != null) routing.close();
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        setLag("replica-a", 0);
+        route("replica-a");
+
+        assertEquals("replica-a", readOnly.execute(status -> whereAmI()));
+        assertEquals("primary", readWrite.execute(status -> whereAmI()));
+        assertEquals("primary", whereAmI()); // outside any transaction
+    }
+
+    @Test
+    void writesInsideReadWriteTransactionsStayOnThePrimary() {
+        setLag("replica-a", 0);
+        route("replica-a");
+
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE node SET name = 'primary (written)'"));
+
+        assertEquals("primary (written)",
+                new JdbcTemplate(pools.get("primary")).queryForObject("SELECT name FROM node", String.class));
+        assertEquals("replica-a", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        setLag("replica-a", 5000);
+        route("replica-a");
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+
+        setLag("replica-a", 100);
+        routing.checkLag();
+        assertEquals("replica-a", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        setLag("replica-a", 0);
+        route("replica-a");
+        pools.get("replica-a").close();
+        routing.checkLag();
+
+        assertEquals(0, routing.getHealthyReplicaCount());
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void readsRotateOverHealthyReplicas() {
+        database("replica-b").execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+        setLag("replica-a", 0);
+        setLag("replica-b", 0);
+        route("replica-a", "replica-b");
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) seen.add(readOnly.execute(status -> whereAmI()));
+        assertEquals(Set.of("replica-a", "replica-b"), seen);
+    }
+
+    private JdbcTemplate database(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(2);
+        pools.put(name, pool);
+        JdbcTemplate template = new JdbcTemplate(pool);
+        template.execute("CREATE TABLE node (name VARCHAR(64))");
+        template.update("INSERT INTO node VALUES (?)", name);
+        return template;
+    }
+
+    private void setLag(String replica, long millis) {
+        JdbcTemplate template = new JdbcTemplate(pools.get(replica));
+        template.update("DELETE FROM replica_lag");
+        template.update("INSERT INTO replica_lag VALUES (?)", millis);
+    }
+
+    private void route(String... replicaNames) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String name : replicaNames) replicas.put(name, pools.get(name));
+        routing = new ReplicaRoutingDataSource(pools.get("primary"), replicas, 1000,
+                "SELECT lag_ms FROM replica_lag", new SimpleMeterRegistry());
+        routing.checkLag();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactions = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactions);
+        readOnly = new TransactionTemplate(transactions);
+        readOnly.setReadOnly(true);
+    }
+
+    private String whereAmI() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+}
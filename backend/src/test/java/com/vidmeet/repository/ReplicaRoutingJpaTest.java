@@ -0,0 +1,110 @@
+package com.vidmeet.repository;
+
+import com.vidmeet.model.User;
+import com.vidmeet.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The whole application on H2 with one replica: the primary's own database, reached as a user
+// that may only SELECT, so a write routed to the replica fails instead of passing unnoticed.
+// The handlers here read in a read-only transaction and then write in the same request, with
+// open-in-view holding one EntityManager across both.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-jpa;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "datasource.replicas.urls=jdbc:h2:mem:routing-jpa",
+        "datasource.replicas.username=reader",
+        "datasource.replicas.password=reader",
+        "datasource.replicas.lag-query=SELECT 0",
+        "snapshot.enabled=false",
+        "chat.archive.enabled=false"})
+@AutoConfigureMockMvc
+class ReplicaRoutingJpaTest {
+
+    private static final String EMAIL = "reader.writer@vidmeet.test";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private DataSourceRoutingConfig routingConfig;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void createReader() {
+        JdbcTemplate admin = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-jpa;DB_CLOSE_DELAY=-1", "sa", ""));
+        admin.execute("CREATE USER IF NOT EXISTS reader PASSWORD 'reader'");
+        admin.execute("GRANT SELECT ON SCHEMA PUBLIC TO reader");
+    }
+
+    @Test
+    void readThenWriteInOneRequestWritesToThePrimary() throws Exception {
+        if (!users.existsByEmail(EMAIL)) users.save(new User(EMAIL, "$2a$10$" + "x".repeat(53)));
+        routingConfig.checkReplicaLag();
+        double replicaReadsBefore = replicaReads();
+
+        // findByEmail (read-only) then save
+        mvc.perform(put("/api/profile")
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bio\":\"written through the primary\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("written through the primary", users.findProfileByEmail(EMAIL).bio());
+        assertTrue(replicaReads() > replicaReadsBefore, "reads should have used the replica");
+    }
+
+    @Test
+    void createThenJoinMeetingWritesToThePrimary() throws Exception {
+        routingConfig.checkReplicaLag();
+        String token = "Bearer " + jwtUtil.generateToken(EMAIL);
+
+        // findByRoomId (read-only) then save, twice over
+        mvc.perform(post("/api/meetings/create").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"roomId\":\"routing-room\"}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/meetings/join").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roomId\":\"routing-room\",\"email\":\"guest@vidmeet.test\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void versionValidatorsAreReadFromThePrimary() {
+        routingConfig.checkReplicaLag();
+        double replicaReadsBefore = replicaReads();
+        users.findVersionByEmail(EMAIL);
+        assertEquals(replicaReadsBefore, replicaReads());
+        users.findProfileByEmail(EMAIL);
+        assertTrue(replicaReads() > replicaReadsBefore);
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("vidmeet.db.reads").tag("target", "replica").counter().count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.vidmeet.repository;
+
+import com.vidmeet.VidmeetBackendApplication;
+import com.vidmeet.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// User lookups on the login / card / register paths, against the app's own repositories on
+// an embedded H2 with 10k users. Setup prints, per path, the SQL Hibernate now issues and the
+// rows and bytes it returns, next to the whole-row read every path used to make (the
+// findByEmail it replaced, from before bio / socialLinks / preferences were lazy).
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=UserLookupBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 15, time = 1) // Hibernate and Spring Data take a while to JIT
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final String EMAIL = "target.user@vidmeet.test";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository users;
+    private JdbcTemplate jdbc;
+
+    // Records the SQL Hibernate sends, to show what each repository method selects
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        static volatile boolean recording = true;
+
+        @Override
+        public String inspect(String sql) {
+            if (recording) statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // As arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(VidmeetBackendApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:user-lookup;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + RecordingInspector.class.getName(),
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--snapshot.enabled=false",
+                "--chat.archive.enabled=false");
+        users = context.getBean(UserRepository.class);
+        jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+
+        jdbc.batchUpdate("INSERT INTO users (email, password, full_name, status, is_online) VALUES (?, ?, ?, 'active', false)",
+                IntStream.range(0, 10_000)
+                        .mapToObj(i -> new Object[]{"user" + i + "@vidmeet.test", "$2a$10$" + "x".repeat(53), "User " + i})
+                        .toList());
+        User target = new User(EMAIL, "$2a$10$" + "h".repeat(53));
+        target.setFullName("Target User");
+        target.setDisplayName("target");
+        target.setAvatarUrl("https://cdn.vidmeet.test/avatars/target.png");
+        target.setCompany("Vidmeet");
+        target.setJobTitle("Engineer");
+        target.setLocation("Lisbon");
+        target.setWebsite("https://target.example");
+        target.setBio("Long-form bio. ".repeat(270));                                  // ~4 KB TEXT
+        // Both are VARCHAR(255) columns
+        target.setSocialLinks("{\"github\":\"https://github.com/target\",\"links\":[" + "\"https://example.com/p\",".repeat(8) + "\"\"]}");
+        target.setPreferences("{\"theme\":\"dark\",\"shortcuts\":{" + "\"k\":\"mute-toggle-camera\",".repeat(8) + "\"x\":\"\"}}");
+        users.save(target);
+
+        System.out.println();
+        report("whole row (old findByEmail, every path)", "SELECT * FROM users WHERE email = ?");
+        describe("login", () -> users.findCredentialsByEmail(EMAIL));
+        describe("card (getUserByEmail)", () -> users.findCardsByEmailIn(List.of(EMAIL)));
+        describe("register duplicate check", () -> users.existsByEmail(EMAIL));
+        describe("findByEmail entity (write paths)", () -> users.findByEmail(EMAIL));
+        RecordingInspector.recording = false;
+    }
+
+    private void describe(String path, Runnable call) {
+        RecordingInspector.statements.clear();
+        call.run();
+        for (String sql : RecordingInspector.statements) {
+            report(path, sql);
+        }
+    }
+
+    // Runs the statement with the email bound (and any limit as 1), counting rows and the
+    // bytes of the returned values: strings as UTF-8, other values 8 bytes
+    private void report(String path, String sql) {
+        String bound = sql.replaceFirst("\\?", "'" + EMAIL + "'").replace("?", "1");
+        long[] rowsAndBytes = new long[2];
+        jdbc.query(bound, rs -> {
+            rowsAndBytes[0]++;
+            for (int column = 1; column <= rs.getMetaData().getColumnCount(); column++) {
+                Object value = rs.getObject(column);
+                if (value instanceof String s) {
+                    rowsAndBytes[1] += s.getBytes(StandardCharsets.UTF_8).length;
+                } else if (value != null) {
+                    rowsAndBytes[1] += 8;
+                }
+            }
+        });
+        System.out.printf("%-42s %d row(s), %5d bytes  %s%n", path, rowsAndBytes[0], rowsAndBytes[1],
+                sql.length() > 110 ? sql.substring(0, 110) + "..." : sql);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // The read every path made before
+    @Benchmark
+    public Object wholeRow() {
+        return jdbc.queryForMap("SELECT * FROM users WHERE email = ?", EMAIL);
+    }
+
+    @Benchmark
+    public Object login() {
+        return users.findCredentialsByEmail(EMAIL);
+    }
+
+    @Benchmark
+    public Object card() {
+        return users.findCardsByEmailIn(List.of(EMAIL));
+    }
+
+    @Benchmark
+    public boolean registerCheck() {
+        return users.existsByEmail(EMAIL);
+    }
+
+    @Benchmark
+    public Object entity() {
+        return users.findByEmail(EMAIL);
+    }
+}
@@ -0,0 +1,54 @@
+package com.vidmeet.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The whole application on H2 and real ports: metrics only on the management port.
+// Tests switch metrics export off unless asked, which would leave no prometheus endpoint at all.
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuator-exposure;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "management.server.port=0",
+        "snapshot.enabled=false",
+        "chat.archive.enabled=false"})
+class ActuatorExposureTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int apiPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsOnlyServedOnTheManagementPort() throws Exception {
+        assertNotEquals(apiPort, managementPort);
+        assertNotEquals(200, get(apiPort, "/actuator/prometheus").statusCode());
+
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("vidmeet_ws_sessions_active"));
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
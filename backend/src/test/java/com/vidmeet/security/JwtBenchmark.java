@@ -0,0 +1,60 @@
+package com.vidmeet.security;
+
+import com.vidmeet.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue/verify cost, plus the revocation check JwtFilter adds on every request.
+// Run with: mvn -Pbenchmark verify -DskipTests
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationService revocationService;
+    private String token;
+    private Claims claims;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "vidmeetSecret123vidmeetSecret123");
+        token = jwtUtil.generateToken("bench@vidmeet.test");
+        claims = jwtUtil.parseValidClaims(token);
+
+        revocationService = new TokenRevocationService(Mockito.mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 100_000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        revocationService.load();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench@vidmeet.test");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    // What JwtFilter does per request: one parse plus the Bloom-fronted revocation check
+    @Benchmark
+    public boolean filterPath() {
+        Claims parsed = jwtUtil.parseValidClaims(token);
+        return parsed != null && !revocationService.isRevoked(parsed);
+    }
+
+    @Benchmark
+    public boolean revocationCheck() {
+        return revocationService.isRevoked(claims);
+    }
+}
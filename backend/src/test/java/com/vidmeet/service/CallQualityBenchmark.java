@@ -0,0 +1,45 @@
+package com.vidmeet.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of ingesting one client stats report into the per-participant ring buffers.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=CallQualityBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallQualityBenchmark {
+
+    private final CallQualityStore store = new CallQualityStore();
+    private final String[] emails = new String[1000];
+    private long clock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = "user" + i + "@vidmeet.test";
+        }
+        // Fill every raw ring so queries see a full room
+        for (int i = 0; i < 120 * emails.length; i++) {
+            record();
+        }
+    }
+
+    // 1000 participants reporting in turn; simulated time advances 5 ms per report so the
+    // minute and ten-minute buckets roll over regularly
+    @Benchmark
+    public void record() {
+        long now = clock += 5;
+        store.record("room-1", emails[(int) (now % emails.length)], now, 42f, 3.5f, 0.2f, 1200f);
+    }
+
+    // 1000 participants x 120 raw points
+    @Benchmark
+    public Object queryRoomRaw() {
+        return store.query("room-1", CallQualityStore.Resolution.RAW);
+    }
+}
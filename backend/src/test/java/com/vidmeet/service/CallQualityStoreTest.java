@@ -0,0 +1,66 @@
+package com.vidmeet.service;
+
+import com.vidmeet.service.CallQualityStore.Resolution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Retention and capacity of the call-quality series
+class CallQualityStoreTest {
+
+    private final CallQualityStore store = new CallQualityStore();
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    void fullStoreEvictsTheIdlestSeriesAndCountsIt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.registerMetrics(registry);
+        ReflectionTestUtils.setField(store, "maxSeries", 3);
+        sample("old-room", "a@vidmeet.test", now - 60_000);
+        sample("room", "b@vidmeet.test", now - 1_000);
+        sample("room", "c@vidmeet.test", now - 30_000);
+
+        sample("room", "d@vidmeet.test", now);
+        sample("room", "b@vidmeet.test", now); // existing series never evict
+
+        assertEquals(Set.of("b@vidmeet.test", "c@vidmeet.test", "d@vidmeet.test"),
+                store.query("room", Resolution.RAW).keySet());
+        assertTrue(store.query("old-room", Resolution.RAW).isEmpty());
+        assertEquals(1, store.getEvictedSeries());
+        assertEquals(1, registry.get("vidmeet.stats.evicted").functionCounter().count());
+        assertEquals(3, registry.get("vidmeet.stats.series").gauge().value());
+    }
+
+    @Test
+    void closedRoomIsDroppedAfterRetention() {
+        sample("kept", "a@vidmeet.test", now);
+        sample("closed", "b@vidmeet.test", now);
+        sample("reopened", "c@vidmeet.test", now);
+
+        store.roomClosed("closed");
+        store.roomClosed("reopened");
+        sample("reopened", "c@vidmeet.test", now + 1000);
+        store.purgeIdle(); // still within retention
+        assertEquals(1, store.query("closed", Resolution.RAW).size());
+
+        ReflectionTestUtils.setField(store, "closedRoomRetentionMillis", 0L);
+        store.purgeIdle();
+        assertTrue(store.query("closed", Resolution.RAW).isEmpty());
+        assertEquals(1, store.query("kept", Resolution.RAW).size());
+        assertEquals(1, store.query("reopened", Resolution.RAW).size());
+
+        // The freed slots are reusable without evicting anyone
+        ReflectionTestUtils.setField(store, "maxSeries", 3);
+        sample("new-room", "d@vidmeet.test", now);
+        assertEquals(0, store.getEvictedSeries());
+    }
+
+    private void sample(String roomId, String email, long timestamp) {
+        store.record(roomId, email, timestamp, 40f, 2f, 0.1f, 1200f);
+    }
+}
@@ -0,0 +1,102 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Archiving one ended room (encode, deflate, write and fsync a segment) and reading it back
+// in full. The read starts from the file, so it includes open, index and inflate, but the
+// page cache is warm: add a device read for a truly cold disk. Setup checks the round trip
+// and prints the on-disk size.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=ChatArchiveBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatArchiveBenchmark {
+
+    @Param({"1000", "20000"})
+    public int roomMessages;
+
+    private static final String ROOM = "standup-7f3a";
+
+    private Path dir;
+    private ChatArchive archive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(7);
+        String[] phrases = {"sounds good", "can you share your screen?", "I'll take the deploy ticket",
+                "lagging a bit on my side", "let's sync after standup", "the staging build is green again",
+                "+1", "who owns the migration?", "brb", "link: https://vidmeet.test/docs/runbook"};
+        List<ChatMessage> messages = new ArrayList<>();
+        LocalDateTime time = LocalDateTime.of(2025, 3, 14, 9, 30);
+        long rawBytes = 0;
+        for (int i = 0; i < roomMessages; i++) {
+            ChatMessage message = new ChatMessage();
+            message.setId(1_000_000L + i * 3L);
+            message.setRoomId(ROOM);
+            message.setSender("user" + random.nextInt(12) + "@vidmeet.test");
+            message.setMessage(phrases[random.nextInt(phrases.length)] + " #" + random.nextInt(1000));
+            message.setTimestamp(time = time.plusNanos(random.nextInt(20_000) * 1_000_000L + 123_000));
+            messages.add(message);
+            rawBytes += 8 + 8 + message.getSender().length() + message.getMessage().length();
+        }
+
+        ChatRepository repository = Mockito.mock(ChatRepository.class);
+        Mockito.when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(messages);
+        dir = Files.createTempDirectory("chat-archive-bench");
+        archive = new ChatArchive(repository);
+        ReflectionTestUtils.setField(archive, "dir", dir.toString());
+        archive.archiveRoom(ROOM);
+
+        List<ChatMessage> read = archive.read(ROOM);
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage a = messages.get(i);
+            ChatMessage b = read.get(i);
+            if (!a.getId().equals(b.getId()) || !a.getSender().equals(b.getSender())
+                    || !a.getMessage().equals(b.getMessage()) || !a.getTimestamp().equals(b.getTimestamp())) {
+                throw new IllegalStateException("round trip differs at message " + i);
+            }
+        }
+        long onDisk;
+        try (Stream<Path> files = Files.walk(dir)) {
+            onDisk = files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+        System.out.printf("%n%d messages: %d bytes of fields -> %d bytes on disk (%.1fx)%n",
+                roomMessages, rawBytes, onDisk, (double) rawBytes / onDisk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    // Rewrites the same segment each time (same id range, moved over the old one)
+    @Benchmark
+    public int archiveRoom() throws IOException {
+        return archive.archiveRoom(ROOM);
+    }
+
+    @Benchmark
+    public List<ChatMessage> coldRead() throws IOException {
+        return archive.read(ROOM);
+    }
+}
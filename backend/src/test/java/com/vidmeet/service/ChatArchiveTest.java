@@ -0,0 +1,110 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatArchiveTest {
+
+    private static final String ROOM = "room/with spaces+ünïcode";
+
+    private final ChatRepository repository = mock(ChatRepository.class);
+    private ChatArchive archive;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        archive = new ChatArchive(repository);
+        ReflectionTestUtils.setField(archive, "dir", dir.toString());
+        ReflectionTestUtils.setField(archive, "blockMessages", 4); // several blocks per segment
+    }
+
+    @Test
+    void segmentRoundTripKeepsEveryField() throws Exception {
+        List<ChatMessage> messages = new ArrayList<>();
+        LocalDateTime time = LocalDateTime.of(2025, 3, 14, 9, 30, 0, 123_456_000);
+        for (int i = 0; i < 10; i++) {
+            messages.add(message(100 + i * 7L, "user" + (i % 3) + "@vidmeet.test", "message " + i + " ☕", time.plusSeconds(i)));
+        }
+        messages.add(message(200, null, null, null));
+        messages.add(message(201, "late@vidmeet.test", "", time.minusDays(1))); // timestamps may go backwards
+        archiveRows(messages);
+
+        List<ChatMessage> read = archive.read(ROOM);
+        assertEquals(messages.size(), read.size());
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage expected = messages.get(i);
+            ChatMessage actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(ROOM, actual.getRoomId());
+            assertEquals(expected.getSender(), actual.getSender());
+            assertEquals(expected.getMessage(), actual.getMessage());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+        assertNull(read.get(10).getTimestamp());
+        verify(repository).deleteAllByIdInBatch(messages.stream().map(ChatMessage::getId).toList());
+    }
+
+    @Test
+    void findReadsOnlyRequestedIds() throws Exception {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) messages.add(message(id, "a@vidmeet.test", "m" + id, LocalDateTime.now()));
+        archiveRows(messages);
+
+        List<ChatMessage> found = archive.find(ROOM, List.of(3L, 17L, 99L));
+        assertEquals(List.of(3L, 17L), found.stream().map(ChatMessage::getId).toList());
+    }
+
+    @Test
+    void lateRowWithLowerIdIsReadBackInOrder() throws Exception {
+        archiveRows(List.of(message(10, "a", "ten", null), message(12, "a", "twelve", null)));
+        // Id 11 was committed after the first pass; the next pass archives it on its own
+        archiveRows(List.of(message(11, "b", "eleven", null)));
+        // A crash after writing a segment re-archives its rows
+        archiveRows(List.of(message(12, "a", "twelve", null), message(13, "a", "thirteen", null)));
+
+        assertEquals(List.of(10L, 11L, 12L, 13L), archive.read(ROOM).stream().map(ChatMessage::getId).toList());
+    }
+
+    @Test
+    void noDirectoryMeansNothingArchived() throws Exception {
+        ChatArchive unconfigured = new ChatArchive(repository);
+        assertTrue(unconfigured.read(ROOM).isEmpty());
+
+        ReflectionTestUtils.setField(unconfigured, "enabled", true);
+        assertThrows(IllegalStateException.class, unconfigured::checkDirectory);
+    }
+
+    private void archiveRows(List<ChatMessage> rows) throws Exception {
+        when(repository.findByRoomIdOrderByIdAsc(ROOM)).thenReturn(rows);
+        assertEquals(rows.size(), archive.archiveRoom(ROOM));
+    }
+
+    static ChatMessage message(long id, String sender, String text, LocalDateTime timestamp) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRoomId(ROOM);
+        message.setSender(sender);
+        message.setMessage(text);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+}
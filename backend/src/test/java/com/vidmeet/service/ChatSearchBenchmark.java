@@ -0,0 +1,107 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Searching one room's chat: a scan of the whole table comparing roomId and substring (what
+// LIKE '%term%' amounts to) vs ChatSearchIndex. Half of the room is loaded from the
+// "table" on the first search, the rest arrives through add() and is merged in the
+// background, as in a live meeting. Setup checks both return the same messages.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=ChatSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatSearchBenchmark {
+
+    @Param({"200000"})
+    public int tableSize;
+
+    @Param({"1000", "50000"})
+    public int roomMessages;
+
+    private static final String ROOM = "room-0";
+    private static final String QUERY = "deploy stag";
+
+    private final List<ChatMessage> table = new ArrayList<>();
+    private ChatSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[2000];
+        for (int i = 0; i < words.length; i++) words[i] = "w" + Integer.toString(i * 7919, 36);
+        words[10] = "deploy";
+        words[11] = "staging";
+        words[12] = "stage";
+
+        List<ChatMessage> room = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < tableSize; i++) {
+            boolean inRoom = i % Math.max(1, tableSize / roomMessages) == 0 && room.size() < roomMessages;
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                // Skewed towards low word numbers, like real chat vocabulary
+                int word = (int) (Math.pow(random.nextDouble(), 3) * words.length);
+                text.append(w == 0 ? "" : " ").append(words[word]);
+            }
+            ChatMessage message = new ChatMessage();
+            message.setId(++id);
+            message.setRoomId(inRoom ? ROOM : "room-" + (1 + i % 5000));
+            message.setSender("user" + (i % 50) + "@vidmeet.test");
+            message.setMessage(text.toString());
+            table.add(message);
+            if (inRoom) room.add(message);
+        }
+
+        ChatRepository repository = Mockito.mock(ChatRepository.class);
+        Mockito.when(repository.findByRoomId(ROOM)).thenReturn(room.subList(0, room.size() / 2));
+        index = new ChatSearchIndex(repository, new ChatArchive(repository));
+        index.search(ROOM, QUERY, 1);
+        for (ChatMessage message : room.subList(room.size() / 2, room.size())) {
+            index.add(message);
+            if (message.getId() % 5000 == 0) index.mergeSegments();
+        }
+        index.mergeSegments();
+
+        List<Long> expected = scan();
+        List<Long> actual = index.search(ROOM, QUERY, 20);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("index " + actual + " != scan " + expected);
+        }
+        System.out.printf("%n%d room messages, %d matches shown, index %.1f KiB%n",
+                room.size(), actual.size(), index.getIndexBytes() / 1024.0);
+    }
+
+    // Newest 20 messages of the room containing "deploy" and a word starting with "stag"
+    @Benchmark
+    public List<Long> tableScan() {
+        return scan();
+    }
+
+    @Benchmark
+    public List<Long> invertedIndex() {
+        return index.search(ROOM, QUERY, 20);
+    }
+
+    private List<Long> scan() {
+        List<Long> result = new ArrayList<>();
+        for (int i = table.size() - 1; i >= 0 && result.size() < 20; i--) {
+            ChatMessage message = table.get(i);
+            if (!ROOM.equals(message.getRoomId())) continue;
+            String text = " " + message.getMessage().toLowerCase(Locale.ROOT) + " ";
+            if (text.contains(" deploy ") && text.contains(" stag")) result.add(message.getId());
+        }
+        return result;
+    }
+}
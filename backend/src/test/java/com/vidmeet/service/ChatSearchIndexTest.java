@@ -0,0 +1,148 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.ChatMessage;
+import com.vidmeet.repository.ChatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The search index over a mocked chat table: tokenizing, prefix matching, merges and retention
+class ChatSearchIndexTest {
+
+    private final ChatRepository repository = mock(ChatRepository.class);
+    private final ChatArchive archive = mock(ChatArchive.class);
+    private final ChatSearchIndex index = new ChatSearchIndex(repository, archive);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(repository.findByRoomId(anyString())).thenReturn(List.of());
+        when(archive.read(anyString())).thenReturn(List.of());
+        ReflectionTestUtils.setField(index, "flushDocs", 4);
+        ReflectionTestUtils.setField(index, "maxSegments", 2);
+    }
+
+    @Test
+    void tokenizerKeepsLowercasedWordsOfTwoOrMoreCharacters() {
+        assertEquals(List.of("can", "you", "share", "screen", "42", "ünïcode"),
+                new ArrayList<>(ChatSearchIndex.tokenize("Can you share a SCREEN? 42 x Ünïcode, can")));
+        assertTrue(ChatSearchIndex.tokenize(null).isEmpty());
+        assertTrue(ChatSearchIndex.tokenize("a - ! ?").isEmpty());
+    }
+
+    @Test
+    void everyWordMustMatchAndTheLastOneAsAPrefix() {
+        table("standup",
+                "deploy the staging build",   // 1
+                "staging is green",           // 2
+                "deployment done on staging", // 3
+                "lunch?");                    // 4
+
+        assertEquals(List.of(3L, 2L, 1L), index.search("standup", "staging", 10));
+        assertEquals(List.of(3L, 1L), index.search("standup", "staging depl", 10));
+        assertEquals(List.of(1L), index.search("standup", "deploy staging", 10));
+        assertEquals(List.of(), index.search("standup", "deploy lunch", 10));
+        assertEquals(List.of(3L), index.search("standup", "staging", 1)); // newest first
+        assertEquals(List.of(), index.search("standup", "a ?", 10));
+    }
+
+    @Test
+    void messagesAddedAfterTheFirstSearchAreFound() {
+        table("retro", "first message");
+        assertEquals(List.of(1L), index.search("retro", "message", 10));
+
+        for (long id = 2; id <= 10; id++) index.add(message("retro", id, "message number n" + id));
+        index.add(message("other-room", 11, "message elsewhere")); // never searched: not indexed
+
+        assertEquals(List.of(10L, 9L, 8L), index.search("retro", "message", 3));
+        assertEquals(List.of(7L), index.search("retro", "number n7", 10));
+        assertEquals(1, index.getIndexedRoomCount());
+    }
+
+    // Small flushes and segment limit force several freezes and merges; results must not change
+    @Test
+    void mergingSegmentsKeepsResults() {
+        Random random = new Random(3);
+        String[] words = {"alpha", "beta", "gamma", "delta", "epsilon", "alphabet"};
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            texts.add(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]);
+        }
+        table("big", "seed");
+        index.search("big", "seed", 1);
+        for (int i = 0; i < texts.size(); i++) {
+            index.add(message("big", 1000 + i, texts.get(i)));
+        }
+
+        List<String> queries = List.of("alpha", "alph", "beta gamma", "delta alpha", "eps", "zzz");
+        List<List<Long>> before = new ArrayList<>();
+        for (String query : queries) before.add(index.search("big", query, 500));
+        for (int i = 0; i < 10; i++) index.mergeSegments();
+        for (int i = 0; i < queries.size(); i++) {
+            assertEquals(before.get(i), index.search("big", queries.get(i), 500), queries.get(i));
+            assertEquals(expected(texts, queries.get(i)), before.get(i), queries.get(i));
+        }
+    }
+
+    @Test
+    void roomsWithoutChatAreNotKept() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(List.of(), index.search("made-up-" + i, "anything", 10));
+        }
+        assertEquals(0, index.getIndexedRoomCount());
+        assertEquals(0, index.getIndexBytes());
+    }
+
+    @Test
+    void roomCountIsCapped() {
+        ReflectionTestUtils.setField(index, "maxRooms", 10);
+        for (int i = 0; i < 50; i++) {
+            table("room-" + i, "hello from room " + i);
+            assertEquals(1, index.search("room-" + i, "hello", 10).size());
+        }
+        assertTrue(index.getIndexedRoomCount() <= 10, "rooms kept: " + index.getIndexedRoomCount());
+        assertEquals(1, index.search("room-49", "hello", 10).size());
+    }
+
+    // Brute force over texts indexed as ids 1000.., newest first
+    private static List<Long> expected(List<String> texts, String query) {
+        List<String> terms = new ArrayList<>(ChatSearchIndex.tokenize(query));
+        List<Long> result = new ArrayList<>();
+        for (int i = texts.size() - 1; i >= 0; i--) {
+            List<String> words = new ArrayList<>(ChatSearchIndex.tokenize(texts.get(i)));
+            boolean all = true;
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                boolean last = t == terms.size() - 1;
+                all &= words.stream().anyMatch(w -> last ? w.startsWith(term) : w.equals(term));
+            }
+            if (all) result.add(1000L + i);
+        }
+        return result;
+    }
+
+    // Rows 1..n of the room's table
+    private void table(String roomId, String... texts) {
+        List<ChatMessage> rows = new ArrayList<>();
+        for (int i = 0; i < texts.length; i++) rows.add(message(roomId, i + 1, texts[i]));
+        when(repository.findByRoomId(roomId)).thenReturn(rows);
+    }
+
+    private static ChatMessage message(String roomId, long id, String text) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRoomId(roomId);
+        message.setSender("a@vidmeet.test");
+        message.setMessage(text);
+        return message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.vidmeet.service;
+
+import com.vidmeet.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Presence flushes against a mocked repository whose bulk updates can be made to fail
+class PresenceServiceTest {
+
+    private static final String EMAIL = "ada@vidmeet.test";
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final PresenceService presence = new PresenceService(users);
+
+    @Test
+    void failedFlushIsRetriedNextRound() {
+        doThrow(new IllegalStateException("connection refused")).doReturn(1)
+                .when(users).markOnline(anyCollection(), any());
+        presence.connected(EMAIL);
+
+        presence.flush();
+        presence.flush();
+        verify(users, times(2)).markOnline(eq(List.of(EMAIL)), any());
+
+        presence.flush();
+        verify(users, times(2)).markOnline(anyCollection(), any());
+    }
+
+    @Test
+    void retryKeepsAFlipThatLandedDuringTheFailedWrite() {
+        doAnswer(call -> {
+            presence.disconnected(EMAIL); // goes offline while the online write is failing
+            throw new IllegalStateException("timeout");
+        }).when(users).markOnline(anyCollection(), any());
+        presence.connected(EMAIL);
+
+        presence.flush();
+        doReturn(1).when(users).markOnline(anyCollection(), any());
+        presence.flush();
+
+        verify(users, times(1)).markOnline(anyCollection(), any());
+        verify(users).markOffline(List.of(EMAIL));
+    }
+
+    @Test
+    void startupResetCanBeTurnedOffForSeveralNodes() {
+        presence.resetStaleFlags();
+        verify(users, times(1)).markAllOffline();
+
+        PresenceService other = new PresenceService(users);
+        ReflectionTestUtils.setField(other, "resetOnStartup", false);
+        other.resetStaleFlags();
+        verify(users, times(1)).markAllOffline();
+        verify(users, never()).markOffline(anyCollection());
+    }
+}
@@ -0,0 +1,83 @@
+package com.vidmeet.service;
+
+import com.vidmeet.model.UserCard;
+import com.vidmeet.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Cards over a mocked repository that matches emails case-insensitively, like MySQL does
+class ProfileCardCacheTest {
+
+    private static final UserCard ALICE = card(1L, "alice@vidmeet.test", "Alice");
+    private static final UserCard BOB = card(2L, "bob@vidmeet.test", "Bob");
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final ProfileCardCache cache = new ProfileCardCache(users);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 1000);
+        when(users.findCardsByEmailIn(anyCollection())).thenAnswer(call -> {
+            Collection<String> emails = call.getArgument(0);
+            return List.of(ALICE, BOB).stream()
+                    .filter(card -> emails.stream().anyMatch(card.email()::equalsIgnoreCase))
+                    .toList();
+        });
+    }
+
+    @Test
+    void batchMissesAreOneQueryAndHitsNone() {
+        Map<String, UserCard> cards = cache.getAll(List.of("alice@vidmeet.test", "bob@vidmeet.test", "nobody@vidmeet.test"));
+        assertEquals(Set.of("alice@vidmeet.test", "bob@vidmeet.test"), cards.keySet());
+
+        assertEquals(ALICE, cache.get("alice@vidmeet.test"));
+        cache.getAll(List.of("alice@vidmeet.test", "bob@vidmeet.test"));
+        verify(users, times(1)).findCardsByEmailIn(anyCollection());
+    }
+
+    @Test
+    void resultsAreKeyedByTheRequestedSpelling() {
+        assertEquals(ALICE, cache.get("Alice@Vidmeet.test"));
+        Map<String, UserCard> cards = cache.getAll(List.of("ALICE@VIDMEET.TEST", "bob@vidmeet.test"));
+        assertEquals(List.of("ALICE@VIDMEET.TEST", "bob@vidmeet.test"), List.copyOf(cards.keySet()));
+        assertEquals("alice@vidmeet.test", cards.get("ALICE@VIDMEET.TEST").email());
+        verify(users, times(2)).findCardsByEmailIn(anyCollection()); // bob only the second time
+    }
+
+    @Test
+    void invalidateReloadsWhateverTheCase() {
+        cache.get("alice@vidmeet.test");
+        cache.invalidate("Alice@vidmeet.test");
+        assertNotNull(cache.get("alice@vidmeet.test"));
+        verify(users, times(2)).findCardsByEmailIn(anyCollection());
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 0L);
+        cache.get("alice@vidmeet.test");
+        cache.get("alice@vidmeet.test");
+        verify(users, times(2)).findCardsByEmailIn(anyCollection());
+        assertNull(cache.get("nobody@vidmeet.test"));
+    }
+
+    private static UserCard card(Long id, String email, String name) {
+        return new UserCard(id, email, name, name, null, null, null, false);
+    }
+}
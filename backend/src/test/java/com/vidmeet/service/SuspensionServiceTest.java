@@ -0,0 +1,68 @@
+package com.vidmeet.service;
+
+import com.vidmeet.repository.RevokedTokenRepository;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.TokenRevocationService;
+import com.vidmeet.websocket.SessionDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Suspension with a real revocation service over mocked repositories
+class SuspensionServiceTest {
+
+    private static final String EMAIL = "mallory@vidmeet.test";
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final TokenRevocationService revocation = new TokenRevocationService(mock(RevokedTokenRepository.class));
+    private final SessionDirectory directory = mock(SessionDirectory.class);
+    private final WebSocketSession socket = mock(WebSocketSession.class);
+    private final SuspensionService suspensions = new SuspensionService(users, revocation, directory);
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocation, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revocation, "falsePositiveRate", 0.001);
+        revocation.load();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret!");
+        when(users.updateStatus(EMAIL, "suspended")).thenReturn(1);
+        when(directory.sessionsOf(EMAIL)).thenReturn(Set.of(socket));
+    }
+
+    @Test
+    void suspensionRevokesIssuedTokensAndClosesSockets() throws Exception {
+        String token = jwtUtil.generateToken(EMAIL);
+        String bystander = jwtUtil.generateToken("alice@vidmeet.test");
+        assertFalse(revocation.isRevoked(jwtUtil.parseValidClaims(token)));
+
+        assertTrue(suspensions.suspend(EMAIL));
+
+        verify(users).updateStatus(EMAIL, "suspended");
+        assertTrue(revocation.isRevoked(jwtUtil.parseValidClaims(token)));
+        assertFalse(revocation.isRevoked(jwtUtil.parseValidClaims(bystander)));
+        verify(socket).close(any(CloseStatus.class));
+    }
+
+    @Test
+    void unknownUserRevokesNothing() throws Exception {
+        String token = jwtUtil.generateToken("nobody@vidmeet.test");
+        assertFalse(suspensions.suspend("nobody@vidmeet.test"));
+        assertFalse(revocation.isRevoked(jwtUtil.parseValidClaims(token)));
+        verify(directory, never()).sessionsOf(anyString());
+    }
+}
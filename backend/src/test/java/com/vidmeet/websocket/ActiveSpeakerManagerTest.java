@@ -0,0 +1,90 @@
+package com.vidmeet.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hints a room gets as it grows past the mesh limit and shrinks back, ticked by hand
+class ActiveSpeakerManagerTest {
+
+    private static final String ROOM = "town-hall";
+    private static final String MAIN = BreakoutRooms.MAIN;
+
+    private final ActiveSpeakerManager manager = new ActiveSpeakerManager(2, 3, 0, 1000);
+    private final Map<String, Integer> sizes = new HashMap<>();
+    private final List<String> hints = new ArrayList<>();
+
+    ActiveSpeakerManagerTest() {
+        manager.start((roomId, partition) -> sizes.getOrDefault(partition, 0),
+                (roomId, partition, speakers, added, removed) ->
+                        hints.add(partition + " speakers " + speakers + " +" + added + " -" + removed),
+                (roomId, partition) -> hints.add(partition + " mesh " + roomId));
+    }
+
+    @Test
+    void shrinkingBelowTheMeshLimitSendsAMeshHintOnce() {
+        sizes.put(MAIN, 5);
+        manager.reportLevel(ROOM, MAIN, "alice@vidmeet.test", 0.9);
+        manager.reportLevel(ROOM, MAIN, "bob@vidmeet.test", 0.5);
+        manager.tick();
+        assertEquals(List.of("main speakers [alice@vidmeet.test, bob@vidmeet.test] +[alice@vidmeet.test, bob@vidmeet.test] -[]"), hints);
+        assertFalse(manager.mayConnect(ROOM, MAIN, "carol@vidmeet.test", "dave@vidmeet.test"));
+
+        hints.clear();
+        sizes.put(MAIN, 3);
+        manager.tick();
+        manager.tick();
+        assertEquals(List.of("main mesh " + ROOM), hints);
+    }
+
+    @Test
+    void growingAgainAnnouncesTheWholeSpeakerSet() {
+        sizes.put(MAIN, 5);
+        manager.reportLevel(ROOM, MAIN, "alice@vidmeet.test", 0.9);
+        manager.tick();
+        sizes.put(MAIN, 2);
+        manager.tick();
+
+        hints.clear();
+        sizes.put(MAIN, 4);
+        manager.tick();
+        // Clients dropped their speaker set with the mesh hint, so nothing counts as kept
+        assertEquals(List.of("main speakers [alice@vidmeet.test] +[alice@vidmeet.test] -[]"), hints);
+    }
+
+    @Test
+    void partitionsAreRankedAndHintedOnTheirOwn() {
+        sizes.put(MAIN, 2);
+        sizes.put("red", 4);
+        manager.reportLevel(ROOM, MAIN, "alice@vidmeet.test", 0.9);
+        manager.reportLevel(ROOM, "red", "bob@vidmeet.test", 0.2);
+        manager.tick();
+
+        // Main is small enough for a mesh; alice's level must not make her a speaker in red
+        assertEquals(List.of("red speakers [bob@vidmeet.test] +[bob@vidmeet.test] -[]"), hints);
+        assertFalse(manager.mayConnect(ROOM, "red", "carol@vidmeet.test", "alice@vidmeet.test"));
+
+        hints.clear();
+        manager.discard(ROOM, "red");
+        manager.tick();
+        assertTrue(hints.isEmpty());
+        assertEquals(List.of(), manager.getSpeakers(ROOM, "red"));
+        assertEquals(List.of("alice@vidmeet.test"), manager.getSpeakers(ROOM, MAIN));
+    }
+
+    @Test
+    void smallRoomsStayQuiet() {
+        sizes.put(MAIN, 3);
+        manager.reportLevel(ROOM, MAIN, "alice@vidmeet.test", 0.9);
+        manager.tick();
+        manager.tick();
+        assertTrue(hints.isEmpty());
+    }
+}
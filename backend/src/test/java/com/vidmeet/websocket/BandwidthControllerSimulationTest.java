@@ -0,0 +1,168 @@
+package com.vidmeet.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Replays recorded downlink capacity traces through BandwidthController in simulated time.
+// One receiver gets media from three senders; every second, as Room.jsx does, it reports the loss and RTT a
+// bottleneck of the trace's capacity (and base RTT, if the trace has one) would produce, and
+// senders obey the hints immediately.
+// No clocks, threads or randomness, so every run is identical.
+class BandwidthControllerSimulationTest {
+
+    private static final List<String> SENDERS = List.of("alice@vidmeet.test", "bob@vidmeet.test", "carol@vidmeet.test");
+    private static final double ENCODER_MAX_KBPS = 2500;
+    private static final double BASE_RTT_MS = 40;
+
+    @Test
+    void convergesAfterCapacityDropAndRecovery() throws IOException {
+        Simulation sim = run("step-down-up.csv", 180);
+
+        // Drop 3000 -> 600 at 60 s: total send rate back under the bottleneck quickly, then low loss
+        int settledDown = sim.settleTime(60, 120, 0.6, 1.1);
+        assertTrue(settledDown <= 8, "took " + settledDown + " s to settle after the drop");
+        assertTrue(sim.meanLoss(60 + settledDown, 120) < 2, "mean loss " + sim.meanLoss(60 + settledDown, 120));
+
+        // Recovery 600 -> 3000 at 120 s: probe back up within half a minute
+        int settledUp = sim.settleTime(120, 180, 0.6, 1.1);
+        assertTrue(settledUp <= 30, "took " + settledUp + " s to settle after recovery");
+
+        // Hysteresis: once settled, each sender's layer changes at most once per segment
+        assertTrue(sim.layerChanges(60 + settledDown, 120) <= SENDERS.size(),
+                "layer changes " + sim.layerChanges(60 + settledDown, 120));
+        assertTrue(sim.layerChanges(120 + settledUp, 180) <= SENDERS.size(),
+                "layer changes " + sim.layerChanges(120 + settledUp, 180));
+    }
+
+    @Test
+    void adoptsAHigherBaseRttInsteadOfBackingOffForever() throws IOException {
+        Simulation sim = run("rtt-step.csv", 120);
+
+        // The first reports at 150 ms look like queueing; once the 40 ms samples have left the
+        // window the new delay is the baseline and the estimate probes back up
+        int settled = sim.settleTime(60, 120, 0.6, 1.1);
+        assertTrue(settled <= 45, "took " + settled + " s to settle after the RTT step");
+        assertTrue(sim.meanUtilization(60 + settled, 120) > 0.8, "utilization " + sim.meanUtilization(60 + settled, 120));
+        assertTrue(sim.meanLoss(60, 120) < 2, "mean loss " + sim.meanLoss(60, 120));
+    }
+
+    @Test
+    void staysStableOnFluctuatingCellularLink() throws IOException {
+        Simulation sim = run("cellular.csv", 100);
+
+        assertTrue(sim.meanLoss(10, 100) < 3, "mean loss " + sim.meanLoss(10, 100));
+        assertTrue(sim.meanUtilization(10, 100) > 0.6, "utilization " + sim.meanUtilization(10, 100));
+        // Capacity changes every 5 s; layers must not follow every wiggle
+        assertTrue(sim.layerChanges(10, 100) <= 12, "layer changes " + sim.layerChanges(10, 100));
+    }
+
+    private static Simulation run(String trace, int seconds) throws IOException {
+        List<double[]> steps = readTrace(trace);
+        BandwidthController controller = new BandwidthController(true, 300, 900, 5000, 0.15);
+        Simulation sim = new Simulation(seconds);
+        Map<String, Double> caps = new HashMap<>();
+        Map<String, BandwidthController.Layer> layers = new HashMap<>();
+        SENDERS.forEach(s -> caps.put(s, 1000.0));
+
+        for (int t = 0; t < seconds; t++) {
+            double[] step = stepAt(steps, t);
+            double capacity = step[1];
+            double baseRtt = step.length > 2 ? step[2] : BASE_RTT_MS;
+            double sent = 0;
+            for (String s : SENDERS) sent += Math.min(ENCODER_MAX_KBPS, caps.get(s));
+            double overload = Math.max(0, sent - capacity);
+            double loss = overload / sent * 100;
+            double rtt = baseRtt + (overload > 0 ? 40 + 200 * overload / capacity : 0);
+
+            sim.capacity[t] = capacity;
+            sim.sent[t] = sent;
+            sim.loss[t] = loss;
+            for (BandwidthController.Hint hint : controller.onReceiverStats("room", "rx@vidmeet.test",
+                    t * 1000L, loss, rtt, 0, SENDERS)) {
+                if (hint.maxKbps() != null) caps.put(hint.sender(), (double) hint.maxKbps());
+                if (hint.layer() != null) {
+                    if (layers.put(hint.sender(), hint.layer()) != null) sim.layerChangeAt[t]++;
+                }
+            }
+        }
+        return sim;
+    }
+
+    private static List<double[]> readTrace(String name) throws IOException {
+        List<double[]> steps = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BandwidthControllerSimulationTest.class.getResourceAsStream("/bandwidth-traces/" + name),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] parts = line.split(",");
+                double[] step = new double[parts.length];
+                for (int i = 0; i < parts.length; i++) step[i] = Double.parseDouble(parts[i].trim());
+                steps.add(step);
+            }
+        }
+        return steps;
+    }
+
+    private static double[] stepAt(List<double[]> steps, int second) {
+        double[] current = steps.get(0);
+        for (double[] step : steps) {
+            if (step[0] <= second) current = step;
+        }
+        return current;
+    }
+
+    private static final class Simulation {
+        final double[] capacity;
+        final double[] sent;
+        final double[] loss;
+        final int[] layerChangeAt;
+
+        Simulation(int seconds) {
+            capacity = new double[seconds];
+            sent = new double[seconds];
+            loss = new double[seconds];
+            layerChangeAt = new int[seconds];
+        }
+
+        // Seconds from 'from' until utilization stays within [low, high] up to 'to'
+        int settleTime(int from, int to, double low, double high) {
+            int settled = to;
+            for (int t = to - 1; t >= from; t--) {
+                double utilization = sent[t] / capacity[t];
+                if (utilization < low || utilization > high) break;
+                settled = t;
+            }
+            return settled - from;
+        }
+
+        double meanLoss(int from, int to) {
+            double sum = 0;
+            for (int t = from; t < to; t++) sum += loss[t];
+            return sum / (to - from);
+        }
+
+        double meanUtilization(int from, int to) {
+            double sum = 0;
+            for (int t = from; t < to; t++) sum += Math.min(sent[t], capacity[t]) / capacity[t];
+            return sum / (to - from);
+        }
+
+        int layerChanges(int from, int to) {
+            int changes = 0;
+            for (int t = from; t < to; t++) changes += layerChangeAt[t];
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Chat and signaling fan-out in one meeting, flat vs split into breakouts of breakoutSize.
+// Split, each frame costs the sender's partition rather than the whole meeting; moveAndBack
+// is the price of reassigning one participant (no reconnect).
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=BreakoutBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BreakoutBenchmark {
+
+    @Param({"200"})
+    public int roomSize;
+
+    @Param({"0", "10"})
+    public int breakoutSize;
+
+    private VideoSocketHandler handler;
+    private BreakoutRooms breakouts;
+    private final List<StubWebSocketSession> sessions = new ArrayList<>();
+    private String roomId;
+    private final TextMessage chat = new TextMessage("{\"type\":\"chat\",\"message\":\"great point, +1\"}");
+    private final TextMessage offer = new TextMessage("{\"type\":\"offer\",\"from\":\"user1@vidmeet.test\",\"sdp\":\"v=0\"}");
+    private TextMessage moveOut;
+    private TextMessage moveBack;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        PresenceService presence = new PresenceService(Mockito.mock(UserRepository.class));
+        handler = new VideoSocketHandler(presence, new SimpleMeterRegistry(), RoomEventJournal.disabled(),
+                InboundRateLimiter.unlimited(), OverloadGuard.unlimited(), ChatBatcher.disabled(),
+                ActiveSpeakerManager.disabled(), new CallQualityStore(), BandwidthController.disabled(),
+                new SessionDirectory());
+        breakouts = (BreakoutRooms) ReflectionTestUtils.getField(handler, "breakouts");
+        roomId = "breakout-bench-" + breakoutSize;
+        VideoSocketHandler.roomHosts.put(roomId, "user0@vidmeet.test");
+        for (int i = 0; i < roomSize; i++) {
+            StubWebSocketSession session = new StubWebSocketSession("b" + i, roomId, "user" + i + "@vidmeet.test");
+            handler.afterConnectionEstablished(session);
+            sessions.add(session);
+        }
+        if (breakoutSize > 0) {
+            StringBuilder assignments = new StringBuilder();
+            for (int i = 1; i < roomSize; i++) {
+                if (assignments.length() > 0) assignments.append(',');
+                assignments.append("\"user").append(i).append("@vidmeet.test\":\"room-").append(i / breakoutSize).append('"');
+            }
+            handler.handleMessage(sessions.get(0), assign(assignments.toString()));
+        }
+        moveOut = assign("\"user1@vidmeet.test\":\"room-x\"");
+        moveBack = assign("\"user1@vidmeet.test\":\"" + (breakoutSize > 0 ? "room-0" : "main") + "\"");
+    }
+
+    private static TextMessage assign(String assignments) {
+        return new TextMessage("{\"type\":\"breakout_assign\",\"assignments\":{" + assignments + "}}");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (StubWebSocketSession session : sessions) {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+        VideoSocketHandler.roomHosts.remove(roomId);
+    }
+
+    @Benchmark
+    public void chatMessage() throws Exception {
+        handler.handleMessage(sessions.get(1), chat);
+        // Keep history from growing across ops
+        VideoSocketHandler.roomMessages.remove(roomId);
+        if (breakoutSize > 0) breakouts.history(roomId, "room-0").clear();
+    }
+
+    @Benchmark
+    public void signalingRelay() throws Exception {
+        handler.handleMessage(sessions.get(1), offer);
+    }
+
+    @Benchmark
+    public void moveAndBack() throws Exception {
+        handler.handleMessage(sessions.get(0), moveOut);
+        handler.handleMessage(sessions.get(0), moveBack);
+    }
+}
@@ -0,0 +1,251 @@
+package com.vidmeet.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Partition bookkeeping on its own, then chat through the handler staying inside a breakout
+class BreakoutRoomsTest {
+
+    private static final String ROOM = "workshop";
+    private static final String HOST = "host@vidmeet.test";
+
+    private final BreakoutRooms breakouts = new BreakoutRooms();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void clearRooms() {
+        VideoSocketHandler.roomParticipants.clear();
+        VideoSocketHandler.roomMessages.clear();
+        VideoSocketHandler.roomHosts.clear();
+        VideoSocketHandler.pendingJoinRequests.clear();
+    }
+
+    @Test
+    void firstMoveSplitsTheRoomAndLaterJoinsLandInMain() {
+        StubWebSocketSession a = session("a@vidmeet.test");
+        StubWebSocketSession b = session("b@vidmeet.test");
+        List<WebSocketSession> room = new ArrayList<>(List.of(a, b));
+        breakouts.join(ROOM, a); // not split yet: nothing tracked
+        assertNull(breakouts.members(ROOM, BreakoutRooms.MAIN));
+
+        assertEquals(BreakoutRooms.MAIN, breakouts.move(ROOM, room, a, "red"));
+        assertEquals("red", breakouts.partitionOf(a));
+        assertEquals(List.of(a), breakouts.members(ROOM, "red"));
+        assertEquals(List.of(b), breakouts.members(ROOM, BreakoutRooms.MAIN));
+
+        StubWebSocketSession c = session("c@vidmeet.test");
+        breakouts.join(ROOM, c);
+        assertEquals(List.of(b, c), breakouts.members(ROOM, BreakoutRooms.MAIN));
+        assertEquals(BreakoutRooms.MAIN, breakouts.partitionOf(c));
+    }
+
+    @Test
+    void movingBetweenBreakoutsDropsTheEmptyOne() {
+        StubWebSocketSession a = session("a@vidmeet.test");
+        List<WebSocketSession> room = List.of(a);
+        breakouts.move(ROOM, room, a, "red");
+        breakouts.history(ROOM, "red").add(new VideoSocketHandler.ChatMessage("hi", "a@vidmeet.test", new Date()));
+
+        assertEquals("red", breakouts.move(ROOM, room, a, "blue"));
+        assertEquals("blue", breakouts.move(ROOM, room, a, "blue")); // already there: no-op
+        assertEquals(List.of(BreakoutRooms.MAIN, "blue"), List.copyOf(breakouts.partitions(ROOM).keySet()));
+
+        assertEquals("blue", breakouts.move(ROOM, room, a, BreakoutRooms.MAIN));
+        assertNull(a.getAttributes().get(BreakoutRooms.ATTR_PARTITION));
+        assertEquals(List.of(a), breakouts.members(ROOM, BreakoutRooms.MAIN));
+    }
+
+    @Test
+    void lastLeaverTakesTheBreakoutAndItsHistoryWithIt() {
+        StubWebSocketSession a = session("a@vidmeet.test");
+        StubWebSocketSession b = session("b@vidmeet.test");
+        List<WebSocketSession> room = List.of(a, b);
+        breakouts.move(ROOM, room, a, "red");
+        breakouts.history(ROOM, "red").add(new VideoSocketHandler.ChatMessage("secret", "a@vidmeet.test", new Date()));
+
+        breakouts.leave(ROOM, a);
+        assertEquals(List.of(), breakouts.members(ROOM, "red"));
+        assertTrue(breakouts.history(ROOM, "red").isEmpty());
+
+        // Main stays even when empty
+        breakouts.leave(ROOM, b);
+        assertEquals(List.of(BreakoutRooms.MAIN), List.copyOf(breakouts.partitions(ROOM).keySet()));
+    }
+
+    @Test
+    void closeSendsEveryoneBackToMainAndUnsplits() {
+        StubWebSocketSession a = session("a@vidmeet.test");
+        StubWebSocketSession b = session("b@vidmeet.test");
+        List<WebSocketSession> room = List.of(a, b);
+        breakouts.move(ROOM, room, a, "red");
+        breakouts.move(ROOM, room, b, "blue");
+
+        breakouts.close(ROOM);
+        assertEquals(BreakoutRooms.MAIN, breakouts.partitionOf(a));
+        assertEquals(BreakoutRooms.MAIN, breakouts.partitionOf(b));
+        assertNull(breakouts.members(ROOM, BreakoutRooms.MAIN));
+        assertTrue(breakouts.partitions(ROOM).isEmpty());
+    }
+
+    @Test
+    void chatStaysWithinTheSendersPartition() throws Exception {
+        VideoSocketHandler handler = handler(ActiveSpeakerManager.disabled());
+        VideoSocketHandler.roomHosts.put(ROOM, HOST);
+        RecordingSession host = join(handler, HOST);
+        RecordingSession red1 = join(handler, "red1@vidmeet.test");
+        RecordingSession red2 = join(handler, "red2@vidmeet.test");
+        RecordingSession stay = join(handler, "stay@vidmeet.test");
+
+        send(handler, host, Map.of("type", "breakout_assign",
+                "assignments", Map.of("red1@vidmeet.test", "red", "red2@vidmeet.test", "red")));
+        clearFrames(host, red1, red2, stay);
+
+        send(handler, red1, Map.of("type", "chat", "message", "in red"));
+        send(handler, stay, Map.of("type", "chat", "message", "in main"));
+
+        assertEquals(List.of("in red"), chats(red1));
+        assertEquals(List.of("in red"), chats(red2));
+        assertEquals(List.of("in main"), chats(host));
+        assertEquals(List.of("in main"), chats(stay));
+        assertEquals(1, VideoSocketHandler.roomMessages.get(ROOM).size());
+
+        // Types the server doesn't know are relayed as-is, within the partition too
+        clearFrames(host, red1, red2, stay);
+        send(handler, red1, Map.of("type", "approve", "roomId", ROOM));
+        assertEquals(1, framesOfType(red2, "approve").size());
+        assertTrue(framesOfType(red1, "approve").isEmpty());
+        assertTrue(framesOfType(host, "approve").isEmpty());
+        assertTrue(framesOfType(stay, "approve").isEmpty());
+
+        // After close everyone shares one chat again and movers get main's history
+        clearFrames(host, red1, red2, stay);
+        send(handler, host, Map.of("type", "breakout_close"));
+        send(handler, red2, Map.of("type", "chat", "message", "together"));
+        for (RecordingSession session : List.of(host, red1, red2, stay)) {
+            assertEquals(List.of("together"), chats(session), session.getId());
+        }
+        assertEquals(List.of("in main"), historyOf(red1));
+    }
+
+    // Six people are a large room, but partitions of three and three are each a mesh
+    @Test
+    void speakerHintsFollowPartitionSizeAndStayInside() throws Exception {
+        ActiveSpeakerManager manager = new ActiveSpeakerManager(1, 3, 0, 1000);
+        VideoSocketHandler handler = handler(manager);
+        VideoSocketHandler.roomHosts.put(ROOM, HOST);
+        RecordingSession host = join(handler, HOST);
+        RecordingSession main1 = join(handler, "main1@vidmeet.test");
+        RecordingSession main2 = join(handler, "main2@vidmeet.test");
+        RecordingSession red1 = join(handler, "red1@vidmeet.test");
+        RecordingSession red2 = join(handler, "red2@vidmeet.test");
+        RecordingSession red3 = join(handler, "red3@vidmeet.test");
+        List<RecordingSession> everyone = List.of(host, main1, main2, red1, red2, red3);
+        send(handler, host, Map.of("type", "breakout_assign", "assignments",
+                Map.of("red1@vidmeet.test", "red", "red2@vidmeet.test", "red", "red3@vidmeet.test", "red")));
+
+        send(handler, host, Map.of("type", "audio_level", "level", 0.9));
+        send(handler, red1, Map.of("type", "audio_level", "level", 0.5));
+        clearFrames(everyone.toArray(RecordingSession[]::new));
+        manager.tick();
+        for (RecordingSession session : everyone) {
+            assertTrue(framesOfType(session, "speakers").isEmpty(), session.getId());
+        }
+
+        // A fourth member makes red large: only red hears about it, and only red1 can be its speaker
+        send(handler, host, Map.of("type", "breakout_assign", "assignments", Map.of("main2@vidmeet.test", "red")));
+        clearFrames(everyone.toArray(RecordingSession[]::new));
+        send(handler, red1, Map.of("type", "audio_level", "level", 0.5));
+        manager.tick();
+        for (RecordingSession session : List.of(host, main1)) {
+            assertTrue(framesOfType(session, "speakers").isEmpty(), session.getId());
+        }
+        for (RecordingSession session : List.of(main2, red1, red2, red3)) {
+            List<JsonNode> hints = framesOfType(session, "speakers");
+            assertEquals(1, hints.size(), session.getId());
+            assertEquals("[\"red1@vidmeet.test\"]", hints.get(0).get("speakers").toString());
+        }
+    }
+
+    private static VideoSocketHandler handler(ActiveSpeakerManager manager) {
+        return new VideoSocketHandler(
+                new PresenceService(Mockito.mock(UserRepository.class)), new SimpleMeterRegistry(),
+                RoomEventJournal.disabled(), InboundRateLimiter.unlimited(), OverloadGuard.unlimited(),
+                ChatBatcher.disabled(), manager, new CallQualityStore(),
+                BandwidthController.disabled(), new SessionDirectory());
+    }
+
+    private static StubWebSocketSession session(String email) {
+        return new StubWebSocketSession(email, ROOM, email);
+    }
+
+    private RecordingSession join(VideoSocketHandler handler, String email) {
+        RecordingSession session = new RecordingSession(email);
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    private void send(VideoSocketHandler handler, RecordingSession from, Map<String, Object> data) throws Exception {
+        handler.handleTextMessage(from, new TextMessage(objectMapper.writeValueAsString(data)));
+    }
+
+    private static void clearFrames(RecordingSession... sessions) {
+        for (RecordingSession session : sessions) session.frames.clear();
+    }
+
+    private List<JsonNode> framesOfType(RecordingSession session, String type) throws Exception {
+        List<JsonNode> frames = new ArrayList<>();
+        for (String frame : session.frames) {
+            JsonNode data = objectMapper.readTree(frame);
+            if (type.equals(data.path("type").asText())) frames.add(data);
+        }
+        return frames;
+    }
+
+    private List<String> chats(RecordingSession session) throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (JsonNode chat : framesOfType(session, "chat")) messages.add(chat.get("message").asText());
+        return messages;
+    }
+
+    private List<String> historyOf(RecordingSession session) throws Exception {
+        List<JsonNode> history = framesOfType(session, "chat-history");
+        if (history.isEmpty()) return null;
+        List<String> messages = new ArrayList<>();
+        for (JsonNode message : history.get(0).get("messages")) messages.add(message.get("message").asText());
+        return messages;
+    }
+
+    private static class RecordingSession extends StubWebSocketSession {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+
+        RecordingSession(String email) {
+            super(email, ROOM, email);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            frames.add(((TextMessage) message).getPayload());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One tick's worth of chat (messagesPerTick messages) in a large room, sent immediately vs
+// batched into a single chat-batch frame. Sends per tick are printed at teardown so the
+// send-call reduction is visible next to the time.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=ChatBatchBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatBatchBenchmark {
+
+    @Param({"200", "1000"})
+    public int roomSize;
+
+    @Param({"20"})
+    public int messagesPerTick;
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private VideoSocketHandler handler;
+    private ChatBatcher batcher;
+    private final List<StubWebSocketSession> sessions = new ArrayList<>();
+    private String roomId;
+    private long ticks;
+    private final TextMessage chat = new TextMessage("{\"type\":\"chat\",\"message\":\"great point, +1\"}");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // No ticker thread: the benchmark flushes explicitly, once per op
+        batcher = batched ? new ChatBatcher(1, 0) : ChatBatcher.disabled();
+        PresenceService presence = new PresenceService(Mockito.mock(UserRepository.class));
+        handler = new VideoSocketHandler(presence, new SimpleMeterRegistry(), RoomEventJournal.disabled(),
+                InboundRateLimiter.unlimited(), OverloadGuard.unlimited(), batcher, ActiveSpeakerManager.disabled(),
+                new CallQualityStore(), BandwidthController.disabled(), new SessionDirectory());
+        roomId = "chat-bench-" + roomSize;
+        for (int i = 0; i < roomSize; i++) {
+            StubWebSocketSession session = new StubWebSocketSession("c" + i, roomId, "user" + i + "@vidmeet.test");
+            handler.afterConnectionEstablished(session);
+            sessions.add(session);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long sends = sessions.stream().mapToLong(StubWebSocketSession::getSentFrames).sum();
+        System.out.printf("%nroomSize=%d batched=%s: %.0f sends per tick%n", roomSize, batched, (double) sends / ticks);
+        for (StubWebSocketSession session : sessions) {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+    }
+
+    @Benchmark
+    public void chatTick() throws Exception {
+        StubWebSocketSession sender = sessions.get(0);
+        for (int i = 0; i < messagesPerTick; i++) {
+            handler.handleMessage(sender, chat);
+        }
+        batcher.flush();
+        ticks++;
+        VideoSocketHandler.roomMessages.remove(roomId); // keep history from growing across ops
+    }
+}
@@ -0,0 +1,77 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.VideoSocketHandler.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ChatBatcher without its ticker: the test flushes explicitly, as the handler's tick would
+class ChatBatcherTest {
+
+    private final List<String> flushed = new ArrayList<>();
+    private final ChatBatcher batcher = new ChatBatcher(3, 0);
+
+    ChatBatcherTest() {
+        batcher.start((roomId, batch) -> {
+            StringBuilder frame = new StringBuilder(roomId + ":");
+            batch.forEach(message -> frame.append(' ').append(message.getMessage()));
+            flushed.add(frame.toString());
+        });
+    }
+
+    @Test
+    void roomsFromTheThresholdUpGetOneFramePerTick() {
+        assertFalse(batcher.shouldBatch("small", 2));
+        assertTrue(batcher.shouldBatch("large", 3));
+
+        batcher.add("large", message("one"));
+        batcher.add("large", message("two"));
+        batcher.add("other", message("three"));
+        assertTrue(flushed.isEmpty());
+
+        batcher.flush();
+        assertEquals(List.of("large: one two", "other: three"), flushed.stream().sorted().toList());
+        batcher.flush();
+        assertEquals(2, flushed.size());
+    }
+
+    @Test
+    void roomThatShrankKeepsBatchingUntilItsBufferDrains() {
+        batcher.add("large", message("queued"));
+        assertTrue(batcher.shouldBatch("large", 1)); // sending now would overtake "queued"
+        batcher.flush();
+        assertFalse(batcher.shouldBatch("large", 1));
+    }
+
+    @Test
+    void discardDropsTheRoomsBuffer() {
+        batcher.add("closed", message("never sent"));
+        batcher.discard("closed");
+        batcher.flush();
+        assertTrue(flushed.isEmpty());
+    }
+
+    // Rooms are capped at overload.max-room-size; a higher threshold would never be reached
+    @Test
+    void configuredThresholdIsReachableUnderTheRoomCap() throws Exception {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+        int threshold = Integer.parseInt(properties.getProperty("chat.batch.threshold"));
+        int maxRoomSize = Integer.parseInt(properties.getProperty("overload.max-room-size"));
+        assertTrue(threshold <= maxRoomSize, threshold + " > " + maxRoomSize);
+    }
+
+    private static ChatMessage message(String text) {
+        return new ChatMessage(text, "a@vidmeet.test", new Date());
+    }
+}
@@ -0,0 +1,45 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.socket.TextMessage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Direct messages over the socket: the sender can't tell an online recipient from an offline one
+class DirectMessageTest {
+
+    private final VideoSocketHandler handler = new VideoSocketHandler(
+            new PresenceService(Mockito.mock(UserRepository.class)), new SimpleMeterRegistry(),
+            RoomEventJournal.disabled(), InboundRateLimiter.unlimited(), OverloadGuard.unlimited(),
+            ChatBatcher.disabled(), ActiveSpeakerManager.disabled(), new CallQualityStore(),
+            BandwidthController.disabled(), new SessionDirectory());
+
+    @AfterEach
+    void clearRooms() {
+        VideoSocketHandler.roomParticipants.clear();
+        VideoSocketHandler.roomMessages.clear();
+        VideoSocketHandler.roomHosts.clear();
+    }
+
+    @Test
+    void senderHearsTheSameWhetherOrNotTheRecipientIsOnline() throws Exception {
+        StubWebSocketSession sender = new StubWebSocketSession("s", "standup", "alice@vidmeet.test");
+        StubWebSocketSession recipient = new StubWebSocketSession("r", "retro", "bob@vidmeet.test");
+        handler.afterConnectionEstablished(sender);
+        handler.afterConnectionEstablished(recipient);
+        long senderFrames = sender.getSentFrames();
+        long recipientFrames = recipient.getSentFrames();
+
+        handler.handleTextMessage(sender, new TextMessage("{\"type\":\"direct\",\"to\":\"bob@vidmeet.test\",\"message\":\"hi\"}"));
+        handler.handleTextMessage(sender, new TextMessage("{\"type\":\"direct\",\"to\":\"nobody@vidmeet.test\",\"message\":\"hi\"}"));
+
+        assertEquals(recipientFrames + 1, recipient.getSentFrames());
+        assertEquals(senderFrames, sender.getSentFrames());
+    }
+}
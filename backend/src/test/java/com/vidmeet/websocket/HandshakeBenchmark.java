@@ -0,0 +1,65 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.RevokedTokenRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.TokenRevocationService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Room/identity resolution. It happens once per connection in JwtHandshakeInterceptor;
+// afterwards the handler reads session attributes (sessionAttributeLookup).
+// Run with: mvn -Pbenchmark verify -DskipTests
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandshakeBenchmark {
+
+    private JwtHandshakeInterceptor interceptor;
+    private ServletServerHttpRequest request;
+    private ServletServerHttpResponse response;
+    private StubWebSocketSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "vidmeetSecret123vidmeetSecret123");
+        TokenRevocationService revocationService =
+                new TokenRevocationService(Mockito.mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 100_000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        revocationService.load();
+        interceptor = new JwtHandshakeInterceptor(jwtUtil, revocationService);
+
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/ws/room-42");
+        servletRequest.setQueryString("token=" + jwtUtil.generateToken("bench@vidmeet.test"));
+        request = new ServletServerHttpRequest(servletRequest);
+        response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        session = new StubWebSocketSession("s0", "room-42", "bench@vidmeet.test");
+    }
+
+    @Benchmark
+    public Map<String, Object> handshake() {
+        Map<String, Object> attributes = new HashMap<>();
+        interceptor.beforeHandshake(request, response, null, attributes);
+        return attributes;
+    }
+
+    @Benchmark
+    public int sessionAttributeLookup() {
+        Map<String, Object> attributes = session.getAttributes();
+        return ((String) attributes.get(JwtHandshakeInterceptor.ATTR_ROOM_ID)).length()
+                + ((String) attributes.get(JwtHandshakeInterceptor.ATTR_EMAIL)).length();
+    }
+}
@@ -0,0 +1,105 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.InboundRateLimiter.Decision;
+import com.vidmeet.websocket.InboundRateLimiter.Limit;
+import com.vidmeet.websocket.InboundRateLimiter.MessageClass;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Per-class buckets for a single session; slow limits never refill within a test
+class InboundRateLimiterTest {
+
+    private static final Limit SLOW = new Limit(3, 0.001);
+
+    private final StubWebSocketSession session = new StubWebSocketSession("s1", "room", "alice@vidmeet.test");
+
+    @Test
+    void burstUpToCapacityThenDrop() {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, SLOW, SLOW, SLOW, 10, 60_000);
+        for (int i = 0; i < 3; i++) assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+    }
+
+    @Test
+    void drainedBucketRefillsAtItsRate() throws Exception {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, new Limit(2, 50), SLOW, SLOW, 10, 60_000);
+        limiter.check(session, MessageClass.CHAT);
+        limiter.check(session, MessageClass.CHAT);
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+
+        Thread.sleep(100); // 50/s refills well past capacity, but no further
+        assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+    }
+
+    @Test
+    void classesHaveTheirOwnLimits() {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, new Limit(1, 0.001), new Limit(5, 0.001), SLOW, 100, 60_000);
+        assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+
+        // A chat flood doesn't hold up signaling or control
+        for (int i = 0; i < 5; i++) assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.SIGNALING));
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.SIGNALING));
+        for (int i = 0; i < 3; i++) assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CONTROL));
+
+        // Nor does another session's
+        StubWebSocketSession other = new StubWebSocketSession("s2", "room", "bob@vidmeet.test");
+        assertEquals(Decision.ALLOW, limiter.check(other, MessageClass.CHAT));
+    }
+
+    @Test
+    void typesMapToClasses() {
+        assertEquals(MessageClass.CHAT, InboundRateLimiter.classify("chat"));
+        assertEquals(MessageClass.CHAT, InboundRateLimiter.classify("direct"));
+        for (String type : new String[]{"offer", "answer", "ice-candidate", "audio_level"}) {
+            assertEquals(MessageClass.SIGNALING, InboundRateLimiter.classify(type), type);
+        }
+        assertEquals(MessageClass.CONTROL, InboundRateLimiter.classify("raise-hand"));
+        assertEquals(MessageClass.CONTROL, InboundRateLimiter.classify(null));
+    }
+
+    @Test
+    void repeatedOverrunsDisconnect() {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, new Limit(1, 0.001), SLOW, SLOW, 2, 60_000);
+        limiter.check(session, MessageClass.CHAT);
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+        assertEquals(Decision.DISCONNECT, limiter.check(session, MessageClass.CHAT));
+    }
+
+    @Test
+    void quietStrikeWindowForgivesEarlierDrops() throws Exception {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, new Limit(1, 0.001), SLOW, SLOW, 2, 20);
+        limiter.check(session, MessageClass.CHAT);
+        limiter.check(session, MessageClass.CHAT);
+        limiter.check(session, MessageClass.CHAT);
+
+        Thread.sleep(50);
+        assertEquals(Decision.DROP, limiter.check(session, MessageClass.CHAT));
+    }
+
+    @Test
+    void restChatIsLimitedPerSender() {
+        InboundRateLimiter limiter = new InboundRateLimiter(true, new Limit(2, 0.001), SLOW, SLOW, 10, 60_000);
+        assertTrue(limiter.tryChat("alice@vidmeet.test"));
+        assertTrue(limiter.tryChat("alice@vidmeet.test"));
+        assertFalse(limiter.tryChat("alice@vidmeet.test"));
+        assertTrue(limiter.tryChat("bob@vidmeet.test"));
+
+        // A drained bucket isn't full, so it survives the purge and stays drained
+        limiter.purgeIdleSenders();
+        assertFalse(limiter.tryChat("alice@vidmeet.test"));
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        InboundRateLimiter limiter = InboundRateLimiter.unlimited();
+        for (int i = 0; i < 1000; i++) assertEquals(Decision.ALLOW, limiter.check(session, MessageClass.CHAT));
+        assertTrue(limiter.tryChat("alice@vidmeet.test"));
+    }
+}
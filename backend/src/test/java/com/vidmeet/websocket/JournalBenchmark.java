@@ -0,0 +1,63 @@
+package com.vidmeet.websocket;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Cost the room journal adds to the signaling hot path, per appended event.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=JournalBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private Path directory;
+    private RoomEventJournal journal;
+    private final String chat = "{\"type\":\"chat\",\"message\":\"hello everyone, can you hear me?\"}";
+    private final String ice = "{\"type\":\"ice-candidate\",\"from\":\"a@vidmeet.test\",\"candidate\":"
+            + "{\"candidate\":\"candidate:1 1 udp 2122260223 192.168.1.10 54321 typ host\"}}";
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-bench");
+        journal = new RoomEventJournal(directory, 64 * 1024 * 1024, 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendChat() {
+        journal.inbound("room-1", "a@vidmeet.test", "chat", chat);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendSignalingMetadata() {
+        journal.inbound("room-1", "a@vidmeet.test", "ice-candidate", ice);
+    }
+
+    @Benchmark
+    public void disabledJournal(DisabledState state) {
+        state.journal.inbound("room-1", "a@vidmeet.test", "chat", chat);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DisabledState {
+        final RoomEventJournal journal = RoomEventJournal.disabled();
+    }
+}
@@ -0,0 +1,121 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.RevokedTokenRepository;
+import com.vidmeet.security.JwtUtil;
+import com.vidmeet.security.TokenRevocationService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Handshakes against a real JwtUtil and revocation filter; only the revocation table is mocked
+class JwtHandshakeInterceptorTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret!";
+    private static final String EMAIL = "alice@vidmeet.test";
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final TokenRevocationService revocation = new TokenRevocationService(mock(RevokedTokenRepository.class));
+    private final JwtHandshakeInterceptor interceptor = new JwtHandshakeInterceptor(jwtUtil, revocation);
+    private final Map<String, Object> attributes = new HashMap<>();
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(revocation, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revocation, "falsePositiveRate", 0.001);
+        revocation.load();
+    }
+
+    @Test
+    void validQueryTokenPinsIdentityAndRoom() {
+        assertTrue(handshake("/ws/standup", jwtUtil.generateToken(EMAIL), null));
+        assertEquals(EMAIL, attributes.get(JwtHandshakeInterceptor.ATTR_EMAIL));
+        assertEquals("standup", attributes.get(JwtHandshakeInterceptor.ATTR_ROOM_ID));
+    }
+
+    @Test
+    void bearerHeaderWinsOverQueryToken() {
+        String header = jwtUtil.generateToken(EMAIL);
+        String query = jwtUtil.generateToken("mallory@vidmeet.test");
+        assertTrue(handshake("/ws/standup", query, "Bearer " + header));
+        assertEquals(EMAIL, attributes.get(JwtHandshakeInterceptor.ATTR_EMAIL));
+
+        // A header that isn't a bearer token is ignored, not an error
+        attributes.clear();
+        assertTrue(handshake("/ws/standup", header, "Basic dXNlcjpwYXNz"));
+        assertEquals(EMAIL, attributes.get(JwtHandshakeInterceptor.ATTR_EMAIL));
+    }
+
+    @Test
+    void missingTokenIsUnauthorized() {
+        assertRejected("/ws/standup", null, null, HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void invalidTokensAreUnauthorized() {
+        assertRejected("/ws/standup", "not-a-jwt", null, HttpStatus.UNAUTHORIZED);
+        String forged = Jwts.builder().setSubject(EMAIL).setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, "some-other-secret-some-other-secret".getBytes()).compact();
+        assertRejected("/ws/standup", forged, null, HttpStatus.UNAUTHORIZED);
+        assertRejected("/ws/standup", jwtUtil.generateToken(EMAIL), "Bearer not-a-jwt", HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void expiredTokenIsUnauthorized() {
+        String expired = Jwts.builder().setId(UUID.randomUUID().toString()).setSubject(EMAIL)
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(SignatureAlgorithm.HS256, SECRET.getBytes()).compact();
+        assertRejected("/ws/standup", expired, null, HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void revokedTokenIsUnauthorized() {
+        String token = jwtUtil.generateToken(EMAIL);
+        revocation.revoke(jwtUtil.parseValidClaims(token));
+        assertRejected("/ws/standup", token, null, HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void malformedPathIsABadRequest() {
+        String token = jwtUtil.generateToken(EMAIL);
+        assertRejected("/ws", token, null, HttpStatus.BAD_REQUEST);
+        assertRejected("/ws/", token, null, HttpStatus.BAD_REQUEST);
+        assertRejected("/ws//extra", token, null, HttpStatus.BAD_REQUEST);
+    }
+
+    private void assertRejected(String path, String queryToken, String authorization, HttpStatus status) {
+        attributes.clear();
+        assertFalse(handshake(path, queryToken, authorization), path);
+        assertEquals(status.value(), response.getStatus());
+        assertTrue(attributes.isEmpty());
+    }
+
+    private boolean handshake(String path, String queryToken, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (queryToken != null) request.setQueryString("token=" + queryToken);
+        if (authorization != null) request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        response = new MockHttpServletResponse();
+        return interceptor.beforeHandshake(new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(response), null, attributes);
+    }
+}
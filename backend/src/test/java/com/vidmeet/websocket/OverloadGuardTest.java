@@ -0,0 +1,138 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hard caps with the sampler's thresholds out of reach, then a guard that saturates on its first sample
+class OverloadGuardTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<OverloadGuard> guards = new ArrayList<>();
+
+    @AfterEach
+    void stopSamplers() {
+        guards.forEach(OverloadGuard::close);
+    }
+
+    @Test
+    void roomSizeCapFreesUpOnRelease() {
+        OverloadGuard guard = guard(100, 10, 2);
+        assertNull(guard.admitSession("standup"));
+        assertNull(guard.admitSession("standup"));
+        assertEquals(OverloadGuard.ROOM_FULL, guard.admitSession("standup"));
+        assertNull(guard.admitSession("retro"));
+
+        guard.release("standup");
+        assertNull(guard.admitSession("standup"));
+        assertEquals(1, rejected("room"));
+    }
+
+    @Test
+    void sessionCapCoversTheWholeNode() {
+        OverloadGuard guard = guard(3, 10, 10);
+        assertNull(guard.admitSession("a"));
+        assertNull(guard.admitSession("b"));
+        assertNull(guard.admitSession("b"));
+        assertEquals(OverloadGuard.NODE_OVERLOADED, guard.admitSession("c"));
+        assertEquals(OverloadGuard.NODE_OVERLOADED, guard.admitSession("a"));
+        assertFalse(guard.admitMeeting());
+
+        guard.release("b");
+        assertNull(guard.admitSession("a"));
+        assertEquals(2, rejected("node"));
+    }
+
+    @Test
+    void roomCountCapOnlyStopsNewRooms() {
+        OverloadGuard guard = guard(100, 2, 10);
+        assertNull(guard.admitSession("a"));
+        assertNull(guard.admitSession("b"));
+        assertEquals(OverloadGuard.NODE_OVERLOADED, guard.admitSession("c"));
+        assertFalse(guard.admitMeeting());
+        assertNull(guard.admitSession("b"));
+
+        // A room is gone once its last session is
+        guard.release("b");
+        assertEquals(OverloadGuard.NODE_OVERLOADED, guard.admitSession("c"));
+        guard.release("b");
+        assertTrue(guard.admitMeeting());
+        assertNull(guard.admitSession("c"));
+    }
+
+    // Every handshake below used to see the same free slot before any of them was counted
+    @Test
+    void concurrentHandshakesNeverOvershootTheCaps() throws Exception {
+        OverloadGuard guard = guard(1000, 3, 10);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int worker = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    if (guard.admitSession("room-" + (worker + i) % 6) == null) admitted.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        // At most three rooms of ten
+        assertEquals(30, admitted.get());
+        assertEquals(800 - 30, (int) (rejected("node") + rejected("room")));
+    }
+
+    @Test
+    void saturatedNodeShedsNewSessionsAndMeetings() throws Exception {
+        // No backlog at all is still over a negative limit, so the first sample saturates
+        OverloadGuard guard = new OverloadGuard(true, 100, 10, 10, -1, 10_000, 30, 10_000, 512 * 1024);
+        guards.add(guard);
+        guard.watch(new ConcurrentHashMap<>(), registry);
+        for (int i = 0; i < 50 && !guard.isSaturated(); i++) Thread.sleep(20);
+        assertTrue(guard.isSaturated());
+
+        assertEquals(OverloadGuard.NODE_OVERLOADED, guard.admitSession("standup"));
+        assertFalse(guard.admitMeeting());
+        assertEquals(1, rejected("node"));
+        assertEquals(1, rejected("meeting"));
+        assertEquals(1, registry.get("vidmeet.node.saturated").gauge().value());
+    }
+
+    @Test
+    void disabledGuardAdmitsEverything() {
+        OverloadGuard guard = OverloadGuard.unlimited();
+        for (int i = 0; i < 100; i++) assertNull(guard.admitSession("standup"));
+        assertTrue(guard.admitMeeting());
+    }
+
+    private OverloadGuard guard(int maxSessions, int maxRooms, int maxRoomSize) {
+        OverloadGuard guard = new OverloadGuard(true, maxSessions, maxRooms, maxRoomSize,
+                Long.MAX_VALUE, 10_000, 30, 10_000, 512 * 1024);
+        guards.add(guard);
+        guard.watch(new ConcurrentHashMap<>(), registry);
+        return guard;
+    }
+
+    private double rejected(String reason) {
+        return registry.get("vidmeet.overload.rejected").tag("reason", reason).counter().count();
+    }
+}
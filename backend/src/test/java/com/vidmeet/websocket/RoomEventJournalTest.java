@@ -0,0 +1,151 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Records written through RoomEventJournal and read back with JournalReader
+class RoomEventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyKindReadsBackAsWritten() throws Exception {
+        RoomEventJournal journal = new RoomEventJournal(dir, 64 * 1024, 4);
+        journal.join("room-ü", "host@vidmeet.test");
+        journal.inbound("room-ü", "host@vidmeet.test", "chat", "{\"type\":\"chat\",\"message\":\"héllo ☕\"}");
+        String offer = "{\"type\":\"offer\",\"sdp\":\"v=0...\"}";
+        journal.inbound("room-ü", "host@vidmeet.test", "offer", offer);
+        journal.outbound("room-ü", 3, "{\"type\":\"participant-left\",\"id\":2}");
+        journal.outboundTo("room-ü", "guest@vidmeet.test", "{\"type\":\"chat-history\"}");
+        journal.outboundMeta("room-ü", "", 2, "relay", 512);
+        journal.kick("room-ü", "host@vidmeet.test", "guest@vidmeet.test");
+        journal.leave("room-ü", "host@vidmeet.test");
+        journal.close();
+
+        List<JournalRecord> records = readAll();
+        assertEquals(8, records.size());
+        assertEquals(List.of(RoomEventJournal.JOIN, RoomEventJournal.INBOUND, RoomEventJournal.INBOUND_META,
+                        RoomEventJournal.OUTBOUND, RoomEventJournal.OUTBOUND, RoomEventJournal.OUTBOUND_META,
+                        RoomEventJournal.KICK, RoomEventJournal.LEAVE),
+                records.stream().map(JournalRecord::kind).toList());
+        assertTrue(records.stream().allMatch(r -> r.roomId().equals("room-ü")));
+
+        assertEquals("{\"type\":\"chat\",\"message\":\"héllo ☕\"}", records.get(1).payload());
+        // Signaling is kept as size only
+        assertEquals("{\"type\":\"offer\",\"bytes\":" + offer.length() + "}", records.get(2).payload());
+        assertEquals(3, records.get(3).extra());
+        assertEquals("", records.get(3).email());
+        assertEquals("guest@vidmeet.test", records.get(4).email());
+        assertEquals(1, records.get(4).extra());
+        assertEquals("{\"type\":\"relay\",\"bytes\":512}", records.get(5).payload());
+        assertEquals("guest@vidmeet.test", records.get(6).payload());
+        assertTrue(records.get(0).epochMillis() > 0);
+    }
+
+    @Test
+    void rotationKeepsTheNewestSegmentsInOrder() throws Exception {
+        RoomEventJournal journal = new RoomEventJournal(dir, 1024, 3);
+        for (int i = 0; i < 500; i++) {
+            journal.outbound("room", 1, "{\"seq\":" + i + "}");
+        }
+        journal.close();
+
+        assertEquals(3, RoomEventJournal.listSegments(dir).size());
+        List<JournalRecord> records = readAll();
+        assertTrue(records.size() > 20 && records.size() < 500, records.size() + " records");
+        // A contiguous tail ending at the last record
+        int first = 500 - records.size();
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals("{\"seq\":" + (first + i) + "}", records.get(i).payload());
+        }
+        assertEquals(0, journal.getDroppedRecords());
+    }
+
+    @Test
+    void recordLargerThanASegmentIsDroppedAndCounted() throws Exception {
+        RoomEventJournal journal = new RoomEventJournal(dir, 256, 2);
+        journal.outbound("room", 1, "x".repeat(300));
+        journal.join("room", "a@vidmeet.test");
+        journal.close();
+
+        assertEquals(1, journal.getDroppedRecords());
+        assertEquals(List.of(RoomEventJournal.JOIN), readAll().stream().map(JournalRecord::kind).toList());
+    }
+
+    // Lock-free appends from several threads: nothing lost or torn, each writer's order kept
+    @Test
+    void concurrentWritersInterleaveWholeRecords() throws Exception {
+        RoomEventJournal journal = new RoomEventJournal(dir, 4 * 1024 * 1024, 4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String email = "writer" + t + "@vidmeet.test";
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) journal.inbound("room", email, "chat", "{\"seq\":" + i + "}");
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+        journal.close();
+
+        List<JournalRecord> records = readAll();
+        assertEquals(16_000, records.size());
+        Map<String, Integer> next = new HashMap<>();
+        for (JournalRecord record : records) {
+            int expected = next.merge(record.email(), 1, Integer::sum) - 1;
+            assertEquals("{\"seq\":" + expected + "}", record.payload(), record.email());
+        }
+        assertEquals(8, next.size());
+    }
+
+    // A kick frame without participantEmail used to throw in the journal before the broadcast
+    @Test
+    void kickWithoutParticipantIsNotJournaled() throws Exception {
+        RoomEventJournal journal = new RoomEventJournal(dir, 64 * 1024, 4);
+        VideoSocketHandler handler = new VideoSocketHandler(
+                new PresenceService(Mockito.mock(UserRepository.class)), new SimpleMeterRegistry(),
+                journal, InboundRateLimiter.unlimited(), OverloadGuard.unlimited(),
+                ChatBatcher.disabled(), ActiveSpeakerManager.disabled(), new CallQualityStore(),
+                BandwidthController.disabled(), new SessionDirectory());
+        try {
+            VideoSocketHandler.roomHosts.put("room", "host@vidmeet.test");
+            StubWebSocketSession host = new StubWebSocketSession("host", "room", "host@vidmeet.test");
+            StubWebSocketSession guest = new StubWebSocketSession("guest", "room", "guest@vidmeet.test");
+            handler.afterConnectionEstablished(host);
+            handler.afterConnectionEstablished(guest);
+            long before = guest.getSentFrames();
+
+            handler.handleTextMessage(host, new TextMessage("{\"type\":\"kick_participant\"}"));
+            journal.close();
+
+            assertTrue(guest.getSentFrames() > before);
+            assertTrue(readAll().stream().noneMatch(r -> r.kind() == RoomEventJournal.KICK));
+        } finally {
+            VideoSocketHandler.roomParticipants.clear();
+            VideoSocketHandler.roomMessages.clear();
+            VideoSocketHandler.roomHosts.clear();
+        }
+    }
+
+    private List<JournalRecord> readAll() throws Exception {
+        List<JournalRecord> records = new CopyOnWriteArrayList<>();
+        JournalReader.read(dir, records::add);
+        return records;
+    }
+}
@@ -0,0 +1,113 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.VideoSocketHandler.ChatMessage;
+import com.vidmeet.websocket.VideoSocketHandler.JoinRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomStateSnapshotterTest {
+
+    private final RoomStateSnapshotter snapshotter = new RoomStateSnapshotter();
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    @AfterEach
+    void clearRooms() {
+        VideoSocketHandler.roomHosts.clear();
+        VideoSocketHandler.roomMessages.clear();
+        VideoSocketHandler.pendingJoinRequests.clear();
+    }
+
+    @Test
+    void roundTripRestoresHostsPendingAndChat() throws Exception {
+        VideoSocketHandler.roomHosts.put("room-a", "host@vidmeet.test");
+        VideoSocketHandler.pendingJoinRequests.put("room-a", new CopyOnWriteArrayList<>(List.of(
+                new JoinRequest("guest@vidmeet.test", new Date(1000)))));
+        VideoSocketHandler.roomMessages.put("room-a", new CopyOnWriteArrayList<>(List.of(
+                new ChatMessage("hello", "host@vidmeet.test", new Date(2000)),
+                new ChatMessage("héllo ☕", "guest@vidmeet.test", new Date(3000)))));
+        // Chat but no host, as after the host left
+        VideoSocketHandler.roomMessages.put("room-b", new CopyOnWriteArrayList<>(List.of(
+                new ChatMessage("still here", "member@vidmeet.test", new Date(4000)))));
+
+        Path file = dir.resolve("room-state.snap");
+        snapshotter.write(file);
+        clearRooms();
+
+        assertEquals(2, snapshotter.restore(file));
+        assertEquals("host@vidmeet.test", VideoSocketHandler.roomHosts.get("room-a"));
+        JoinRequest request = VideoSocketHandler.pendingJoinRequests.get("room-a").get(0);
+        assertEquals("guest@vidmeet.test", request.getRequesterEmail());
+        assertEquals(1000, request.getTimestamp().getTime());
+
+        List<ChatMessage> chat = VideoSocketHandler.roomMessages.get("room-a");
+        assertEquals(2, chat.size());
+        assertEquals("héllo ☕", chat.get(1).getMessage());
+        assertEquals("guest@vidmeet.test", chat.get(1).getSender());
+        assertEquals(3000, chat.get(1).getTimestamp().getTime());
+
+        assertNull(VideoSocketHandler.roomHosts.get("room-b"));
+        assertEquals("member@vidmeet.test", VideoSocketHandler.roomMessages.get("room-b").get(0).getSender());
+    }
+
+    @Test
+    void restoreKeepsLiveStateOfRoomsAlreadyRejoined() throws Exception {
+        VideoSocketHandler.roomHosts.put("room-a", "old-host@vidmeet.test");
+        Path file = dir.resolve("room-state.snap");
+        snapshotter.write(file);
+
+        VideoSocketHandler.roomHosts.put("room-a", "new-host@vidmeet.test");
+        snapshotter.restore(file);
+        assertEquals("new-host@vidmeet.test", VideoSocketHandler.roomHosts.get("room-a"));
+    }
+
+    // Chat from new senders lands while snapshots are being written; every snapshot must still
+    // be written and read back whole
+    @Test
+    void writesStayConsistentWhileChatArrives() throws Exception {
+        List<ChatMessage> chat = new CopyOnWriteArrayList<>();
+        VideoSocketHandler.roomMessages.put("busy-room", chat);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sender = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                chat.add(new ChatMessage("message " + i, "sender" + i + "@vidmeet.test", new Date()));
+                if (chat.size() > 2000) chat.subList(0, 1000).clear();
+            }
+        });
+        sender.start();
+        try {
+            Path file = dir.resolve("room-state.snap");
+            for (int i = 0; i < 200; i++) {
+                snapshotter.write(file);
+                VideoSocketHandler.roomMessages.remove("busy-room");
+                snapshotter.restore(file);
+                List<ChatMessage> restored = VideoSocketHandler.roomMessages.get("busy-room");
+                VideoSocketHandler.roomMessages.put("busy-room", chat);
+                if (restored == null) continue;
+                for (ChatMessage message : restored) {
+                    assertTrue(message.getSender().startsWith("sender"));
+                    assertTrue(message.getMessage().startsWith("message "));
+                }
+            }
+        } finally {
+            running.set(false);
+            sender.join();
+        }
+        assertFalse(chat.isEmpty());
+    }
+}
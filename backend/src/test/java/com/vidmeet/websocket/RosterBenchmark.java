@@ -0,0 +1,91 @@
+package com.vidmeet.websocket;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Participant tables for a node with 10k concurrent rooms: the previous concurrent Set<String>
+// per room vs RoomRoster (int ids, bitset membership, id -> email array). The heap the tables
+// retain, beyond the email strings both share, is printed at setup; the benchmarks cover the
+// per-message membership check and a join/leave pair.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=RosterBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterBenchmark {
+
+    @Param({"10000"})
+    public int rooms;
+
+    @Param({"8", "50"})
+    public int participants;
+
+    @Param({"set", "roster"})
+    public String table;
+
+    private String[][] emails;
+    private Map<String, Set<String>> sets;
+    private Map<String, RoomRoster> rosters;
+    private String roomId;
+    private String member;
+    private final String newcomer = "newcomer@vidmeet.test";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emails = new String[rooms][participants];
+        for (int r = 0; r < rooms; r++) {
+            for (int p = 0; p < participants; p++) {
+                emails[r][p] = "user" + p + ".room" + r + "@vidmeet.test";
+            }
+        }
+        long before = usedHeap();
+        if ("set".equals(table)) {
+            sets = new ConcurrentHashMap<>();
+            for (int r = 0; r < rooms; r++) {
+                Set<String> set = sets.computeIfAbsent("room-" + r, k -> ConcurrentHashMap.newKeySet());
+                for (String email : emails[r]) set.add(email);
+            }
+        } else {
+            rosters = new ConcurrentHashMap<>();
+            for (int r = 0; r < rooms; r++) {
+                RoomRoster roster = rosters.computeIfAbsent("room-" + r, k -> new RoomRoster());
+                for (String email : emails[r]) roster.add(email);
+            }
+        }
+        long retained = usedHeap() - before;
+        System.out.printf("%n%s, %d rooms x %d participants: %.1f MiB retained, %.0f bytes per participant%n",
+                table, rooms, participants, retained / 1024.0 / 1024.0, (double) retained / rooms / participants);
+
+        roomId = "room-" + (rooms / 2);
+        member = emails[rooms / 2][participants - 1];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public boolean membershipCheck() {
+        return sets != null ? sets.get(roomId).contains(member) : rosters.get(roomId).contains(member);
+    }
+
+    @Benchmark
+    public boolean joinAndLeave() {
+        if (sets != null) {
+            Set<String> set = sets.get(roomId);
+            set.add(newcomer);
+            return set.remove(newcomer);
+        }
+        RoomRoster roster = rosters.get(roomId);
+        roster.add(newcomer);
+        return roster.remove(newcomer) >= 0;
+    }
+}
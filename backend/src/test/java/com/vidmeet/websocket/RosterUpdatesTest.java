@@ -0,0 +1,130 @@
+package com.vidmeet.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// participant-list / -joined / -left frames replayed the way Room.jsx applies them must leave
+// every client with the server's roster, even while people join and leave concurrently.
+class RosterUpdatesTest {
+
+    private static final String ROOM = "roster-room";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final VideoSocketHandler handler = new VideoSocketHandler(
+            new PresenceService(Mockito.mock(UserRepository.class)), new SimpleMeterRegistry(),
+            RoomEventJournal.disabled(), InboundRateLimiter.unlimited(), OverloadGuard.unlimited(),
+            ChatBatcher.disabled(), ActiveSpeakerManager.disabled(), new CallQualityStore(),
+            BandwidthController.disabled(), new SessionDirectory());
+
+    @AfterEach
+    void clearRooms() {
+        VideoSocketHandler.roomParticipants.clear();
+        VideoSocketHandler.roomMessages.clear();
+        VideoSocketHandler.roomHosts.clear();
+        VideoSocketHandler.pendingJoinRequests.clear();
+    }
+
+    @Test
+    void freedIdIsReusedOnlyAfterItsLeft() throws Exception {
+        RecordingSession observer = join("observer@vidmeet.test");
+        RecordingSession a = join("a@vidmeet.test");
+        handler.afterConnectionClosed(a, CloseStatus.NORMAL);
+        join("b@vidmeet.test");
+
+        assertEquals(Set.of("observer@vidmeet.test", "b@vidmeet.test"), replay(observer));
+    }
+
+    @Test
+    void concurrentJoinsAndLeavesKeepEveryClientInStep() throws Exception {
+        RecordingSession observer = join("observer@vidmeet.test");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String email = "user" + t + "@vidmeet.test";
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 300; i++) {
+                    RecordingSession session = join(email);
+                    handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+                }
+                join(email); // the last one stays
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+
+        Set<String> expected = new HashSet<>(VideoSocketHandler.roomParticipants.get(ROOM).emails());
+        assertEquals(9, expected.size());
+        assertEquals(expected, replay(observer));
+    }
+
+    // Applies the frames like Room.jsx: the list replaces everything, joins map an id, and a
+    // left removes whoever the id maps to
+    private Set<String> replay(RecordingSession session) throws Exception {
+        Map<Integer, String> ids = new HashMap<>();
+        Set<String> participants = new HashSet<>();
+        for (String frame : session.frames) {
+            Map<String, Object> data = objectMapper.readValue(frame, Map.class);
+            switch ((String) data.get("type")) {
+                case "participant-list" -> {
+                    List<String> emails = (List<String>) data.get("participants");
+                    List<Integer> frameIds = (List<Integer>) data.get("ids");
+                    ids.clear();
+                    participants.clear();
+                    participants.addAll(emails);
+                    for (int i = 0; i < frameIds.size(); i++) ids.put(frameIds.get(i), emails.get(i));
+                }
+                case "participant-joined" -> {
+                    // An id still mapped here means its left hasn't arrived yet
+                    assertNull(ids.put((Integer) data.get("id"), (String) data.get("email")), frame);
+                    participants.add((String) data.get("email"));
+                }
+                case "participant-left" -> {
+                    String left = ids.remove((Integer) data.get("id"));
+                    if (left != null) participants.remove(left);
+                }
+                default -> {
+                }
+            }
+        }
+        return participants;
+    }
+
+    private RecordingSession join(String email) {
+        RecordingSession session = new RecordingSession(email);
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    private static class RecordingSession extends StubWebSocketSession {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+
+        RecordingSession(String email) {
+            super(email + "-" + System.nanoTime(), ROOM, email);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            frames.add(((TextMessage) message).getPayload());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.vidmeet.websocket;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Finding one user's session: the old scan of the room's session list comparing emails,
+// vs the node-wide SessionDirectory (rooms x roomSize sessions registered). The target sits
+// at the end of its room, the scan's worst case.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=SessionDirectoryBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionDirectoryBenchmark {
+
+    @Param({"10", "200"})
+    public int roomSize;
+
+    @Param({"1000"})
+    public int rooms;
+
+    private final SessionDirectory directory = new SessionDirectory();
+    private final List<WebSocketSession> room = new ArrayList<>();
+    private String target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int r = 0; r < rooms; r++) {
+            for (int i = 0; i < roomSize; i++) {
+                String email = "user" + r + "-" + i + "@vidmeet.test";
+                StubWebSocketSession session = new StubWebSocketSession("s" + r + "-" + i, "room-" + r, email);
+                directory.add(email, session);
+                if (r == 0) room.add(session);
+            }
+        }
+        target = "user0-" + (roomSize - 1) + "@vidmeet.test";
+    }
+
+    @Benchmark
+    public WebSocketSession roomScan() {
+        for (WebSocketSession session : room) {
+            if (target.equals(session.getAttributes().get(JwtHandshakeInterceptor.ATTR_EMAIL))) return session;
+        }
+        return null;
+    }
+
+    @Benchmark
+    public WebSocketSession directoryLookup() {
+        for (WebSocketSession session : directory.sessionsOf(target)) {
+            return session;
+        }
+        return null;
+    }
+}
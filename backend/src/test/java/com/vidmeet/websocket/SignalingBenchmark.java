@@ -0,0 +1,94 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.repository.UserRepository;
+import com.vidmeet.service.CallQualityStore;
+import com.vidmeet.service.PresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Hot paths of VideoSocketHandler at different room sizes. Sessions are stubs, so the
+// numbers cover decode, dispatch, serialization and fan-out loop cost, not network I/O.
+// Run with: mvn -Pbenchmark verify -DskipTests
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalingBenchmark {
+
+    @Param({"2", "10", "50", "100", "500"})
+    public int roomSize;
+
+    private VideoSocketHandler handler;
+    private final List<StubWebSocketSession> sessions = new ArrayList<>();
+    private StubWebSocketSession sender;
+    private StubWebSocketSession newcomer;
+    private String roomId;
+
+    private final TextMessage heartbeat = new TextMessage("{\"type\":\"heartbeat\"}");
+    private final TextMessage approval = new TextMessage(
+            "{\"type\":\"approval\",\"email\":\"user1@vidmeet.test\",\"status\":\"approved\"}");
+    private final TextMessage iceCandidate = new TextMessage(
+            "{\"type\":\"ice-candidate\",\"from\":\"user0@vidmeet.test\",\"to\":\"user1@vidmeet.test\","
+                    + "\"candidate\":{\"candidate\":\"candidate:1 1 udp 2122260223 192.168.1.10 54321 typ host\","
+                    + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0}}");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PresenceService presence = new PresenceService(Mockito.mock(UserRepository.class));
+        handler = new VideoSocketHandler(presence, new SimpleMeterRegistry(), RoomEventJournal.disabled(),
+                InboundRateLimiter.unlimited(), OverloadGuard.unlimited(), ChatBatcher.disabled(),
+                ActiveSpeakerManager.disabled(), new CallQualityStore(), BandwidthController.disabled(),
+                new SessionDirectory());
+        roomId = "bench-" + roomSize;
+
+        for (int i = 0; i < roomSize; i++) {
+            StubWebSocketSession session = new StubWebSocketSession("s" + i, roomId, "user" + i + "@vidmeet.test");
+            handler.afterConnectionEstablished(session);
+            sessions.add(session);
+        }
+        sender = sessions.get(0);
+        newcomer = new StubWebSocketSession("newcomer", roomId, "newcomer@vidmeet.test");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (StubWebSocketSession session : sessions) {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+    }
+
+    // JSON decode + switch dispatch, no fan-out
+    @Benchmark
+    public void decodeAndDispatch() throws Exception {
+        handler.handleMessage(sender, heartbeat);
+    }
+
+    // broadcastToAll: re-serialize and send to every session in the room
+    @Benchmark
+    public void broadcastToAll() throws Exception {
+        handler.handleMessage(sender, approval);
+    }
+
+    // Signaling relay: raw payload to everyone but the sender
+    @Benchmark
+    public void relayIceCandidate() throws Exception {
+        handler.handleMessage(sender, iceCandidate);
+    }
+
+    // One participant connecting and leaving: participant-list for roomSize emails to them,
+    // then participant-joined and participant-left to everyone else, under the roster lock
+    @Benchmark
+    public void joinAndLeave() {
+        handler.afterConnectionEstablished(newcomer);
+        handler.afterConnectionClosed(newcomer, CloseStatus.NORMAL);
+    }
+}
@@ -0,0 +1,68 @@
+package com.vidmeet.websocket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Meters as they land in a simple registry
+class SignalingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Object> rooms = new HashMap<>();
+    private final SignalingMetrics metrics = new SignalingMetrics(registry, rooms);
+
+    @Test
+    void unknownTypesShareOneTagAndUnparseableFramesAnother() {
+        metrics.recordMessage("chat", 1000);
+        metrics.recordMessage("made-up-1", 1000);
+        metrics.recordMessage("made-up-2", 1000);
+        metrics.recordMessage(null, 1000);
+
+        assertEquals(1, messages("chat"));
+        assertEquals(2, messages("other"));
+        assertEquals(1, messages("invalid"));
+        assertEquals(2, registry.get("vidmeet.ws.handle").tag("type", "other").timer().count());
+        // Nothing registered on the fly: the tag set stays what the constructor made
+        assertTrue(registry.find("vidmeet.ws.messages").tag("type", "made-up-1").counters().isEmpty());
+        assertEquals(SignalingMetrics.KNOWN_TYPES.size() + 2, registry.find("vidmeet.ws.messages").counters().size());
+    }
+
+    @Test
+    void broadcastsAndFailuresLandOnTheirOwnMeters() {
+        metrics.recordBroadcast(3, TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordBroadcast(7, TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.recordSendFailure();
+        metrics.recordRateLimited(InboundRateLimiter.MessageClass.CHAT);
+
+        DistributionSummary fanOut = registry.get("vidmeet.ws.fanout.size").summary();
+        assertEquals(2, fanOut.count());
+        assertEquals(10, fanOut.totalAmount());
+        assertEquals(7, fanOut.max());
+        assertEquals(6, registry.get("vidmeet.ws.broadcast").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("vidmeet.ws.send.failures").counter().count());
+        assertEquals(1, registry.get("vidmeet.ws.ratelimit.dropped").tag("class", "chat").counter().count());
+        assertEquals(0, registry.get("vidmeet.ws.ratelimit.dropped").tag("class", "signaling").counter().count());
+    }
+
+    @Test
+    void gaugesFollowSessionsAndRooms() {
+        metrics.sessionOpened();
+        metrics.sessionOpened();
+        metrics.sessionClosed();
+        rooms.put("standup", new Object());
+
+        assertEquals(1, registry.get("vidmeet.ws.sessions.active").gauge().value());
+        assertEquals(1, registry.get("vidmeet.ws.rooms.active").gauge().value());
+    }
+
+    private double messages(String type) {
+        return registry.get("vidmeet.ws.messages").tag("type", type).counter().count();
+    }
+}
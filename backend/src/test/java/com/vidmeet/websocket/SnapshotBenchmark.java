@@ -0,0 +1,85 @@
+package com.vidmeet.websocket;
+
+import com.vidmeet.websocket.VideoSocketHandler.ChatMessage;
+import com.vidmeet.websocket.VideoSocketHandler.JoinRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Warm-restart cost for a node holding 10k rooms (host, 2 pending requests, 25 chat messages each).
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=SnapshotBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"10000"})
+    public int rooms;
+
+    private final RoomStateSnapshotter snapshotter = new RoomStateSnapshotter();
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        clearRooms();
+        long now = System.currentTimeMillis();
+        for (int r = 0; r < rooms; r++) {
+            String roomId = "room-" + r;
+            String host = "host" + r + "@vidmeet.test";
+            VideoSocketHandler.roomHosts.put(roomId, host);
+            List<JoinRequest> pending = new CopyOnWriteArrayList<>();
+            pending.add(new JoinRequest("guest" + r + "a@vidmeet.test", new Date(now)));
+            pending.add(new JoinRequest("guest" + r + "b@vidmeet.test", new Date(now)));
+            VideoSocketHandler.pendingJoinRequests.put(roomId, pending);
+            List<ChatMessage> messages = new CopyOnWriteArrayList<>();
+            for (int m = 0; m < 25; m++) {
+                String sender = m % 2 == 0 ? host : "member" + (m % 5) + "." + r + "@vidmeet.test";
+                messages.add(new ChatMessage("message " + m + " - can everyone see my screen?", sender, new Date(now + m)));
+            }
+            VideoSocketHandler.roomMessages.put(roomId, messages);
+        }
+        file = Files.createTempFile("room-state", ".snap");
+        snapshotter.write(file);
+        System.out.printf("%nsnapshot size for %d rooms: %.1f MiB%n", rooms, Files.size(file) / 1024.0 / 1024.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        clearRooms();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        snapshotter.write(file);
+    }
+
+    @Benchmark
+    public int restore(CleanRooms clean) throws IOException {
+        return snapshotter.restore(file);
+    }
+
+    // Restore uses putIfAbsent, so each invocation starts from empty maps
+    @State(Scope.Thread)
+    public static class CleanRooms {
+        @Setup(Level.Invocation)
+        public void clear() {
+            clearRooms();
+        }
+    }
+
+    private static void clearRooms() {
+        VideoSocketHandler.roomHosts.clear();
+        VideoSocketHandler.pendingJoinRequests.clear();
+        VideoSocketHandler.roomMessages.clear();
+    }
+}
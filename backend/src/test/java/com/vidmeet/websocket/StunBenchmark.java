@@ -0,0 +1,90 @@
+package com.vidmeet.websocket;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// STUN responder throughput. loopbackPackets pipelines a window of Binding requests over
+// 127.0.0.1 and waits for every answer, so the score is answered packets per second through
+// the real selector loop; encodeResponse is the per-packet parse + encode cost alone.
+// Run with: mvn -Pbenchmark verify -DskipTests -Djmh.include=StunBenchmark
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StunBenchmark {
+
+    private static final int WINDOW = 32;
+
+    private StunServer server;
+    private DatagramSocket client;
+    private DatagramPacket[] requests;
+    private DatagramPacket response;
+    private long lost;
+
+    private ByteBuffer request;
+    private ByteBuffer out;
+    private InetSocketAddress source;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StunServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.start(null);
+        client = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client.setSoTimeout(200);
+        requests = new DatagramPacket[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            byte[] data = StunServerTest.bindingRequest(StunServerTest.transactionId());
+            requests[i] = new DatagramPacket(data, data.length, server.getLocalAddress());
+        }
+        response = new DatagramPacket(new byte[1500], 1500);
+
+        request = ByteBuffer.allocateDirect(64);
+        request.put(StunServerTest.bindingRequest(StunServerTest.transactionId())).flip();
+        out = ByteBuffer.allocateDirect(64);
+        source = new InetSocketAddress("203.0.113.7", 51234);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        if (lost > 0) System.out.println("lost responses: " + lost);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(WINDOW)
+    public int loopbackPackets() throws IOException {
+        for (DatagramPacket packet : requests) {
+            client.send(packet);
+        }
+        int received = 0;
+        for (int i = 0; i < WINDOW; i++) {
+            try {
+                client.receive(response);
+                received++;
+            } catch (SocketTimeoutException e) {
+                lost += WINDOW - received;
+                break;
+            }
+        }
+        return received;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean encodeResponse() {
+        out.clear();
+        return server.writeBindingResponse(request, source, out);
+    }
+}
@@ -0,0 +1,150 @@
+package com.vidmeet.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Real UDP round trips against the responder on 127.0.0.1 and an ephemeral port
+class StunServerTest {
+
+    private StunServer server;
+    private InetSocketAddress serverAddress;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new StunServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        server.start(null);
+        serverAddress = server.getLocalAddress();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        server.close();
+    }
+
+    @Test
+    void answersBindingRequestWithReflexiveAddress() throws Exception {
+        try (DatagramSocket client = client()) {
+            byte[] transactionId = transactionId();
+            client.send(packet(bindingRequest(transactionId)));
+
+            ByteBuffer response = receive(client);
+            assertEquals(StunServer.BINDING_SUCCESS, response.getShort(0));
+            assertEquals(StunServer.MAGIC_COOKIE, response.getInt(4));
+            assertArrayEquals(transactionId, Arrays.copyOfRange(response.array(), 8, 20));
+            assertEquals(response.limit() - StunServer.HEADER_LENGTH, response.getShort(2));
+
+            // XOR-MAPPED-ADDRESS, IPv4: port ^ cookie high bits, address ^ cookie
+            assertEquals(StunServer.ATTR_XOR_MAPPED_ADDRESS, response.getShort(20));
+            assertEquals(8, response.getShort(22));
+            assertEquals(0x01, response.get(25));
+            int port = (response.getShort(26) ^ (StunServer.MAGIC_COOKIE >>> 16)) & 0xffff;
+            int address = response.getInt(28) ^ StunServer.MAGIC_COOKIE;
+            assertEquals(client.getLocalPort(), port);
+            assertEquals(ByteBuffer.wrap(InetAddress.getLoopbackAddress().getAddress()).getInt(), address);
+
+            // FINGERPRINT: CRC-32 of everything before it, XOR 0x5354554e
+            assertEquals(StunServer.ATTR_FINGERPRINT, response.getShort(32));
+            CRC32 crc = new CRC32();
+            crc.update(response.array(), 0, 32);
+            assertEquals((int) crc.getValue() ^ 0x5354554e, response.getInt(36));
+            assertEquals(40, response.limit());
+        }
+    }
+
+    @Test
+    void ignoresAnythingButBindingRequests() throws Exception {
+        try (DatagramSocket client = client()) {
+            byte[] wrongCookie = bindingRequest(transactionId());
+            wrongCookie[4] ^= 1;
+            byte[] notBinding = bindingRequest(transactionId());
+            notBinding[1] = 0x02;
+            byte[] badLength = Arrays.copyOf(bindingRequest(transactionId()), 24);
+
+            client.send(packet(wrongCookie));
+            client.send(packet(notBinding));
+            client.send(packet(badLength));
+            client.send(packet("hello".getBytes()));
+            assertThrows(SocketTimeoutException.class, () -> receive(client));
+            assertEquals(4, server.getInvalid());
+            assertEquals(0, server.getResponses());
+        }
+    }
+
+    @Test
+    void answersEveryRequestFromManyClients() throws Exception {
+        int clients = 8;
+        int requests = 50;
+        for (int c = 0; c < clients; c++) {
+            try (DatagramSocket client = client()) {
+                for (int i = 0; i < requests; i++) {
+                    byte[] transactionId = transactionId();
+                    client.send(packet(bindingRequest(transactionId)));
+                    assertArrayEquals(transactionId, Arrays.copyOfRange(receive(client).array(), 8, 20));
+                }
+            }
+        }
+        assertEquals(clients * requests, server.getResponses());
+        assertEquals(0, server.getDropped());
+    }
+
+    @Test
+    void acceptsRequestsWithAttributes() throws Exception {
+        try (DatagramSocket client = client()) {
+            // SOFTWARE attribute, 4 bytes of value
+            ByteBuffer request = ByteBuffer.allocate(28);
+            request.put(bindingRequest(transactionId()));
+            request.putShort(2, (short) 8);
+            request.putShort(20, (short) 0x8022).putShort(22, (short) 4).putInt(24, 0x76696d74);
+            client.send(packet(request.array()));
+            assertEquals(StunServer.BINDING_SUCCESS, receive(client).getShort(0));
+        }
+    }
+
+    private static DatagramSocket client() throws Exception {
+        DatagramSocket client = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client.setSoTimeout(500);
+        return client;
+    }
+
+    private DatagramPacket packet(byte[] data) {
+        return new DatagramPacket(data, data.length, serverAddress);
+    }
+
+    private static ByteBuffer receive(DatagramSocket client) throws Exception {
+        byte[] buffer = new byte[1500];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        client.receive(packet);
+        return ByteBuffer.wrap(Arrays.copyOf(buffer, packet.getLength()));
+    }
+
+    static byte[] transactionId() {
+        byte[] id = new byte[12];
+        ThreadLocalRandom.current().nextBytes(id);
+        return id;
+    }
+
+    static byte[] bindingRequest(byte[] transactionId) {
+        return ByteBuffer.allocate(StunServer.HEADER_LENGTH)
+                .putShort(StunServer.BINDING_REQUEST)
+                .putShort((short) 0)
+                .putInt(StunServer.MAGIC_COOKIE)
+                .put(transactionId)
+                .array();
+    }
+}
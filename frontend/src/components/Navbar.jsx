@@ -1,11 +1,19 @@
 // src/components/Navbar.jsx
 import { useNavigate } from "react-router-dom";
+import axiosInstance from "../utils/axios";
 
 export default function Navbar() {
   const navigate = useNavigate();
   const user = JSON.parse(localStorage.getItem("user"));
 
   const handleLogout = () => {
+    // Revoke the token server-side; local cleanup doesn't wait on it
+    const token = localStorage.getItem("token");
+    if (token) {
+      axiosInstance
+        .post("/api/auth/logout", null, { headers: { Authorization: `Bearer ${token}` } })
+        .catch(() => {});
+    }
     localStorage.removeItem("token");
     localStorage.removeItem("user");
     navigate("/login");
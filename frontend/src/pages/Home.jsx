@@ -80,6 +80,11 @@ const Home = () => {
         navigate('/login');
         return;
       }
+      if (err.response?.status === 503) {
+        const retryAfter = err.response.headers?.['retry-after'];
+        alert(`⏳ Server is busy. Please try again${retryAfter ? ` in ${retryAfter} seconds` : ' shortly'}.`);
+        return;
+      }
       alert("❌ Error: " + (err.message || "Failed to create meeting"));
     } finally {
       setIsLoading(false);
@@ -4,6 +4,16 @@ import { useParams, useNavigate } from 'react-router-dom';
 import { getUserData } from '../utils/auth';
 import axiosInstance from '../utils/axios';
 
+// getStats summaries go out once a second: the server's bandwidth controller probes and tracks
+// its RTT baseline per report, and is tuned (and simulated) at this cadence
+const STATS_INTERVAL_MS = 1000;
+
+// Backend's own STUN responder, only when the build says it runs (stun.enabled on the server):
+// REACT_APP_STUN_ENABLED=true, REACT_APP_STUN_PORT to match stun.port. Same host as the API.
+const BACKEND_STUN = process.env.REACT_APP_STUN_ENABLED === 'true'
+  ? [{ urls: `stun:${new URL(axiosInstance.defaults.baseURL).hostname}:${process.env.REACT_APP_STUN_PORT || 3478}` }]
+  : [];
+
 export default function Room() {
   const { roomId } = useParams();
   const navigate = useNavigate();
@@ -24,6 +34,9 @@ export default function Room() {
   const [participantProfiles, setParticipantProfiles] = useState({});
   const [showKickModal, setShowKickModal] = useState(false);
   const [selectedParticipant, setSelectedParticipant] = useState(null);
+  const [partition, setPartition] = useState('main');
+  const rosterIds = useRef({});
+  const [breakouts, setBreakouts] = useState({});
   
   const wsRef = useRef(null);
   const localVideoRef = useRef(null);
@@ -33,6 +46,7 @@ export default function Room() {
   // WebRTC Configuration
   const configuration = {
     iceServers: [
+      ...BACKEND_STUN,
       { urls: 'stun:stun.l.google.com:19302' },
       { urls: 'stun:stun1.l.google.com:19302' }
     ]
@@ -75,16 +89,18 @@ export default function Room() {
     };
   }, [isApproved]);
 
-  // Fetch participant profiles
-  const fetchParticipantProfile = async (participantEmail) => {
+  // Fetch profiles for participants we haven't seen yet, one batch request per roster update
+  const requestedProfiles = useRef(new Set());
+  const fetchParticipantProfiles = async (participantEmails) => {
+    const missing = participantEmails.filter(p => !requestedProfiles.current.has(p));
+    if (missing.length === 0) return;
+    missing.forEach(p => requestedProfiles.current.add(p));
     try {
-      const response = await axiosInstance.get(`/api/profile/user/${participantEmail}`);
-      setParticipantProfiles(prev => ({
-        ...prev,
-        [participantEmail]: response.data
-      }));
+      const response = await axiosInstance.post('/api/profile/users/batch', { emails: missing });
+      setParticipantProfiles(prev => ({ ...prev, ...response.data }));
     } catch (error) {
-      console.error('Error fetching participant profile:', error);
+      missing.forEach(p => requestedProfiles.current.delete(p));
+      console.error('Error fetching participant profiles:', error);
     }
   };
 
@@ -105,7 +121,9 @@ export default function Room() {
       .then(res => setHostEmail(res.data.hostEmail))
       .catch(() => { /* ignore */ });
 
-    const ws = new WebSocket(`ws://localhost:8080/ws/${roomId}?email=${encodeURIComponent(email)}`);
+    // Identity comes from the JWT; the server ignores any client-supplied email
+    const token = localStorage.getItem('token');
+    const ws = new WebSocket(`ws://localhost:8080/ws/${roomId}?token=${encodeURIComponent(token)}`);
     wsRef.current = ws;
 
     ws.onopen = () => {
@@ -123,15 +141,27 @@ export default function Room() {
     ws.onmessage = (ev) => {
       const data = JSON.parse(ev.data);
 
-      // Handle participant list updates
+      // Handle participant list updates. The full list comes once, with each participant's
+      // room id; after that the server only sends joins and leaves, leaves by id.
       if (data.type === 'participant-list') {
-        setParticipants(data.participants || []);
+        const list = data.participants || [];
+        rosterIds.current = {};
+        (data.ids || []).forEach((id, i) => { rosterIds.current[id] = list[i]; });
+        setParticipants(list);
         // Fetch profiles for new participants
-        data.participants?.forEach(participant => {
-          if (!participantProfiles[participant]) {
-            fetchParticipantProfile(participant);
-          }
-        });
+        fetchParticipantProfiles(list);
+        return;
+      }
+      if (data.type === 'participant-joined') {
+        rosterIds.current[data.id] = data.email;
+        setParticipants(prev => prev.includes(data.email) ? prev : [...prev, data.email]);
+        fetchParticipantProfiles([data.email]);
+        return;
+      }
+      if (data.type === 'participant-left') {
+        const left = rosterIds.current[data.id];
+        delete rosterIds.current[data.id];
+        if (left) setParticipants(prev => prev.filter(p => p !== left));
         return;
       }
 
@@ -156,6 +186,112 @@ export default function Room() {
         return;
       }
 
+      // Large rooms deliver chat in batches, once per server tick
+      if (data.type === 'chat-batch') {
+        const incoming = (data.messages || []).filter(m => m.sender !== email);
+        if (incoming.length > 0) setMessages(prev => [...prev, ...incoming]);
+        return;
+      }
+
+      // Large rooms: only keep connections to the active speakers (or to everyone, if we are one).
+      // Listeners call new speakers; between two speakers the smaller email calls.
+      if (data.type === 'speakers') {
+        const current = new Set(data.speakers || []);
+        const isSpeaker = current.has(email);
+        Object.keys(peerConnections.current).forEach(peer => {
+          if (!isSpeaker && !current.has(peer)) {
+            peerConnections.current[peer].close();
+            delete peerConnections.current[peer];
+            setRemoteStreams(prev => {
+              const next = { ...prev };
+              delete next[peer];
+              return next;
+            });
+          }
+        });
+        (data.added || []).forEach(peer => {
+          if (peer !== email && !peerConnections.current[peer] && (!isSpeaker || email < peer)) {
+            startCall(peer);
+          }
+        });
+        return;
+      }
+
+      // The room is small enough for a full mesh again: call whoever we dropped
+      if (data.type === 'mesh') {
+        (data.members || []).forEach(peer => {
+          if (peer !== email && !peerConnections.current[peer] && email < peer) {
+            startCall(peer);
+          }
+        });
+        return;
+      }
+
+      // Breakouts: keep connections only to our partition's members. Same tie-break as the
+      // speaker set: the smaller email calls.
+      if (data.type === 'breakout') {
+        const members = new Set(data.members || []);
+        setPartition(data.partition);
+        Object.keys(peerConnections.current).forEach(peer => {
+          if (!members.has(peer)) {
+            peerConnections.current[peer].close();
+            delete peerConnections.current[peer];
+            setRemoteStreams(prev => {
+              const next = { ...prev };
+              delete next[peer];
+              return next;
+            });
+          }
+        });
+        members.forEach(peer => {
+          if (peer !== email && !peerConnections.current[peer] && email < peer) {
+            startCall(peer);
+          }
+        });
+        return;
+      }
+
+      // Host's view of who is in which partition
+      if (data.type === 'breakouts') {
+        setBreakouts(data.partitions || {});
+        return;
+      }
+
+      // Direct messages and invites can come from any room on the server
+      if (data.type === 'direct') {
+        setMessages(prev => [...prev, { ...data, sender: data.from, message: `🔒 ${data.message}` }]);
+        return;
+      }
+      if (data.type === 'invite') {
+        if (data.roomId !== roomId && window.confirm(`${data.from} invites you to meeting ${data.roomId}. Join now?`)) {
+          navigate(`/room/${data.roomId}`);
+        }
+        return;
+      }
+
+      // Host announcements reach every partition
+      if (data.type === 'host_broadcast') {
+        setMessages(prev => [...prev, { ...data, message: `📢 ${data.message}` }]);
+        return;
+      }
+
+      // Server-side bandwidth adaptation: cap what we send to one receiver's connection.
+      // In the mesh each receiver has its own sender, so a "layer" is a resolution scale.
+      if (data.type === 'layer_hint' || data.type === 'max_bitrate') {
+        const pc = peerConnections.current[data.receiver];
+        const sender = pc && pc.getSenders().find(s => s.track && s.track.kind === 'video');
+        if (!sender) return;
+        const params = sender.getParameters();
+        if (!params.encodings || params.encodings.length === 0) params.encodings = [{}];
+        if (data.type === 'layer_hint') {
+          params.encodings[0].scaleResolutionDownBy = { high: 1, mid: 2, low: 4 }[data.layer] || 1;
+        } else {
+          params.encodings[0].maxBitrate = data.kbps * 1000;
+        }
+        sender.setParameters(params).catch(err => console.error('Error applying bandwidth hint:', err));
+        return;
+      }
+
       // Handle WebRTC signaling
       if (data.type === 'offer') {
         handleOffer(data);
@@ -206,12 +342,26 @@ export default function Room() {
       }
     };
 
-    ws.onclose = () => { /* closed */ };
+    // Keeps server-side presence fresh
+    const heartbeat = setInterval(() => {
+      if (ws.readyState === WebSocket.OPEN) {
+        ws.send(JSON.stringify({ type: 'heartbeat' }));
+      }
+    }, 30000);
+
+    ws.onclose = (event) => {
+      // 1013: node overloaded, 4029: room at capacity (see OverloadGuard)
+      if (event.code === 1013 || event.code === 4029) {
+        alert(event.code === 4029 ? 'This meeting is full.' : 'The server is busy. Please try again shortly.');
+        navigate('/home');
+      }
+    };
 
     return () => {
+      clearInterval(heartbeat);
       ws.close();
     };
-  }, [email, roomId, hostEmail, navigate, participantProfiles]);
+  }, [email, roomId, hostEmail, navigate]);
 
   // WebRTC Functions
   const createPeerConnection = (participantEmail) => {
@@ -248,6 +398,19 @@ export default function Room() {
     return pc;
   };
 
+  const startCall = async (participantEmail) => {
+    const pc = createPeerConnection(participantEmail);
+    const offer = await pc.createOffer();
+    await pc.setLocalDescription(offer);
+
+    wsRef.current.send(JSON.stringify({
+      type: 'offer',
+      offer: offer,
+      to: participantEmail,
+      from: email
+    }));
+  };
+
   const handleOffer = async (data) => {
     const pc = createPeerConnection(data.from);
     await pc.setRemoteDescription(new RTCSessionDescription(data.offer));
@@ -340,6 +503,40 @@ export default function Room() {
     }
   };
 
+  const broadcastToAllRooms = () => {
+    if (newMessage.trim()) {
+      wsRef.current.send(JSON.stringify({ type: 'host_broadcast', message: newMessage }));
+      setNewMessage('');
+    }
+  };
+
+  const assignBreakout = (participantEmail, target) => {
+    wsRef.current.send(JSON.stringify({ type: 'breakout_assign', assignments: { [participantEmail]: target } }));
+  };
+
+  const closeBreakouts = () => {
+    wsRef.current.send(JSON.stringify({ type: 'breakout_close' }));
+  };
+
+  const partitionOf = (participantEmail) =>
+    Object.keys(breakouts).find(name => breakouts[name].includes(participantEmail)) || 'main';
+
+  const sendDirectMessage = (participantEmail) => {
+    const text = window.prompt(`Private message to ${participantEmail}:`);
+    if (text && text.trim()) {
+      wsRef.current.send(JSON.stringify({ type: 'direct', to: participantEmail, message: text }));
+      setMessages(prev => [...prev, { sender: email, message: `🔒 to ${participantEmail}: ${text}`, timestamp: new Date().toLocaleTimeString() }]);
+    }
+  };
+
+  const inviteByEmail = () => {
+    const to = window.prompt('Invite who (email)?');
+    if (!to || !to.trim()) return;
+    axiosInstance.post('/api/direct', { to: to.trim(), roomId })
+      .then(() => alert(`✅ Invite sent to ${to}`))
+      .catch(err => alert(err.response?.data || 'Could not send invite'));
+  };
+
   const leaveMeeting = () => {
     if (localStream) {
       localStream.getTracks().forEach(track => track.stop());
@@ -348,6 +545,79 @@ export default function Room() {
     navigate('/home');
   };
 
+  // Report microphone level so the server can pick active speakers in large rooms
+  useEffect(() => {
+    if (!localStream || localStream.getAudioTracks().length === 0) return;
+    const audioContext = new AudioContext();
+    const analyser = audioContext.createAnalyser();
+    analyser.fftSize = 512;
+    audioContext.createMediaStreamSource(localStream).connect(analyser);
+    const samples = new Float32Array(analyser.fftSize);
+
+    const interval = setInterval(() => {
+      const ws = wsRef.current;
+      if (!ws || ws.readyState !== WebSocket.OPEN) return;
+      analyser.getFloatTimeDomainData(samples);
+      let sum = 0;
+      for (let i = 0; i < samples.length; i++) sum += samples[i] * samples[i];
+      const muted = !localStream.getAudioTracks()[0].enabled;
+      const level = muted ? 0 : Math.min(1, Math.sqrt(sum / samples.length) * 4);
+      ws.send(JSON.stringify({ type: 'audio_level', level: Math.round(level * 100) / 100 }));
+    }, 500);
+
+    return () => {
+      clearInterval(interval);
+      audioContext.close();
+    };
+  }, [localStream]);
+
+  // Push a compact getStats summary across all peer connections for server-side call quality
+  const lastBytesSent = useRef(0);
+  const lastPackets = useRef({ lost: 0, received: 0 });
+  useEffect(() => {
+    const interval = setInterval(async () => {
+      const ws = wsRef.current;
+      const pcs = Object.values(peerConnections.current);
+      if (!ws || ws.readyState !== WebSocket.OPEN || pcs.length === 0) return;
+
+      let rtt = 0, rttCount = 0, jitter = 0, jitterCount = 0, lost = 0, received = 0, bytesSent = 0, available = 0;
+      for (const pc of pcs) {
+        const report = await pc.getStats();
+        report.forEach(stat => {
+          if (stat.type === 'candidate-pair' && stat.nominated && stat.currentRoundTripTime !== undefined) {
+            rtt += stat.currentRoundTripTime * 1000;
+            rttCount++;
+            available += stat.availableIncomingBitrate || 0;
+          } else if (stat.type === 'inbound-rtp') {
+            if (stat.jitter !== undefined) {
+              jitter += stat.jitter * 1000;
+              jitterCount++;
+            }
+            lost += stat.packetsLost || 0;
+            received += stat.packetsReceived || 0;
+          } else if (stat.type === 'outbound-rtp') {
+            bytesSent += stat.bytesSent || 0;
+          }
+        });
+      }
+      const sentDelta = Math.max(0, bytesSent - lastBytesSent.current);
+      lastBytesSent.current = bytesSent;
+      // Loss over this interval, not since the call started, so the server can react to it
+      const lostDelta = Math.max(0, lost - lastPackets.current.lost);
+      const receivedDelta = Math.max(0, received - lastPackets.current.received);
+      lastPackets.current = { lost, received };
+      ws.send(JSON.stringify({
+        type: 'stats',
+        rtt: rttCount ? Math.round(rtt / rttCount) : 0,
+        jitter: jitterCount ? Math.round(jitter / jitterCount) : 0,
+        loss: lostDelta + receivedDelta > 0 ? Math.round(10000 * lostDelta / (lostDelta + receivedDelta)) / 100 : 0,
+        bitrate: Math.round(sentDelta * 8 / STATS_INTERVAL_MS),
+        available: Math.round(available / 1000)
+      }));
+    }, STATS_INTERVAL_MS);
+    return () => clearInterval(interval);
+  }, []);
+
   // Auto-scroll chat to bottom
   useEffect(() => {
     if (chatRef.current) {
@@ -392,6 +662,7 @@ export default function Room() {
             </h1>
             <p className="text-sm text-gray-300">
               You are: {email} {email === hostEmail && '👑 (Host)'}
+              {partition !== 'main' && ` · 🚪 Breakout: ${partition}`}
             </p>
           </div>
           <div className="flex items-center space-x-4">
@@ -409,6 +680,12 @@ export default function Room() {
             >
               👥 Participants
             </button>
+            <button
+              onClick={inviteByEmail}
+              className="bg-purple-500/20 hover:bg-purple-500/30 px-4 py-2 rounded-full transition-all duration-200"
+            >
+              ✉️ Invite
+            </button>
             <button
               onClick={() => setIsChatOpen(!isChatOpen)}
               className="bg-green-500/20 hover:bg-green-500/30 px-4 py-2 rounded-full transition-all duration-200"
@@ -555,6 +832,26 @@ export default function Room() {
                         )}
                       </div>
                     </div>
+                    {participant !== email && (
+                      <button
+                        onClick={() => sendDirectMessage(participant)}
+                        title="Private message"
+                        className="bg-blue-500/20 hover:bg-blue-500/30 px-2 py-1 rounded text-xs mr-2 transition-all duration-200"
+                      >
+                        ✉️
+                      </button>
+                    )}
+                    {email === hostEmail && participant !== email && (
+                      <select
+                        value={partitionOf(participant)}
+                        onChange={(e) => assignBreakout(participant, e.target.value)}
+                        className="bg-white/10 rounded text-xs px-2 py-1 mr-2"
+                      >
+                        {['main', 'room-1', 'room-2', 'room-3', 'room-4'].map(name => (
+                          <option key={name} value={name} className="bg-gray-800">{name}</option>
+                        ))}
+                      </select>
+                    )}
                     {email === hostEmail && participant !== email && (
                       <button
                         onClick={() => {
@@ -569,6 +866,14 @@ export default function Room() {
                   </div>
                 ))}
               </div>
+              {email === hostEmail && Object.keys(breakouts).length > 1 && (
+                <button
+                  onClick={closeBreakouts}
+                  className="mt-4 w-full bg-yellow-500/20 hover:bg-yellow-500/30 px-4 py-2 rounded-lg text-sm transition-all duration-200"
+                >
+                  🚪 Close breakouts
+                </button>
+              )}
             </div>
           )}
 
@@ -625,6 +930,15 @@ export default function Room() {
                   >
                     Send
                   </button>
+                  {email === hostEmail && (
+                    <button
+                      onClick={broadcastToAllRooms}
+                      title="Send to every breakout room"
+                      className="px-4 py-3 bg-yellow-500/20 hover:bg-yellow-500/30 rounded-full transition-all duration-200"
+                    >
+                      📢
+                    </button>
+                  )}
                 </div>
               </div>
             </div>